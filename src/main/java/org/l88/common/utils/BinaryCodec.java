@@ -0,0 +1,609 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 二进制与文本之间的分块编码: Base64(标准及URL安全)、Base32、Base62.
+ * <p>
+ * 各编码都把输入按定长的块(至多8字节)转换为定长的字符组, 块的值放在一个long中, 查表编码和解码:
+ * <ul>
+ * <li>Base64: 3字节 → 4字符, RFC 4648, 标准字母表补'=', URL安全字母表不补
+ * <li>Base32: 5字节 → 8字符, RFC 4648, 补'='
+ * <li>Base62: 8字节 → 11字符, 字母表为0-9A-Za-z, 按块作为无符号大端整数转换, 末块按字节数取最短的定长, 不补
+ * </ul>
+ * 解码时末尾的补位字符可有可无; 含有字母表以外的字符时抛出IllegalArgumentException. 输入的ByteBuffer只读取其
+ * position到limit之间的内容, 不改变其position; 输出到ByteBuffer时写入ASCII字节并前移其position. 实例不可变,
+ * 可多线程共享.
+ *
+ * <pre>
+ * String token = BinaryCodec.base64Url().encode(bytes);
+ * byte[] id = BinaryCodec.base62().decode("2LKcb1Yh7Rk");
+ * </pre>
+ *
+ * @see Strings#toBase64(byte[])
+ * @author alexpaul@126.com
+ *
+ */
+public abstract class BinaryCodec {
+
+	private static final BinaryCodec BASE64 = new PowerOfTwo(
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", 6, '=');
+	private static final BinaryCodec BASE64_URL = new PowerOfTwo(
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_", 6, (char) 0);
+	private static final BinaryCodec BASE32 = new PowerOfTwo("ABCDEFGHIJKLMNOPQRSTUVWXYZ234567", 5, '=');
+	private static final BinaryCodec BASE62 = new Base62();
+
+	/**
+	 * @return 标准Base64, 补'='
+	 */
+	public static BinaryCodec base64() {
+		return BASE64;
+	}
+
+	/**
+	 * @return URL安全的Base64('-'、'_'代替'+'、'/'), 不补位
+	 */
+	public static BinaryCodec base64Url() {
+		return BASE64_URL;
+	}
+
+	/**
+	 * @return Base32, 补'='
+	 */
+	public static BinaryCodec base32() {
+		return BASE32;
+	}
+
+	/**
+	 * @return Base62, 不补位
+	 */
+	public static BinaryCodec base62() {
+		return BASE62;
+	}
+
+	final char[] alphabet;
+	/**
+	 * 字符(0~127)对应的数值, 不在字母表中为-1
+	 */
+	final byte[] values = new byte[128];
+	final int blockBytes;
+	final int blockChars;
+	/**
+	 * 补位字符, 0表示不补位
+	 */
+	final char pad;
+	/**
+	 * n字节(0~blockBytes)编码后的字符数(不含补位)
+	 */
+	final int[] charsFor;
+	/**
+	 * n个字符(0~blockChars)对应的字节数, -1表示非法的长度
+	 */
+	final int[] bytesFor;
+
+	BinaryCodec(String alphabet, int blockBytes, int[] charsFor, char pad) {
+		this.alphabet = alphabet.toCharArray();
+		this.blockBytes = blockBytes;
+		this.blockChars = charsFor[blockBytes];
+		this.charsFor = charsFor;
+		this.pad = pad;
+		Arrays.fill(values, (byte) -1);
+		for (int i = 0; i < this.alphabet.length; i++) {
+			values[this.alphabet[i]] = (byte) i;
+		}
+		bytesFor = new int[blockChars + 1];
+		Arrays.fill(bytesFor, -1);
+		for (int n = 0; n <= blockBytes; n++) {
+			bytesFor[charsFor[n]] = n;
+		}
+	}
+
+	/**
+	 * 将n字节(大端)的值编码为charsFor[n]个字符
+	 */
+	abstract void encodeBlock(long value, int n, char[] out, int off);
+
+	/**
+	 * 将c个字符解码为bytesFor[c]字节(大端)的值
+	 */
+	abstract long decodeBlock(CharSequence s, int off, int c);
+
+	// {{ 编码
+	/**
+	 * @param len
+	 *            字节数
+	 * @return 编码后的字符数
+	 */
+	public int encodedLength(int len) {
+		int rem = len % blockBytes;
+		return len / blockBytes * blockChars + (rem == 0 ? 0 : pad != 0 ? blockChars : charsFor[rem]);
+	}
+
+	/**
+	 * @param b
+	 *            字节数组
+	 * @return 编码结果
+	 */
+	public String encode(byte[] b) {
+		return new String(encodeToChars(b, 0, b.length));
+	}
+
+	/**
+	 * @param b
+	 *            字节数组
+	 * @param off
+	 *            起始位置
+	 * @param len
+	 *            字节数
+	 * @return 编码结果
+	 */
+	public char[] encodeToChars(byte[] b, int off, int len) {
+		char[] ret = new char[encodedLength(len)];
+		int end = off + len;
+		int i = off;
+		int j = 0;
+		// 完整的块直接从数组读取
+		for (; i <= end - blockBytes; i += blockBytes, j += blockChars) {
+			long v = 0;
+			for (int k = 0; k < blockBytes; k++) {
+				v = v << 8 | (b[i + k] & 0xFF);
+			}
+			encodeBlock(v, blockBytes, ret, j);
+		}
+		if (i < end) {
+			encodeChunk(ByteBuffer.wrap(b), i, end - i, ret, j);
+		}
+		return ret;
+	}
+
+	/**
+	 * 编码结果写入out
+	 *
+	 * @throws IOException
+	 *             out写入失败
+	 */
+	public void encode(byte[] b, int off, int len, Appendable out) throws IOException {
+		encode(ByteBuffer.wrap(b, off, len), out);
+	}
+
+	/**
+	 * 将src的position到limit之间的内容编码, 结果写入out
+	 *
+	 * @throws IOException
+	 *             out写入失败
+	 */
+	public void encode(ByteBuffer src, Appendable out) throws IOException {
+		char[] tmp = new char[blockChars];
+		for (int i = src.position(), end = src.limit(); i < end; i += blockBytes) {
+			int n = encodeChunk(src, i, Math.min(blockBytes, end - i), tmp, 0);
+			for (int k = 0; k < n; k++) {
+				out.append(tmp[k]);
+			}
+		}
+	}
+
+	/**
+	 * 将src的position到limit之间的内容编码, 结果作为ASCII字节写入dst
+	 *
+	 * @return 写入的字节数
+	 * @throws java.nio.BufferOverflowException
+	 *             dst空间不足
+	 */
+	public int encode(ByteBuffer src, ByteBuffer dst) {
+		char[] tmp = new char[blockChars];
+		int ret = 0;
+		for (int i = src.position(), end = src.limit(); i < end; i += blockBytes) {
+			int n = encodeChunk(src, i, Math.min(blockBytes, end - i), tmp, 0);
+			for (int k = 0; k < n; k++) {
+				dst.put((byte) tmp[k]);
+			}
+			ret += n;
+		}
+		return ret;
+	}
+
+	/**
+	 * 编码从i开始的n(&lt;=blockBytes)字节, 含补位
+	 *
+	 * @return 写入的字符数
+	 */
+	private int encodeChunk(ByteBuffer src, int i, int n, char[] out, int off) {
+		long v = 0;
+		for (int k = 0; k < n; k++) {
+			v = v << 8 | (src.get(i + k) & 0xFF);
+		}
+		encodeBlock(v, n, out, off);
+		int c = charsFor[n];
+		if (n < blockBytes && pad != 0) {
+			for (; c < blockChars; c++) {
+				out[off + c] = pad;
+			}
+		}
+		return c;
+	}
+	// }}
+
+	// {{ 解码
+	/**
+	 * @param s
+	 *            编码结果
+	 * @return 解码后的字节数
+	 * @throws IllegalArgumentException
+	 *             长度或补位不正确
+	 */
+	public int decodedLength(CharSequence s) {
+		int len = payloadLength(s);
+		return len / blockChars * blockBytes + bytesFor[len % blockChars];
+	}
+
+	/**
+	 * @param s
+	 *            编码结果
+	 * @return 字节数组
+	 * @throws IllegalArgumentException
+	 *             含非法字符, 或长度、补位不正确
+	 */
+	public byte[] decode(CharSequence s) {
+		byte[] ret = new byte[decodedLength(s)];
+		decode(s, ByteBuffer.wrap(ret));
+		return ret;
+	}
+
+	/**
+	 * 解码结果写入dst
+	 *
+	 * @return 写入的字节数
+	 * @throws IllegalArgumentException
+	 *             含非法字符, 或长度、补位不正确
+	 * @throws java.nio.BufferOverflowException
+	 *             dst空间不足
+	 */
+	public int decode(CharSequence s, ByteBuffer dst) {
+		int len = payloadLength(s);
+		int ret = 0;
+		for (int i = 0; i < len; i += blockChars) {
+			ret += decodeChunk(s, i, Math.min(blockChars, len - i), dst);
+		}
+		return ret;
+	}
+
+	/**
+	 * 将src的position到limit之间的ASCII字节解码, 结果写入dst
+	 *
+	 * @return 写入的字节数
+	 * @throws IllegalArgumentException
+	 *             含非法字符, 或长度、补位不正确
+	 * @throws java.nio.BufferOverflowException
+	 *             dst空间不足
+	 */
+	public int decode(ByteBuffer src, ByteBuffer dst) {
+		return decode(new Ascii(src, src.position(), src.limit()), dst);
+	}
+
+	/**
+	 * 去掉末尾补位后的长度, 同时检查长度
+	 */
+	private int payloadLength(CharSequence s) {
+		int len = s.length();
+		if (pad != 0 && len > 0 && s.charAt(len - 1) == pad) {
+			if (len % blockChars != 0) {
+				throw new IllegalArgumentException("invalid padding at " + len);
+			}
+			int p = 0;
+			while (p < blockChars - 1 && s.charAt(len - 1 - p) == pad) {
+				p++;
+			}
+			len -= p;
+		}
+		if (bytesFor[len % blockChars] < 0) {
+			throw new IllegalArgumentException("invalid length: " + s.length());
+		}
+		return len;
+	}
+
+	/**
+	 * 解码从i开始的c个字符
+	 *
+	 * @return 写入的字节数
+	 */
+	private int decodeChunk(CharSequence s, int i, int c, ByteBuffer dst) {
+		long v = decodeBlock(s, i, c);
+		int n = bytesFor[c];
+		for (int k = n - 1; k >= 0; k--) {
+			dst.put((byte) (v >>> (k << 3)));
+		}
+		return n;
+	}
+
+	final int value(CharSequence s, int i) {
+		char ch = s.charAt(i);
+		int d = ch < 128 ? values[ch] : -1;
+		if (d < 0) {
+			throw new IllegalArgumentException("invalid character '" + ch + "' at " + i);
+		}
+		return d;
+	}
+	// }}
+
+	// {{ 流
+	/**
+	 * 写入的字节编码后以ASCII字节写入out. 关闭时写出末块(及补位)并关闭out.
+	 *
+	 * @param out
+	 *            输出流
+	 * @return 编码输出流
+	 */
+	public OutputStream encodingStream(final OutputStream out) {
+		return new OutputStream() {
+			private final byte[] block = new byte[blockBytes];
+			private final char[] chars = new char[blockChars];
+			private final byte[] ascii = new byte[blockChars];
+			private int n;
+
+			@Override
+			public void write(int b) throws IOException {
+				block[n++] = (byte) b;
+				if (n == blockBytes) {
+					writeBlock();
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				for (int i = off, end = off + len; i < end; i++) {
+					block[n++] = b[i];
+					if (n == blockBytes) {
+						writeBlock();
+					}
+				}
+			}
+
+			private void writeBlock() throws IOException {
+				int c = encodeChunk(ByteBuffer.wrap(block), 0, n, chars, 0);
+				for (int k = 0; k < c; k++) {
+					ascii[k] = (byte) chars[k];
+				}
+				out.write(ascii, 0, c);
+				n = 0;
+			}
+
+			@Override
+			public void flush() throws IOException {
+				out.flush();
+			}
+
+			@Override
+			public void close() throws IOException {
+				if (n > 0) {
+					writeBlock();
+				}
+				out.close();
+			}
+		};
+	}
+
+	/**
+	 * 从in读取ASCII编码结果, 解码后的字节作为流的内容
+	 *
+	 * @param in
+	 *            输入流
+	 * @return 解码输入流. 读取时遇到非法字符或长度时抛出IOException
+	 */
+	public InputStream decodingStream(final InputStream in) {
+		return new InputStream() {
+			private final byte[] ascii = new byte[blockChars];
+			private final byte[] block = new byte[blockBytes];
+			private int pos;
+			private int limit;
+			private boolean eof;
+
+			@Override
+			public int read() throws IOException {
+				if (pos == limit && !fill()) {
+					return -1;
+				}
+				return block[pos++] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				if (pos == limit && !fill()) {
+					return -1;
+				}
+				int n = Math.min(len, limit - pos);
+				System.arraycopy(block, pos, b, off, n);
+				pos += n;
+				return n;
+			}
+
+			private boolean fill() throws IOException {
+				while (!eof) {
+					int c = 0;
+					while (c < blockChars) {
+						int r = in.read(ascii, c, blockChars - c);
+						if (r < 0) {
+							eof = true;
+							break;
+						}
+						c += r;
+					}
+					if (c == 0) {
+						return false;
+					}
+					Ascii s = new Ascii(ByteBuffer.wrap(ascii), 0, c);
+					try {
+						int len = payloadLength(s);
+						ByteBuffer dst = ByteBuffer.wrap(block);
+						limit = len == 0 ? 0 : decodeChunk(s, 0, len, dst);
+					} catch (IllegalArgumentException e) {
+						throw new IOException(e.getMessage());
+					}
+					pos = 0;
+					if (limit > 0) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			@Override
+			public void close() throws IOException {
+				in.close();
+			}
+		};
+	}
+	// }}
+
+	/**
+	 * ByteBuffer中ASCII字节的字符视图
+	 */
+	private static final class Ascii implements CharSequence {
+		private final ByteBuffer buf;
+		private final int start;
+		private final int end;
+
+		Ascii(ByteBuffer buf, int start, int end) {
+			this.buf = buf;
+			this.start = start;
+			this.end = end;
+		}
+
+		public int length() {
+			return end - start;
+		}
+
+		public char charAt(int index) {
+			return (char) (buf.get(start + index) & 0xFF);
+		}
+
+		public CharSequence subSequence(int from, int to) {
+			return new Ascii(buf, start + from, start + to);
+		}
+
+		@Override
+		public String toString() {
+			return new StringBuilder(this).toString();
+		}
+	}
+
+	/**
+	 * 字母表长度为2的幂(Base64、Base32): 每个字符对应固定的位数
+	 */
+	private static final class PowerOfTwo extends BinaryCodec {
+		private final int bits;
+		private final int mask;
+		private final int blockBits;
+
+		PowerOfTwo(String alphabet, int bits, char pad) {
+			super(alphabet, blockBytes(bits), charsFor(bits), pad);
+			this.bits = bits;
+			this.mask = (1 << bits) - 1;
+			this.blockBits = blockBytes * 8;
+		}
+
+		/**
+		 * 字节数与字符数的最小公倍数
+		 */
+		private static int blockBytes(int bits) {
+			int b = 1;
+			while (b * 8 % bits != 0) {
+				b++;
+			}
+			return b;
+		}
+
+		private static int[] charsFor(int bits) {
+			int[] ret = new int[blockBytes(bits) + 1];
+			for (int n = 0; n < ret.length; n++) {
+				ret[n] = (n * 8 + bits - 1) / bits;
+			}
+			return ret;
+		}
+
+		@Override
+		void encodeBlock(long value, int n, char[] out, int off) {
+			value <<= (blockBytes - n) << 3;
+			for (int j = 0, c = charsFor[n]; j < c; j++) {
+				out[off + j] = alphabet[(int) (value >>> (blockBits - bits * (j + 1))) & mask];
+			}
+		}
+
+		@Override
+		long decodeBlock(CharSequence s, int off, int c) {
+			long v = 0;
+			for (int j = 0; j < c; j++) {
+				v |= (long) value(s, off + j) << (blockBits - bits * (j + 1));
+			}
+			return v >>> ((blockBytes - bytesFor[c]) << 3);
+		}
+	}
+
+	/**
+	 * Base62: 每8字节作为无符号整数转换为11位62进制数, 末块n字节取能容纳2^(8n)的最短位数
+	 */
+	private static final class Base62 extends BinaryCodec {
+
+		Base62() {
+			super("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", 8,
+					new int[] { 0, 2, 3, 5, 6, 7, 9, 10, 11 }, (char) 0);
+		}
+
+		@Override
+		void encodeBlock(long value, int n, char[] out, int off) {
+			for (int j = charsFor[n] - 1; j >= 0; j--) {
+				long q = divide62(value);
+				out[off + j] = alphabet[(int) (value - q * 62)];
+				value = q;
+			}
+		}
+
+		@Override
+		long decodeBlock(CharSequence s, int off, int c) {
+			int n = bytesFor[c];
+			long v = 0;
+			for (int j = 0; j < c - 1; j++) {
+				v = v * 62 + value(s, off + j);
+			}
+			// 前c-1位至多62^10, 不会溢出; 最后一位检查是否超出n字节
+			int d = value(s, off + c - 1);
+			if (n == 8 && v > divide62(-1L - d)) {
+				throw new IllegalArgumentException("value out of range at " + off);
+			}
+			v = v * 62 + d;
+			if (n < 8 && v >>> (n << 3) != 0) {
+				throw new IllegalArgumentException("value out of range at " + off);
+			}
+			return v;
+		}
+
+		/**
+		 * 无符号除以62
+		 */
+		private static long divide62(long x) {
+			long q = (x >>> 1) / 31;
+			return x - q * 62 >= 62 ? q + 1 : q;
+		}
+	}
+}
@@ -0,0 +1,363 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 工作日历: 按年份范围建立的位图, 每天一位, 1为工作日.
+ * <p>
+ * 周末(缺省为周六、周日)初始为非工作日, 之后可逐日设置节假日和调休上班日, 或从文本文件载入. 另存每64天一格的工作日累计数,
+ * 因此{@link #isBusinessDay}、{@link #businessDaysBetween}为O(1), {@link #addBusinessDays}为对累计数的二分查找加一次字内查找,
+ * 与相隔的天数无关.
+ * <p>
+ * 日期按时区(缺省为默认时区)取其所在的日, 时间部分忽略; 返回的日期为当日零点, 与{@link Dates#omitForDate}相同.
+ * 超出年份范围时抛出IllegalArgumentException. 设置完成后可多线程共享.
+ *
+ * <pre>
+ * BusinessCalendar cal = new BusinessCalendar(2016, 2020).load(new File("holidays.txt"), Charset.forName("UTF-8"));
+ * Date settle = cal.addBusinessDays(tradeDate, 2); // T+2
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class BusinessCalendar {
+
+	private final TimeZone zone;
+	private final int fromYear;
+	private final int toYear;
+	/**
+	 * fromYear年1月1日
+	 */
+	private final long base;
+	/**
+	 * 范围内的天数
+	 */
+	private final int days;
+	private final long[] bits;
+	/**
+	 * rank[i]为bits[0..i)中的工作日数
+	 */
+	private final int[] rank;
+
+	/**
+	 * 周六、周日为周末, 默认时区
+	 *
+	 * @param fromYear
+	 *            起始年
+	 * @param toYear
+	 *            结束年(含)
+	 */
+	public BusinessCalendar(int fromYear, int toYear) {
+		this(fromYear, toYear, TimeZone.getDefault(), Calendar.SATURDAY, Calendar.SUNDAY);
+	}
+
+	/**
+	 * @param fromYear
+	 *            起始年
+	 * @param toYear
+	 *            结束年(含)
+	 * @param zone
+	 *            时区
+	 * @param weekend
+	 *            周末, 取值为{@link Calendar#SUNDAY}~{@link Calendar#SATURDAY}
+	 */
+	public BusinessCalendar(int fromYear, int toYear, TimeZone zone, int... weekend) {
+		if (fromYear > toYear) {
+			throw new IllegalArgumentException("fromYear " + fromYear + " > toYear " + toYear);
+		}
+		this.zone = (TimeZone) zone.clone();
+		this.fromYear = fromYear;
+		this.toYear = toYear;
+		this.base = Chrono.toEpochDay(fromYear, 1, 1);
+		this.days = (int) (Chrono.toEpochDay(toYear + 1, 1, 1) - base);
+		this.bits = new long[(days + 63) >>> 6];
+		this.rank = new int[bits.length + 1];
+		boolean[] off = new boolean[8];
+		for (int d : weekend) {
+			if (d < Calendar.SUNDAY || d > Calendar.SATURDAY) {
+				throw new IllegalArgumentException("illegal day of week: " + d);
+			}
+			off[d] = true;
+		}
+		for (int i = 0; i < days; i++) {
+			if (!off[dayOfWeek(base + i)]) {
+				bits[i >>> 6] |= 1L << i;
+			}
+		}
+		updateRank(0);
+	}
+
+	/**
+	 * @return 起始年
+	 */
+	public int getFromYear() {
+		return fromYear;
+	}
+
+	/**
+	 * @return 结束年(含)
+	 */
+	public int getToYear() {
+		return toYear;
+	}
+
+	/**
+	 * 设置节假日(非工作日). 超出年份范围时忽略
+	 *
+	 * @return this
+	 */
+	public BusinessCalendar setHoliday(Date date) {
+		return set(toDay(date), false);
+	}
+
+	/**
+	 * 设置工作日(如周末调休上班). 超出年份范围时忽略
+	 *
+	 * @return this
+	 */
+	public BusinessCalendar setWorkday(Date date) {
+		return set(toDay(date), true);
+	}
+
+	/**
+	 * 从文本文件载入节假日
+	 *
+	 * @see #load(Reader)
+	 */
+	public BusinessCalendar load(File file, Charset charset) throws IOException {
+		Reader r = new InputStreamReader(new FileInputStream(file), charset);
+		try {
+			return load(r);
+		} finally {
+			r.close();
+		}
+	}
+
+	/**
+	 * 载入节假日. 每行一个日期, 格式为yyyyMMdd或yyyy-MM-dd, 之后可有空白和说明; 以'+'开头的为调休上班日.
+	 * 空行和以'#'开头的行忽略. 超出年份范围的日期忽略. 不关闭in.
+	 *
+	 * <pre>
+	 * # 2016 国庆
+	 * 2016-10-03 国庆节
+	 * 2016-10-04
+	 * +2016-10-08 调休上班
+	 * </pre>
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             读取失败或日期格式错误
+	 */
+	public BusinessCalendar load(Reader in) throws IOException {
+		BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+		String line;
+		int lineNo = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNo++;
+			line = line.trim();
+			if (line.length() == 0 || line.charAt(0) == '#') {
+				continue;
+			}
+			boolean work = line.charAt(0) == '+';
+			long day = parse(line, work ? 1 : 0);
+			if (day == Long.MIN_VALUE) {
+				throw new IOException("line " + lineNo + ": illegal date: " + line);
+			}
+			set(day, work);
+		}
+		return this;
+	}
+
+	/**
+	 * @return 是否为工作日
+	 */
+	public boolean isBusinessDay(Date date) {
+		int i = index(toDay(date));
+		return (bits[i >>> 6] & 1L << i) != 0;
+	}
+
+	/**
+	 * 之后的第n个工作日, 如T+N的交收日. n为负数时为之前的第-n个工作日, 为0时为date当日(不论是否工作日)
+	 *
+	 * @return 当日零点
+	 */
+	public Date addBusinessDays(Date date, int n) {
+		return toDate(addBusinessDays(toDay(date), n));
+	}
+
+	/**
+	 * @return date之后的第一个工作日(不含date)
+	 */
+	public Date nextBusinessDay(Date date) {
+		return addBusinessDays(date, 1);
+	}
+
+	/**
+	 * @return date之前的最后一个工作日(不含date)
+	 */
+	public Date previousBusinessDay(Date date) {
+		return addBusinessDays(date, -1);
+	}
+
+	/**
+	 * 相隔的工作日数: (from, to]中的工作日数; to在from之前时为[to, from)中的工作日数的相反数. to为工作日时,
+	 * <tt>addBusinessDays(from, n)</tt>即为to
+	 */
+	public int businessDaysBetween(Date from, Date to) {
+		long a = toDay(from);
+		long b = toDay(to);
+		index(a);
+		index(b);
+		return b >= a ? count(b + 1) - count(a + 1) : count(b) - count(a);
+	}
+
+	long addBusinessDays(long day, int n) {
+		index(day);
+		if (n == 0) {
+			return day;
+		}
+		// 第k个(从0起)工作日
+		long k = n > 0 ? count(day + 1) + (long) n - 1 : count(day) + (long) n;
+		if (k < 0 || k >= rank[bits.length]) {
+			throw new IllegalArgumentException(
+					n + " business days from the date is outside " + fromYear + "~" + toYear);
+		}
+		return base + select((int) k);
+	}
+
+	/**
+	 * @return [base, day)中的工作日数, day可以等于范围末尾
+	 */
+	private int count(long day) {
+		int i = (int) (day - base);
+		int w = i >>> 6;
+		int ret = rank[w];
+		if ((i & 63) != 0) {
+			ret += Long.bitCount(bits[w] & ((1L << i) - 1));
+		}
+		return ret;
+	}
+
+	/**
+	 * @return 第k个(从0起)工作日的下标
+	 */
+	private int select(int k) {
+		int lo = 0;
+		int hi = bits.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (rank[mid] <= k) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		long word = bits[lo];
+		for (int r = k - rank[lo]; r > 0; r--) {
+			word &= word - 1;
+		}
+		return (lo << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	private BusinessCalendar set(long day, boolean work) {
+		long i = day - base;
+		if (i < 0 || i >= days) {
+			return this;
+		}
+		int w = (int) (i >>> 6);
+		long old = bits[w];
+		bits[w] = work ? old | 1L << i : old & ~(1L << i);
+		if (bits[w] != old) {
+			updateRank(w);
+		}
+		return this;
+	}
+
+	private void updateRank(int from) {
+		for (int w = from; w < bits.length; w++) {
+			rank[w + 1] = rank[w] + Long.bitCount(bits[w]);
+		}
+	}
+
+	private int index(long day) {
+		long i = day - base;
+		if (i < 0 || i >= days) {
+			throw new IllegalArgumentException("date outside " + fromYear + "~" + toYear);
+		}
+		return (int) i;
+	}
+
+	private long toDay(Date date) {
+		return Chrono.toEpochDay(date.getTime(), zone);
+	}
+
+	private Date toDate(long day) {
+		return new Date(Chrono.toUtcMillis(day * Chrono.MILLIS_PER_DAY, zone));
+	}
+
+	/**
+	 * @return {@link Calendar#SUNDAY}~{@link Calendar#SATURDAY}
+	 */
+	private static int dayOfWeek(long day) {
+		// 1970-01-01为周四
+		return (int) ((day % 7 + 11) % 7) + 1;
+	}
+
+	/**
+	 * 解析从off开始的yyyyMMdd或yyyy-MM-dd, 之后须为行尾或空白
+	 *
+	 * @return 1970-01-01起的天数, 格式错误时为Long.MIN_VALUE
+	 */
+	private static long parse(String s, int off) {
+		int[] v = new int[3];
+		int[] width = { 4, 2, 2 };
+		int p = off;
+		boolean dash = s.length() > off + 4 && s.charAt(off + 4) == '-';
+		for (int f = 0; f < 3; f++) {
+			if (f > 0 && dash) {
+				if (p >= s.length() || s.charAt(p) != '-') {
+					return Long.MIN_VALUE;
+				}
+				p++;
+			}
+			for (int k = 0; k < width[f]; k++, p++) {
+				char ch = p < s.length() ? s.charAt(p) : ' ';
+				if (ch < '0' || ch > '9') {
+					return Long.MIN_VALUE;
+				}
+				v[f] = v[f] * 10 + (ch - '0');
+			}
+		}
+		if (p < s.length() && !Character.isWhitespace(s.charAt(p))) {
+			return Long.MIN_VALUE;
+		}
+		if (v[1] < 1 || v[1] > 12 || v[2] < 1 || v[2] > Chrono.daysOfMonth(v[0], v[1])) {
+			return Long.MIN_VALUE;
+		}
+		return Chrono.toEpochDay(v[0], v[1], v[2]);
+	}
+}
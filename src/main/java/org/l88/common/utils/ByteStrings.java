@@ -0,0 +1,345 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UTF-8字节串处理工具.
+ * <p>
+ * 直接在byte[]区间或ByteBuffer(堆内或直接内存)上进行分割、替换、转义和16进制编码, 无需先解码为String再编码回去.
+ * UTF-8中多字节字符的每个字节都不小于0x80, 因此按ASCII字符(或任意完整的UTF-8字节串)查找不会匹配到字符的中间.
+ * <p>
+ * 作为输入的ByteBuffer只读取其position到limit之间的内容, 不改变其position; 返回的ByteBuffer可直接写入Channel.
+ *
+ * @see Strings
+ * @author alexpaul@126.com
+ *
+ */
+public final class ByteStrings {
+
+	private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+	private static final byte[] LT = { '&', 'l', 't', ';' };
+	private static final byte[] GT = { '&', 'g', 't', ';' };
+	private static final byte[] QUOT = { '&', 'q', 'u', 'o', 't', ';' };
+	private static final byte[] APOS = { '&', 'a', 'p', 'o', 's', ';' };
+	private static final byte[] AMP = { '&', 'a', 'm', 'p', ';' };
+	private static final byte[] BR = { '<', 'b', 'r', '>' };
+	private static final byte[] NONE = {};
+
+	private ByteStrings() {
+	}
+
+	// {{ split
+	/**
+	 * 以单字节(ASCII字符)为分隔符分割字节串.
+	 * <p>
+	 * 返回的各段是src的只读视图, 不复制内容. 不截断空格, 空段保留.
+	 *
+	 * @param src
+	 *            待分割字节串
+	 * @param delimiter
+	 *            分隔符
+	 * @return 各段的ByteBuffer列表. <tt>空列表</tt> 如果src为null
+	 */
+	public static List<ByteBuffer> split(ByteBuffer src, byte delimiter) {
+		List<ByteBuffer> ret = new ArrayList<ByteBuffer>();
+		if (src == null) {
+			return ret;
+		}
+		ByteBuffer view = src.asReadOnlyBuffer();
+		int end = src.limit();
+		int last = src.position();
+		for (int i = last; i < end; i++) {
+			if (src.get(i) == delimiter) {
+				ret.add(slice(view, last, i));
+				last = i + 1;
+			}
+		}
+		ret.add(slice(view, last, end));
+		return ret;
+	}
+
+	/**
+	 * 以单字节(ASCII字符)为分隔符分割字节数组的一段.
+	 *
+	 * @see #split(ByteBuffer, byte)
+	 * @param bytes
+	 *            字节数组
+	 * @param off
+	 *            起始位置
+	 * @param len
+	 *            长度
+	 * @param delimiter
+	 *            分隔符
+	 * @return 各段的ByteBuffer列表(共享bytes)
+	 */
+	public static List<ByteBuffer> split(byte[] bytes, int off, int len, byte delimiter) {
+		return split(ByteBuffer.wrap(bytes, off, len), delimiter);
+	}
+
+	private static ByteBuffer slice(ByteBuffer view, int start, int end) {
+		view.limit(end).position(start);
+		ByteBuffer ret = view.slice();
+		view.limit(view.capacity());
+		return ret;
+	}
+	// }}
+
+	// {{ replace & escape
+	/**
+	 * 将字节串中所有匹配的字节串替换为新的字节串.
+	 *
+	 * @param src
+	 *            源字节串
+	 * @param match
+	 *            匹配字节串(ASCII字符或完整的UTF-8字节串)
+	 * @param replacement
+	 *            新字节串
+	 * @return 替换结果. 无匹配时为src的只读视图, 否则为新的堆内ByteBuffer
+	 */
+	public static ByteBuffer replace(ByteBuffer src, byte[] match, byte[] replacement) {
+		int start = src.position();
+		int end = src.limit();
+		int i = indexOf(src, start, end, match);
+		if (i < 0 || match.length == 0) {
+			return src.asReadOnlyBuffer();
+		}
+		Output out = new Output(end - start + Math.max(16, replacement.length - match.length));
+		int j = start;
+		do {
+			out.put(src, j, i).put(replacement);
+			j = i + match.length;
+			i = indexOf(src, j, end, match);
+		} while (i >= 0);
+		out.put(src, j, end);
+		return out.toBuffer();
+	}
+
+	/**
+	 * 将字节数组一段中所有匹配的字节串替换为新的字节串.
+	 *
+	 * @see #replace(ByteBuffer, byte[], byte[])
+	 */
+	public static ByteBuffer replace(byte[] bytes, int off, int len, byte[] match, byte[] replacement) {
+		return replace(ByteBuffer.wrap(bytes, off, len), match, replacement);
+	}
+
+	/**
+	 * 编码XML标记, 规则同{@link Strings#escapeXML(String)}.
+	 *
+	 * @param src
+	 *            UTF-8字节串
+	 * @return 编码后的UTF-8字节串. 无需编码时为src的只读视图
+	 */
+	public static ByteBuffer escapeXML(ByteBuffer src) {
+		return escape(src, false);
+	}
+
+	/**
+	 * 编码HTML标记, 规则同{@link Strings#escapeHTML(String)}.
+	 *
+	 * @param src
+	 *            UTF-8字节串
+	 * @return 编码后的UTF-8字节串. 无需编码时为src的只读视图
+	 */
+	public static ByteBuffer escapeHTML(ByteBuffer src) {
+		return escape(src, true);
+	}
+
+	/**
+	 * 编码XML标记, 结果写入dst.
+	 *
+	 * @param src
+	 *            UTF-8字节串
+	 * @param dst
+	 *            输出缓冲
+	 * @return 写入的字节数
+	 * @throws java.nio.BufferOverflowException
+	 *             dst空间不足
+	 */
+	public static int escapeXML(ByteBuffer src, ByteBuffer dst) {
+		return escape(src, dst, false);
+	}
+
+	/**
+	 * 编码HTML标记, 结果写入dst.
+	 *
+	 * @see #escapeXML(ByteBuffer, ByteBuffer)
+	 */
+	public static int escapeHTML(ByteBuffer src, ByteBuffer dst) {
+		return escape(src, dst, true);
+	}
+
+	private static ByteBuffer escape(ByteBuffer src, boolean html) {
+		int start = src.position();
+		int end = src.limit();
+		int i = start;
+		while (i < end && escape(src.get(i), html) == null) {
+			i++;
+		}
+		if (i == end) {
+			return src.asReadOnlyBuffer();
+		}
+		Output out = new Output(end - start + 16);
+		int j = start;
+		for (; i < end; i++) {
+			byte[] esc = escape(src.get(i), html);
+			if (esc != null) {
+				out.put(src, j, i).put(esc);
+				j = i + 1;
+			}
+		}
+		out.put(src, j, end);
+		return out.toBuffer();
+	}
+
+	private static int escape(ByteBuffer src, ByteBuffer dst, boolean html) {
+		int begin = dst.position();
+		int end = src.limit();
+		for (int i = src.position(); i < end; i++) {
+			byte b = src.get(i);
+			byte[] esc = escape(b, html);
+			if (esc == null) {
+				dst.put(b);
+			} else {
+				dst.put(esc);
+			}
+		}
+		return dst.position() - begin;
+	}
+
+	private static byte[] escape(byte b, boolean html) {
+		switch (b) {
+		case '<':
+			return LT;
+		case '>':
+			return GT;
+		case '"':
+			return QUOT;
+		case '\'':
+			return APOS;
+		case '&':
+			return AMP;
+		case '\r':
+			return html ? NONE : null;
+		case '\n':
+			return html ? BR : null;
+		default:
+			return null;
+		}
+	}
+	// }}
+
+	// {{ HEX
+	/**
+	 * 将字节串转换为16进制表示(小写ASCII字节).
+	 *
+	 * @param src
+	 *            待转换字节串
+	 * @return 16进制表示, 长度为输入的两倍
+	 */
+	public static ByteBuffer toHex(ByteBuffer src) {
+		int start = src.position();
+		int end = src.limit();
+		byte[] ret = new byte[(end - start) * 2];
+		for (int i = start, j = 0; i < end; i++) {
+			int b = src.get(i);
+			ret[j++] = HEX[(b >> 4) & 0x0f];
+			ret[j++] = HEX[b & 0x0f];
+		}
+		return ByteBuffer.wrap(ret);
+	}
+
+	/**
+	 * 将字节数组的一段转换为16进制表示(小写ASCII字节).
+	 *
+	 * @see Strings#toHex(byte[])
+	 */
+	public static byte[] toHex(byte[] bytes, int off, int len) {
+		return toHex(ByteBuffer.wrap(bytes, off, len)).array();
+	}
+	// }}
+
+	static int indexOf(ByteBuffer src, int from, int end, byte[] match) {
+		int mLen = match.length;
+		if (mLen == 0) {
+			return from <= end ? from : -1;
+		}
+		byte first = match[0];
+		for (int i = from, max = end - mLen; i <= max; i++) {
+			if (src.get(i) != first) {
+				continue;
+			}
+			int k = 1;
+			while (k < mLen && src.get(i + k) == match[k]) {
+				k++;
+			}
+			if (k == mLen) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 可增长的字节输出
+	 */
+	private static final class Output {
+		private byte[] buf;
+		private int count;
+
+		Output(int size) {
+			buf = new byte[size];
+		}
+
+		private void ensure(int n) {
+			if (count + n > buf.length) {
+				byte[] b = new byte[Math.max(buf.length << 1, count + n)];
+				System.arraycopy(buf, 0, b, 0, count);
+				buf = b;
+			}
+		}
+
+		Output put(ByteBuffer src, int start, int end) {
+			int n = end - start;
+			ensure(n);
+			if (src.hasArray()) {
+				System.arraycopy(src.array(), src.arrayOffset() + start, buf, count, n);
+			} else {
+				ByteBuffer d = src.duplicate();
+				d.limit(end).position(start);
+				d.get(buf, count, n);
+			}
+			count += n;
+			return this;
+		}
+
+		Output put(byte[] b) {
+			ensure(b.length);
+			System.arraycopy(b, 0, buf, count, b.length);
+			count += b.length;
+			return this;
+		}
+
+		ByteBuffer toBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * 查表实现的字符类, 用于删除或保留字符串中的某类字符.
+ * <p>
+ * 基本多文种平面(BMP)用位图表示, 辅助平面用有序的区间表二分查找, 判断一个码位只需一次查表.
+ * 按码位处理, 代理对作为一个字符判断. 没有字符被删除时返回原字符串.
+ *
+ * <pre>
+ * CharFilter.whitespace().removeFrom(" a b\tc ")   // "abc"
+ * CharFilter.asciiDigit().retainFrom("tel: 010-1234")  // "0101234"
+ * </pre>
+ *
+ * @see Strings#trimPunct(String)
+ * @author alexpaul@126.com
+ *
+ */
+public final class CharFilter {
+
+	private static final int SUPPLEMENTARY_MIN = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+	private static final int MAX = Character.MAX_CODE_POINT;
+	/**
+	 * 标点、空白、数字只出现在BMP和第1平面(2~3平面为CJK扩展汉字, 4~13未分配, 14为标签, 15~16为私用区),
+	 * 内置字符类只扫描到第1平面, 以缩短建表时间
+	 */
+	private static final int PLANE1_MAX = 0x1FFFF;
+
+	/**
+	 * 各内置字符类在首次使用时才建表
+	 */
+	private static final class Punct {
+		static final CharFilter INSTANCE = build(PLANE1_MAX, new Predicate() {
+			public boolean test(int cp) {
+				switch (Character.getType(cp)) {
+				case Character.CONNECTOR_PUNCTUATION:
+				case Character.DASH_PUNCTUATION:
+				case Character.START_PUNCTUATION:
+				case Character.END_PUNCTUATION:
+				case Character.INITIAL_QUOTE_PUNCTUATION:
+				case Character.FINAL_QUOTE_PUNCTUATION:
+				case Character.OTHER_PUNCTUATION:
+					return true;
+				default:
+					return cp < 0x80 && "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~".indexOf(cp) >= 0;
+				}
+			}
+		});
+	}
+
+	private static final class Whitespace {
+		static final CharFilter INSTANCE = build(PLANE1_MAX, new Predicate() {
+			public boolean test(int cp) {
+				return Character.isWhitespace(cp);
+			}
+		});
+	}
+
+	private static final class Digit {
+		static final CharFilter INSTANCE = build(PLANE1_MAX, new Predicate() {
+			public boolean test(int cp) {
+				return Character.isDigit(cp);
+			}
+		});
+	}
+
+	private static final CharFilter ASCII_DIGIT = range('0', '9');
+
+	/**
+	 * @return 标点符号, 同正则表达式<tt>[\pP\p{Punct}]</tt>: Unicode标点类(Pc、Pd、Ps、Pe、Pi、Pf、Po)及ASCII标点和符号
+	 */
+	public static CharFilter punct() {
+		return Punct.INSTANCE;
+	}
+
+	/**
+	 * @return 空白字符, 同{@link Character#isWhitespace(int)}
+	 */
+	public static CharFilter whitespace() {
+		return Whitespace.INSTANCE;
+	}
+
+	/**
+	 * @return 数字, 同{@link Character#isDigit(int)}(包括全角数字等)
+	 */
+	public static CharFilter digit() {
+		return Digit.INSTANCE;
+	}
+
+	/**
+	 * @return ASCII数字0~9
+	 */
+	public static CharFilter asciiDigit() {
+		return ASCII_DIGIT;
+	}
+
+	private interface Predicate {
+		boolean test(int cp);
+	}
+
+	/**
+	 * BMP位图, 共65536位
+	 */
+	private final long[] bmp;
+	/**
+	 * 辅助平面的区间表, 依次为各区间的起止码位(含), 有序且不重叠
+	 */
+	private final int[] ranges;
+
+	private CharFilter(long[] bmp, int[] ranges) {
+		this.bmp = bmp;
+		this.ranges = ranges;
+	}
+
+	private static CharFilter build(int max, Predicate p) {
+		long[] bmp = new long[1 << 10];
+		for (int cp = 0; cp < SUPPLEMENTARY_MIN; cp++) {
+			if (p.test(cp)) {
+				bmp[cp >>> 6] |= 1L << cp;
+			}
+		}
+		int[] ranges = new int[16];
+		int n = 0;
+		int start = -1;
+		for (int cp = SUPPLEMENTARY_MIN; cp <= max + 1; cp++) {
+			boolean in = cp <= max && p.test(cp);
+			if (in && start < 0) {
+				start = cp;
+			} else if (!in && start >= 0) {
+				if (n == ranges.length) {
+					ranges = Arrays.copyOf(ranges, n << 1);
+				}
+				ranges[n++] = start;
+				ranges[n++] = cp - 1;
+				start = -1;
+			}
+		}
+		return new CharFilter(bmp, Arrays.copyOf(ranges, n));
+	}
+
+	/**
+	 * 给定的各字符
+	 *
+	 * @param chars
+	 *            字符(可含代理对)
+	 * @return 字符类
+	 */
+	public static CharFilter anyOf(String chars) {
+		CharFilter ret = new CharFilter(new long[1 << 10], new int[0]);
+		for (int i = 0; i < chars.length();) {
+			int cp = chars.codePointAt(i);
+			ret = cp < SUPPLEMENTARY_MIN ? ret.withBmp(cp, cp) : ret.or(range(cp, cp));
+			i += Character.charCount(cp);
+		}
+		return ret;
+	}
+
+	/**
+	 * 码位区间
+	 *
+	 * @param from
+	 *            起始码位(含)
+	 * @param to
+	 *            结束码位(含)
+	 * @return 字符类
+	 */
+	public static CharFilter range(int from, int to) {
+		if (from < 0 || to > MAX || from > to) {
+			throw new IllegalArgumentException("invalid range: " + from + "-" + to);
+		}
+		CharFilter ret = new CharFilter(new long[1 << 10], new int[0]);
+		if (from < SUPPLEMENTARY_MIN) {
+			ret = ret.withBmp(from, Math.min(to, SUPPLEMENTARY_MIN - 1));
+		}
+		if (to >= SUPPLEMENTARY_MIN) {
+			ret = new CharFilter(ret.bmp, new int[] { Math.max(from, SUPPLEMENTARY_MIN), to });
+		}
+		return ret;
+	}
+
+	private CharFilter withBmp(int from, int to) {
+		for (int cp = from; cp <= to; cp++) {
+			bmp[cp >>> 6] |= 1L << cp;
+		}
+		return this;
+	}
+
+	/**
+	 * @param other
+	 *            另一字符类
+	 * @return 属于本类或other的字符
+	 */
+	public CharFilter or(CharFilter other) {
+		long[] b = new long[bmp.length];
+		for (int i = 0; i < b.length; i++) {
+			b[i] = bmp[i] | other.bmp[i];
+		}
+		// 合并区间表
+		int[] all = new int[ranges.length + other.ranges.length];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < ranges.length || j < other.ranges.length) {
+			int[] src;
+			int k;
+			if (j >= other.ranges.length || (i < ranges.length && ranges[i] <= other.ranges[j])) {
+				src = ranges;
+				k = i;
+				i += 2;
+			} else {
+				src = other.ranges;
+				k = j;
+				j += 2;
+			}
+			if (n > 0 && src[k] <= all[n - 1] + 1) {
+				all[n - 1] = Math.max(all[n - 1], src[k + 1]);
+			} else {
+				all[n++] = src[k];
+				all[n++] = src[k + 1];
+			}
+		}
+		return new CharFilter(b, Arrays.copyOf(all, n));
+	}
+
+	/**
+	 * @return 不属于本类的字符
+	 */
+	public CharFilter negate() {
+		long[] b = new long[bmp.length];
+		for (int i = 0; i < b.length; i++) {
+			b[i] = ~bmp[i];
+		}
+		int[] r = new int[ranges.length + 2];
+		int n = 0;
+		int next = SUPPLEMENTARY_MIN;
+		for (int i = 0; i < ranges.length; i += 2) {
+			if (ranges[i] > next) {
+				r[n++] = next;
+				r[n++] = ranges[i] - 1;
+			}
+			next = ranges[i + 1] + 1;
+		}
+		if (next <= MAX) {
+			r[n++] = next;
+			r[n++] = MAX;
+		}
+		return new CharFilter(b, Arrays.copyOf(r, n));
+	}
+
+	/**
+	 * @param cp
+	 *            码位
+	 * @return 是否属于本类
+	 */
+	public boolean matches(int cp) {
+		if (cp < SUPPLEMENTARY_MIN) {
+			return cp >= 0 && (bmp[cp >>> 6] & (1L << cp)) != 0;
+		}
+		int lo = 0;
+		int hi = (ranges.length >> 1) - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cp < ranges[mid << 1]) {
+				hi = mid - 1;
+			} else if (cp > ranges[(mid << 1) + 1]) {
+				lo = mid + 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 删除属于本类的字符
+	 *
+	 * @param s
+	 *            字符串
+	 * @return 删除后的字符串. 没有删除任何字符时为s本身; s为null时为null
+	 */
+	public String removeFrom(String s) {
+		return filter(s, true);
+	}
+
+	/**
+	 * 只保留属于本类的字符
+	 *
+	 * @param s
+	 *            字符串
+	 * @return 保留的字符. 没有删除任何字符时为s本身; s为null时为null
+	 */
+	public String retainFrom(String s) {
+		return filter(s, false);
+	}
+
+	/**
+	 * 删除matches()结果为drop的字符. 找到第一个要删除的字符之前不分配内存.
+	 */
+	private String filter(String s, boolean drop) {
+		if (s == null) {
+			return null;
+		}
+		int len = s.length();
+		int i = 0;
+		int cp = 0;
+		while (i < len && matches(cp = s.codePointAt(i)) != drop) {
+			i += Character.charCount(cp);
+		}
+		if (i == len) {
+			return s;
+		}
+		StringBuilder sb = new StringBuilder(len - 1);
+		sb.append(s, 0, i);
+		int j = i + Character.charCount(cp);
+		for (i = j; i < len;) {
+			cp = s.codePointAt(i);
+			int n = Character.charCount(cp);
+			if (matches(cp) == drop) {
+				sb.append(s, j, i);
+				j = i + n;
+			}
+			i += n;
+		}
+		return sb.append(s, j, len).toString();
+	}
+}
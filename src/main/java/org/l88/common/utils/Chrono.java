@@ -0,0 +1,129 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.TimeZone;
+
+/**
+ * 公历(前推格里高利历)日期与1970-01-01起的天数之间的换算, 不经过Calendar.
+ * <p>
+ * 算法见Howard Hinnant, <i>chrono-Compatible Low-Level Date Algorithms</i>. 年月日打包为int yyyyMMdd.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+final class Chrono {
+
+	static final int SECONDS_PER_DAY = 86400;
+	static final long MILLIS_PER_DAY = 86400000L;
+
+	private Chrono() {
+	}
+
+	/**
+	 * @param year
+	 *            年
+	 * @param month
+	 *            月(1~12)
+	 * @param day
+	 *            日(1~31)
+	 * @return 1970-01-01起的天数
+	 */
+	static long toEpochDay(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = (y >= 0 ? y : y - 399) / 400;
+		long yoe = y - era * 400;
+		long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097 + doe - 719468;
+	}
+
+	/**
+	 * @param epochDay
+	 *            1970-01-01起的天数
+	 * @return yyyyMMdd
+	 */
+	static int toYmd(long epochDay) {
+		long z = epochDay + 719468;
+		long era = (z >= 0 ? z : z - 146096) / 146097;
+		long doe = z - era * 146097;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+		return (int) year * 10000 + month * 100 + day;
+	}
+
+	/**
+	 * @param epochSecond
+	 *            1970-01-01T00:00:00Z起的秒数(已加上时区偏移)
+	 * @return yyyyMMddHHmmss
+	 */
+	static long toYmdHms(long epochSecond) {
+		long day = floorDiv(epochSecond, SECONDS_PER_DAY);
+		int sec = (int) (epochSecond - day * SECONDS_PER_DAY);
+		return toYmd(day) * 1000000L + sec / 3600 * 10000 + sec / 60 % 60 * 100 + sec % 60;
+	}
+
+	/**
+	 * @param millis
+	 *            UTC毫秒数
+	 * @param zone
+	 *            时区
+	 * @return 该时刻在zone中的日期(1970-01-01起的天数)
+	 */
+	static long toEpochDay(long millis, TimeZone zone) {
+		return floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+	}
+
+	/**
+	 * 本地时间转为UTC毫秒数, 与宽松模式的Calendar相同: 夏令时开始时跳过的时间按跳过前的偏移计算(即向后推),
+	 * 夏令时结束时重复的时间取后一个(标准时间)
+	 *
+	 * @param localMillis
+	 *            本地时间(1970-01-01T00:00起的毫秒数, 不含时区)
+	 * @param zone
+	 *            时区
+	 * @return UTC毫秒数
+	 */
+	static long toUtcMillis(long localMillis, TimeZone zone) {
+		long approx = localMillis - zone.getRawOffset();
+		int before = zone.getOffset(approx - MILLIS_PER_DAY);
+		int after = zone.getOffset(approx + MILLIS_PER_DAY);
+		boolean b = zone.getOffset(localMillis - before) == before;
+		boolean a = after != before && zone.getOffset(localMillis - after) == after;
+		if (a != b) {
+			return localMillis - (b ? before : after);
+		}
+		// 跳过或重复的时间: 取较小的偏移
+		return localMillis - Math.min(before, after);
+	}
+
+	static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	static int daysOfMonth(int year, int month) {
+		return month == 2 ? (isLeapYear(year) ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+	}
+
+	static long floorDiv(long x, long y) {
+		long q = x / y;
+		return (x % y != 0 && (x ^ y) < 0) ? q - 1 : q;
+	}
+}
@@ -0,0 +1,409 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 按RFC 4180逐字段写CSV, 输出到Writer或ByteBuffer(UTF-8).
+ * <p>
+ * 每个字段扫描一次: 不含分隔符、双引号和换行时整段复制, 否则加上双引号, 内部的双引号在同一遍中写为两个.
+ * 写入Writer时经过本实例自带的字符缓冲, 不需再包装BufferedWriter; 字段为String或StringBuilder时整段复制,
+ * 数字直接写出数位, 因此写字段和行尾都不分配对象.
+ * <p>
+ * 写入ByteBuffer时直接编码为UTF-8(不成对的代理字符写为'?'). 空间不足时position退回到当前行的开头并抛出
+ * BufferOverflowException, 调用方输出已写入的内容、clear后重写该行即可. 实例不是线程安全的.
+ *
+ * <pre>
+ * CsvWriter csv = new CsvWriter(new OutputStreamWriter(out, "UTF-8"));
+ * for (Order o : orders) {
+ *     csv.field(o.getId()).field(o.getName()).field(o.getAmount()).endRow();
+ * }
+ * csv.flush();
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class CsvWriter implements Flushable, Closeable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Writer out;
+	private final char[] buf;
+	private int pos;
+	private final ByteBuffer bytes;
+	/**
+	 * 当前行在bytes中的起点
+	 */
+	private int rowMark;
+
+	private char delimiter = ',';
+	private String lineSeparator = "\r\n";
+	private boolean quoteAll;
+	private boolean rowStart = true;
+	private long rows;
+	private final char[] digits = new char[20];
+
+	/**
+	 * @param out
+	 *            输出, 由本实例缓冲
+	 */
+	public CsvWriter(Writer out) {
+		this.out = out;
+		this.buf = new char[BUFFER_SIZE];
+		this.bytes = null;
+	}
+
+	/**
+	 * @param out
+	 *            输出, 从其position起写入UTF-8字节
+	 */
+	public CsvWriter(ByteBuffer out) {
+		this.out = null;
+		this.buf = null;
+		this.bytes = out;
+	}
+
+	/**
+	 * 设置分隔符, 缺省为','
+	 *
+	 * @return this
+	 * @throws IllegalArgumentException
+	 *             分隔符为双引号或换行
+	 */
+	public CsvWriter setDelimiter(char delimiter) {
+		if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+			throw new IllegalArgumentException("illegal delimiter: " + (int) delimiter);
+		}
+		this.delimiter = delimiter;
+		return this;
+	}
+
+	/**
+	 * 设置行尾, 缺省为"\r\n"
+	 *
+	 * @return this
+	 * @throws IllegalArgumentException
+	 *             行尾为空
+	 */
+	public CsvWriter setLineSeparator(String lineSeparator) {
+		if (lineSeparator == null || lineSeparator.length() == 0) {
+			throw new IllegalArgumentException("empty line separator");
+		}
+		this.lineSeparator = lineSeparator;
+		return this;
+	}
+
+	/**
+	 * 设置是否所有字段(包括数字)都加双引号, 缺省只在需要时加
+	 *
+	 * @return this
+	 */
+	public CsvWriter setQuoteAll(boolean quoteAll) {
+		this.quoteAll = quoteAll;
+		return this;
+	}
+
+	/**
+	 * 写一个字段. null写为空字段
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             写入Writer失败
+	 */
+	public CsvWriter field(CharSequence value) throws IOException {
+		try {
+			separate();
+			if (value == null) {
+				if (quoteAll) {
+					put('"');
+					put('"');
+				}
+				return this;
+			}
+			int len = value.length();
+			int i = quoteAll ? 0 : firstSpecial(value, len);
+			if (i < 0) {
+				put(value, 0, len);
+				return this;
+			}
+			put('"');
+			put(value, 0, i);
+			int j = i;
+			for (; i < len; i++) {
+				if (value.charAt(i) == '"') {
+					// 包含这个双引号, 下一段从它开始, 即写为两个
+					put(value, j, i + 1);
+					j = i;
+				}
+			}
+			put(value, j, len);
+			put('"');
+			return this;
+		} catch (BufferOverflowException e) {
+			throw rewind(e);
+		}
+	}
+
+	/**
+	 * 写一个数字字段
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             写入Writer失败
+	 */
+	public CsvWriter field(long value) throws IOException {
+		try {
+			separate();
+			int p = digits.length;
+			long v = value;
+			do {
+				digits[--p] = (char) ('0' + Math.abs(v % 10));
+				v /= 10;
+			} while (v != 0);
+			if (value < 0) {
+				digits[--p] = '-';
+			}
+			if (quoteAll) {
+				put('"');
+			}
+			put(digits, p, digits.length);
+			if (quoteAll) {
+				put('"');
+			}
+			return this;
+		} catch (BufferOverflowException e) {
+			throw rewind(e);
+		}
+	}
+
+	/**
+	 * 写一个字段: CharSequence原样写出, 其他对象写为String.valueOf(value)
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             写入Writer失败
+	 */
+	public CsvWriter field(Object value) throws IOException {
+		if (value == null || value instanceof CharSequence) {
+			return field((CharSequence) value);
+		}
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return field(((Number) value).longValue());
+		}
+		return field(String.valueOf(value));
+	}
+
+	/**
+	 * 写一行
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             写入Writer失败
+	 */
+	public CsvWriter row(Object... values) throws IOException {
+		for (Object value : values) {
+			field(value);
+		}
+		return endRow();
+	}
+
+	/**
+	 * 写一行
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             写入Writer失败
+	 */
+	public CsvWriter row(Iterable<?> values) throws IOException {
+		for (Object value : values) {
+			field(value);
+		}
+		return endRow();
+	}
+
+	/**
+	 * 结束当前行, 写出行尾
+	 *
+	 * @return this
+	 * @throws IOException
+	 *             写入Writer失败
+	 */
+	public CsvWriter endRow() throws IOException {
+		if (rowStart && bytes != null) {
+			rowMark = bytes.position();
+		}
+		try {
+			put(lineSeparator, 0, lineSeparator.length());
+		} catch (BufferOverflowException e) {
+			throw rewind(e);
+		}
+		rowStart = true;
+		rows++;
+		return this;
+	}
+
+	/**
+	 * @return 已写的行数
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * 将缓冲的内容写入Writer并flush. 输出为ByteBuffer时不做任何事
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (out != null) {
+			flushBuffer();
+			out.flush();
+		}
+	}
+
+	/**
+	 * flush后关闭Writer. 输出为ByteBuffer时不做任何事
+	 */
+	@Override
+	public void close() throws IOException {
+		if (out != null) {
+			flushBuffer();
+			out.close();
+		}
+	}
+
+	/**
+	 * @return 第一个需要加引号的字符的位置, -1表示不需要
+	 */
+	private int firstSpecial(CharSequence s, int len) {
+		char d = delimiter;
+		for (int i = 0; i < len; i++) {
+			char ch = s.charAt(i);
+			if (ch == d || ch == '"' || ch == '\n' || ch == '\r') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void separate() throws IOException {
+		if (rowStart) {
+			rowStart = false;
+			if (bytes != null) {
+				rowMark = bytes.position();
+			}
+		} else {
+			put(delimiter);
+		}
+	}
+
+	/**
+	 * 输出空间不足: 退回到当前行的开头
+	 */
+	private BufferOverflowException rewind(BufferOverflowException e) {
+		bytes.position(rowMark);
+		rowStart = true;
+		return e;
+	}
+
+	private void put(char ch) throws IOException {
+		if (bytes != null) {
+			encode(ch);
+			return;
+		}
+		if (pos == buf.length) {
+			flushBuffer();
+		}
+		buf[pos++] = ch;
+	}
+
+	private void put(char[] cs, int from, int to) throws IOException {
+		for (int i = from; i < to; i++) {
+			put(cs[i]);
+		}
+	}
+
+	/**
+	 * 写出s的[from, to)
+	 */
+	private void put(CharSequence s, int from, int to) throws IOException {
+		if (bytes != null) {
+			encode(s, from, to);
+			return;
+		}
+		while (from < to) {
+			if (pos == buf.length) {
+				flushBuffer();
+			}
+			int n = Math.min(to - from, buf.length - pos);
+			if (s instanceof String) {
+				((String) s).getChars(from, from + n, buf, pos);
+			} else if (s instanceof StringBuilder) {
+				((StringBuilder) s).getChars(from, from + n, buf, pos);
+			} else {
+				for (int i = 0; i < n; i++) {
+					buf[pos + i] = s.charAt(from + i);
+				}
+			}
+			pos += n;
+			from += n;
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (pos > 0) {
+			out.write(buf, 0, pos);
+			pos = 0;
+		}
+	}
+
+	/**
+	 * 将s的[from, to)编码为UTF-8写入bytes
+	 */
+	private void encode(CharSequence s, int from, int to) {
+		for (int i = from; i < to; i++) {
+			char ch = s.charAt(i);
+			if (Character.isHighSurrogate(ch) && i + 1 < to && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(ch, s.charAt(++i));
+				bytes.put((byte) (0xf0 | cp >> 18)).put((byte) (0x80 | (cp >> 12 & 0x3f)))
+						.put((byte) (0x80 | (cp >> 6 & 0x3f))).put((byte) (0x80 | (cp & 0x3f)));
+			} else {
+				encode(ch);
+			}
+		}
+	}
+
+	/**
+	 * 编码一个基本平面的字符, 不成对的代理字符写为'?'
+	 */
+	private void encode(char ch) {
+		if (ch < 0x80) {
+			bytes.put((byte) ch);
+		} else if (ch < 0x800) {
+			bytes.put((byte) (0xc0 | ch >> 6)).put((byte) (0x80 | (ch & 0x3f)));
+		} else if (ch >= Character.MIN_SURROGATE && ch <= Character.MAX_SURROGATE) {
+			bytes.put((byte) '?');
+		} else {
+			bytes.put((byte) (0xe0 | ch >> 12)).put((byte) (0x80 | (ch >> 6 & 0x3f))).put((byte) (0x80 | (ch & 0x3f)));
+		}
+	}
+}
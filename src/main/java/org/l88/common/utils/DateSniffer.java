@@ -0,0 +1,584 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * 自动识别格式的日期解析: 一组允许的格式编译为一个按字符类(数字、各分隔符)转移的确定有限自动机.
+ * <p>
+ * 扫描一遍输入即得到形状相符的格式, 再按格式取出各字段并校验取值(月1~12、日不超过当月天数等), 形状相同的格式
+ * (如yyyyMMdd与ddMMyyyy)按给出的顺序依次尝试. 不使用SimpleDateFormat, 解析失败时返回null而不抛出异常.
+ * <p>
+ * 格式为SimpleDateFormat的子集: yyyy、M/MM、d/dd、H/HH、m/mm、s/ss、SSS, 其余字符和单引号中的文字原样匹配;
+ * 单字母的字段为1~2位, 其后须为分隔符或结尾. 另有{@link #EPOCH_SECONDS}(10位)和{@link #EPOCH_MILLIS}(13位)表示时间戳.
+ * 不含年月日的格式按1970-01-01计. 实例不可变, 可多线程共享.
+ * <p>
+ * 同一列数据的格式通常不变, 逐行解析时使用{@link Column}: 先按上一次的格式直接解析, 不符时再走自动机.
+ *
+ * <pre>
+ * DateSniffer.Column col = DateSniffer.standard().column();
+ * if (col.parse(field)) {
+ *     long t = col.getTime();
+ *     String pattern = col.getPattern();
+ * }
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class DateSniffer {
+
+	/**
+	 * 10位数字的秒时间戳
+	 */
+	public static final String EPOCH_SECONDS = "<epoch-seconds>";
+	/**
+	 * 13位数字的毫秒时间戳
+	 */
+	public static final String EPOCH_MILLIS = "<epoch-millis>";
+
+	private static final DateSniffer STANDARD = new DateSniffer(Dates.TIME_FORMAT_Y_M_D,
+			"yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS",
+			Dates.DATE_FORMAT_YMD_LONG, "yyyy/MM/dd HH:mm:ss", "yyyy/MM/dd", "yyyy/M/d H:m:s", "yyyy/M/d",
+			"yyyyMMddHHmmss", "yyyyMMdd HHmmss", Dates.DATE_FORMAT_YMD, Dates.DATE_FORMAT_YM, Dates.DATE_FORMAT_Y,
+			EPOCH_MILLIS, EPOCH_SECONDS);
+
+	/**
+	 * 字符类: 0为其他字符, 1为数字, 之后为各分隔符
+	 */
+	private static final int OTHER = 0;
+	private static final int DIGIT = 1;
+	private static final long FAIL = Long.MIN_VALUE;
+
+	/**
+	 * 格式中的一项: 字段(letter为字段字母)或文字(letter为0)
+	 */
+	private static final class Token {
+		final char letter;
+		final char literal;
+		final int min;
+		final int max;
+
+		Token(char letter, char literal, int min, int max) {
+			this.letter = letter;
+			this.literal = literal;
+			this.min = min;
+			this.max = max;
+		}
+	}
+
+	private final String[] patterns;
+	private final Token[][] programs;
+	private final TimeZone zone;
+
+	private final byte[] asciiClass = new byte[128];
+	/**
+	 * 非ASCII的分隔符(升序)及其字符类
+	 */
+	private final char[] otherChars;
+	private final int[] otherClass;
+	private final int classes;
+	/**
+	 * 转移表: state * classes + class -> state, -1为失败. 状态0为初始状态
+	 */
+	private final int[] next;
+	/**
+	 * 各状态接受的格式下标(按优先顺序), 不接受时为null
+	 */
+	private final int[][] accept;
+
+	/**
+	 * 常用格式: Dates中的各格式、yyyy/MM/dd系列、ISO 8601本地时间和时间戳, 默认时区
+	 */
+	public static DateSniffer standard() {
+		return STANDARD;
+	}
+
+	/**
+	 * 默认时区
+	 *
+	 * @param patterns
+	 *            允许的格式, 形状相同时前面的优先
+	 */
+	public DateSniffer(String... patterns) {
+		this(TimeZone.getDefault(), patterns);
+	}
+
+	/**
+	 * @param zone
+	 *            时区
+	 * @param patterns
+	 *            允许的格式, 形状相同时前面的优先
+	 * @throws IllegalArgumentException
+	 *             格式中有不支持的字段
+	 */
+	public DateSniffer(TimeZone zone, String... patterns) {
+		if (patterns.length == 0) {
+			throw new IllegalArgumentException("no patterns");
+		}
+		this.zone = (TimeZone) zone.clone();
+		this.patterns = patterns.clone();
+		this.programs = new Token[patterns.length][];
+		StringBuilder literals = new StringBuilder();
+		for (int p = 0; p < patterns.length; p++) {
+			programs[p] = compile(patterns[p]);
+			for (Token t : programs[p]) {
+				if (t.letter == 0 && literals.indexOf(String.valueOf(t.literal)) < 0) {
+					literals.append(t.literal);
+				}
+			}
+		}
+		// 字符类
+		for (char ch = '0'; ch <= '9'; ch++) {
+			asciiClass[ch] = DIGIT;
+		}
+		char[] others = new char[literals.length()];
+		int nOthers = 0;
+		for (int i = 0; i < literals.length(); i++) {
+			char ch = literals.charAt(i);
+			if (ch < 128) {
+				asciiClass[ch] = (byte) (DIGIT + 1 + i);
+			} else {
+				others[nOthers++] = ch;
+			}
+		}
+		otherChars = Arrays.copyOf(others, nOthers);
+		Arrays.sort(otherChars);
+		otherClass = new int[nOthers];
+		for (int i = 0; i < nOthers; i++) {
+			otherClass[i] = DIGIT + 1 + literals.indexOf(String.valueOf(otherChars[i]));
+		}
+		classes = DIGIT + 1 + literals.length();
+
+		// 子集构造. NFA状态为(格式, 项, 该项已读的数字数)
+		List<int[]> states = new ArrayList<int[]>();
+		Map<String, Integer> ids = new HashMap<String, Integer>();
+		int[] start = new int[patterns.length];
+		for (int p = 0; p < patterns.length; p++) {
+			start[p] = nfa(p, 0, 0);
+		}
+		start = closure(start);
+		states.add(start);
+		ids.put(Arrays.toString(start), 0);
+		List<Integer> table = new ArrayList<Integer>();
+		for (int s = 0; s < states.size(); s++) {
+			int[] set = states.get(s);
+			for (int c = 0; c < classes; c++) {
+				int[] to = move(set, c);
+				int target = -1;
+				if (to.length > 0) {
+					String key = Arrays.toString(to);
+					Integer id = ids.get(key);
+					if (id == null) {
+						id = states.size();
+						states.add(to);
+						ids.put(key, id);
+					}
+					target = id;
+				}
+				table.add(target);
+			}
+		}
+		next = new int[table.size()];
+		for (int i = 0; i < next.length; i++) {
+			next[i] = table.get(i);
+		}
+		accept = new int[states.size()][];
+		for (int s = 0; s < accept.length; s++) {
+			int[] pats = new int[patterns.length];
+			int n = 0;
+			for (int q : states.get(s)) {
+				int p = q >>> 16;
+				if (((q >>> 8) & 0xFF) == programs[p].length && (n == 0 || pats[n - 1] != p)) {
+					pats[n++] = p;
+				}
+			}
+			if (n > 0) {
+				accept[s] = Arrays.copyOf(pats, n);
+			}
+		}
+	}
+
+	/**
+	 * @return 第i个格式
+	 */
+	public String getPattern(int i) {
+		return patterns[i];
+	}
+
+	/**
+	 * @return 格式的个数
+	 */
+	public int getPatternCount() {
+		return patterns.length;
+	}
+
+	/**
+	 * @return 新的单列解析器
+	 */
+	public Column column() {
+		return new Column();
+	}
+
+	/**
+	 * @param s
+	 *            输入
+	 * @return 识别出的格式下标, -1表示不符合任何格式
+	 */
+	public int sniff(CharSequence s) {
+		int[] pats = candidates(s);
+		if (pats != null) {
+			for (int p : pats) {
+				if (extract(p, s) != FAIL) {
+					return p;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param s
+	 *            输入
+	 * @return 解析的日期, 不符合任何格式时为null
+	 */
+	public Date parse(CharSequence s) {
+		int[] pats = candidates(s);
+		if (pats != null) {
+			for (int p : pats) {
+				long t = extract(p, s);
+				if (t != FAIL) {
+					return new Date(t);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 单列解析器: 记住上一次识别出的格式, 下一次先按它解析. 不是线程安全的.
+	 */
+	public final class Column {
+		private int last = -1;
+		private int pattern = -1;
+		private long time;
+		private long hits;
+		private long misses;
+
+		Column() {
+		}
+
+		/**
+		 * @param s
+		 *            输入
+		 * @return 是否解析成功. 成功时结果由{@link #getTime()}等取得
+		 */
+		public boolean parse(CharSequence s) {
+			if (last >= 0) {
+				long t = extract(last, s);
+				if (t != FAIL) {
+					hits++;
+					pattern = last;
+					time = t;
+					return true;
+				}
+			}
+			misses++;
+			pattern = -1;
+			int[] pats = candidates(s);
+			if (pats != null) {
+				for (int p : pats) {
+					long t = extract(p, s);
+					if (t != FAIL) {
+						last = pattern = p;
+						time = t;
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return 上一次解析的时间(UTC毫秒数)
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return 上一次解析的日期, 失败时为null
+		 */
+		public Date getDate() {
+			return pattern < 0 ? null : new Date(time);
+		}
+
+		/**
+		 * @return 上一次解析所用格式的下标, 失败时为-1
+		 */
+		public int getPatternIndex() {
+			return pattern;
+		}
+
+		/**
+		 * @return 上一次解析所用的格式, 失败时为null
+		 */
+		public String getPattern() {
+			return pattern < 0 ? null : patterns[pattern];
+		}
+
+		/**
+		 * @return 按上一次的格式直接解析成功的次数
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return 经过自动机识别的次数
+		 */
+		public long getMisses() {
+			return misses;
+		}
+	}
+
+	/**
+	 * 走自动机
+	 *
+	 * @return 形状相符的格式, 没有时为null
+	 */
+	private int[] candidates(CharSequence s) {
+		int state = 0;
+		for (int i = 0, len = s.length(); i < len; i++) {
+			state = next[state * classes + classOf(s.charAt(i))];
+			if (state < 0) {
+				return null;
+			}
+		}
+		return accept[state];
+	}
+
+	private int classOf(char ch) {
+		if (ch < 128) {
+			return asciiClass[ch];
+		}
+		int i = Arrays.binarySearch(otherChars, ch);
+		return i < 0 ? OTHER : otherClass[i];
+	}
+
+	/**
+	 * 按格式p解析
+	 *
+	 * @return UTC毫秒数, 不符合时为FAIL
+	 */
+	private long extract(int p, CharSequence s) {
+		int year = 1970;
+		int month = 1;
+		int day = 1;
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int millis = 0;
+		long epoch = FAIL;
+		int i = 0;
+		int len = s.length();
+		for (Token t : programs[p]) {
+			if (t.letter == 0) {
+				if (i >= len || s.charAt(i) != t.literal) {
+					return FAIL;
+				}
+				i++;
+				continue;
+			}
+			long v = 0;
+			int n = 0;
+			for (char ch; n < t.max && i < len && (ch = s.charAt(i)) >= '0' && ch <= '9'; n++, i++) {
+				v = v * 10 + (ch - '0');
+			}
+			if (n < t.min) {
+				return FAIL;
+			}
+			switch (t.letter) {
+			case 'y':
+				year = (int) v;
+				break;
+			case 'M':
+				month = (int) v;
+				break;
+			case 'd':
+				day = (int) v;
+				break;
+			case 'H':
+				hour = (int) v;
+				break;
+			case 'm':
+				minute = (int) v;
+				break;
+			case 's':
+				second = (int) v;
+				break;
+			case 'S':
+				millis = (int) v;
+				break;
+			case '#':
+				epoch = v * 1000;
+				break;
+			default:
+				epoch = v;
+			}
+		}
+		if (i != len) {
+			return FAIL;
+		}
+		if (epoch != FAIL) {
+			return epoch;
+		}
+		if (month < 1 || month > 12 || day < 1 || day > Chrono.daysOfMonth(year, month) || hour > 23
+				|| minute > 59 || second > 59) {
+			return FAIL;
+		}
+		long local = Chrono.toEpochDay(year, month, day) * Chrono.MILLIS_PER_DAY
+				+ ((hour * 60 + minute) * 60 + second) * 1000L + millis;
+		return Chrono.toUtcMillis(local, zone);
+	}
+
+	private static int nfa(int p, int t, int k) {
+		return p << 16 | t << 8 | k;
+	}
+
+	/**
+	 * 加上读完最少位数后可进入下一项的状态, 排序去重
+	 */
+	private int[] closure(int[] set) {
+		int[] ret = new int[set.length * 2];
+		int n = 0;
+		for (int q : set) {
+			int p = q >>> 16;
+			int t = (q >>> 8) & 0xFF;
+			int k = q & 0xFF;
+			ret[n++] = q;
+			Token[] prog = programs[p];
+			if (t < prog.length && prog[t].letter != 0 && k >= prog[t].min) {
+				ret[n++] = nfa(p, t + 1, 0);
+			}
+		}
+		ret = Arrays.copyOf(ret, n);
+		Arrays.sort(ret);
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			if (m == 0 || ret[m - 1] != ret[i]) {
+				ret[m++] = ret[i];
+			}
+		}
+		return Arrays.copyOf(ret, m);
+	}
+
+	private int[] move(int[] set, int c) {
+		int[] ret = new int[set.length];
+		int n = 0;
+		for (int q : set) {
+			int p = q >>> 16;
+			int t = (q >>> 8) & 0xFF;
+			int k = q & 0xFF;
+			Token[] prog = programs[p];
+			if (t == prog.length) {
+				continue;
+			}
+			Token tok = prog[t];
+			if (tok.letter == 0) {
+				if (c == classOf(tok.literal)) {
+					ret[n++] = nfa(p, t + 1, 0);
+				}
+			} else if (c == DIGIT && k < tok.max) {
+				ret[n++] = k + 1 == tok.max ? nfa(p, t + 1, 0) : nfa(p, t, k + 1);
+			}
+		}
+		return closure(Arrays.copyOf(ret, n));
+	}
+
+	/**
+	 * 将格式编译为项的序列
+	 */
+	private static Token[] compile(String pattern) {
+		if (EPOCH_SECONDS.equals(pattern)) {
+			return new Token[] { new Token('#', (char) 0, 10, 10) };
+		}
+		if (EPOCH_MILLIS.equals(pattern)) {
+			return new Token[] { new Token('%', (char) 0, 13, 13) };
+		}
+		List<Token> tokens = new ArrayList<Token>();
+		int len = pattern.length();
+		for (int i = 0; i < len;) {
+			char ch = pattern.charAt(i);
+			if (ch == '\'') {
+				int end = pattern.indexOf('\'', i + 1);
+				if (end < 0) {
+					throw new IllegalArgumentException("unterminated quote in " + pattern);
+				}
+				if (end == i + 1) {
+					tokens.add(new Token((char) 0, '\'', 1, 1));
+				}
+				for (int k = i + 1; k < end; k++) {
+					tokens.add(new Token((char) 0, pattern.charAt(k), 1, 1));
+				}
+				i = end + 1;
+			} else if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')) {
+				int n = 1;
+				while (i + n < len && pattern.charAt(i + n) == ch) {
+					n++;
+				}
+				int min;
+				int max;
+				if (ch == 'y' && n == 4) {
+					min = max = 4;
+				} else if (ch == 'S' && n == 3) {
+					min = max = 3;
+				} else if ("MdHms".indexOf(ch) >= 0 && n <= 2) {
+					min = n;
+					max = 2;
+				} else {
+					throw new IllegalArgumentException("unsupported field " + pattern.substring(i, i + n)
+							+ " in " + pattern);
+				}
+				tokens.add(new Token(ch, (char) 0, min, max));
+				i += n;
+			} else {
+				if (ch >= '0' && ch <= '9') {
+					throw new IllegalArgumentException("digit literal in " + pattern);
+				}
+				tokens.add(new Token((char) 0, ch, 1, 1));
+				i++;
+			}
+		}
+		for (int t = 0; t + 1 < tokens.size(); t++) {
+			if (tokens.get(t).min < tokens.get(t).max && tokens.get(t + 1).letter != 0) {
+				throw new IllegalArgumentException(
+						"variable-width field must be followed by a literal in " + pattern);
+			}
+		}
+		if (tokens.isEmpty() || tokens.size() > 255) {
+			throw new IllegalArgumentException("illegal pattern: " + pattern);
+		}
+		return tokens.toArray(new Token[tokens.size()]);
+	}
+}
@@ -16,7 +16,6 @@
 package org.l88.common.utils;
 
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -58,14 +57,13 @@ public class Dates {
 	 * @return 格式化后的日期
 	 */
 	public static String format(java.util.Date _date, String _pattern) {
-		if (_date == null) {
-			return "";
+		if (Metrics.ENABLED) {
+			long t = Metrics.FORMAT.begin();
+			String ret = DatesSupport.format(_date, _pattern);
+			Metrics.FORMAT.end(t, _pattern == null ? 0 : _pattern.length());
+			return ret;
 		}
-
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(_pattern);
-		String stringDate = simpleDateFormat.format(_date);
-
-		return stringDate;
+		return DatesSupport.format(_date, _pattern);
 	}
 
 	/**
@@ -0,0 +1,43 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.text.SimpleDateFormat;
+
+/**
+ * {@link Dates}热点方法的实现(JDK 1.6基线版本).
+ * <p>
+ * 多版本JAR中, <code>META-INF/versions/9</code>下有基于java.time的替代实现.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+final class DatesSupport {
+
+	private DatesSupport() {
+	}
+
+	static String format(java.util.Date _date, String _pattern) {
+		if (_date == null) {
+			return "";
+		}
+
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(_pattern);
+		String stringDate = simpleDateFormat.format(_date);
+
+		return stringDate;
+	}
+}
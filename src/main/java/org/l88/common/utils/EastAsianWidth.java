@@ -0,0 +1,278 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+/**
+ * 东亚字符宽度(Unicode UAX #11 East Asian Width)及终端显示宽度.
+ * <p>
+ * BMP字符查一次64K的字节表, 辅助平面字符在区间表中二分查找. 显示宽度按终端的习惯计算:
+ * 宽字符(W、F)占2列, 组合符号、格式控制符和控制字符占0列, 其它占1列; 模糊宽度(A)的字符可选按1列或2列计算
+ * (中文环境的终端字体通常按2列显示).
+ *
+ * @see Strings#displayWidth(String)
+ * @author alexpaul@126.com
+ *
+ */
+public final class EastAsianWidth {
+
+	/**
+	 * 中性(Neutral), 非东亚字符
+	 */
+	public static final int NEUTRAL = 0;
+	/**
+	 * 窄(Na), 如ASCII
+	 */
+	public static final int NARROW = 1;
+	/**
+	 * 半角(H), 如半角片假名
+	 */
+	public static final int HALFWIDTH = 2;
+	/**
+	 * 宽(W), 如汉字、假名、emoji
+	 */
+	public static final int WIDE = 3;
+	/**
+	 * 全角(F), 如全角ASCII、全角空格
+	 */
+	public static final int FULLWIDTH = 4;
+	/**
+	 * 模糊(A), 如希腊字母、俄文字母、制表符、带圈数字
+	 */
+	public static final int AMBIGUOUS = 5;
+
+	private static final int CLASS_MASK = 0x07;
+	private static final int ZERO_WIDTH = 0x08;
+
+	private static final int[] FULL = { 0x3000, 0x3000, 0xFF01, 0xFF60, 0xFFE0, 0xFFE6 };
+
+	private static final int[] HALF = { 0x20A9, 0x20A9, 0xFF61, 0xFFBE, 0xFFC2, 0xFFC7, 0xFFCA, 0xFFCF, 0xFFD2,
+			0xFFD7, 0xFFDA, 0xFFDC, 0xFFE8, 0xFFEE };
+
+	private static final int[] NARROWS = { 0x20, 0x7E, 0xA2, 0xA3, 0xA5, 0xA6, 0xAC, 0xAC, 0xAF, 0xAF, 0x27E6,
+			0x27ED, 0x2985, 0x2986 };
+
+	private static final int[] WIDES = { 0x1100, 0x115F, 0x231A, 0x231B, 0x2329, 0x232A, 0x23E9, 0x23EC, 0x23F0,
+			0x23F0, 0x23F3, 0x23F3, 0x25FD, 0x25FE, 0x2614, 0x2615, 0x2648, 0x2653, 0x267F, 0x267F, 0x2693, 0x2693,
+			0x26A1, 0x26A1, 0x26AA, 0x26AB, 0x26BD, 0x26BE, 0x26C4, 0x26C5, 0x26CE, 0x26CE, 0x26D4, 0x26D4, 0x26EA,
+			0x26EA, 0x26F2, 0x26F3, 0x26F5, 0x26F5, 0x26FA, 0x26FA, 0x26FD, 0x26FD, 0x2705, 0x2705, 0x270A, 0x270B,
+			0x2728, 0x2728, 0x274C, 0x274C, 0x274E, 0x274E, 0x2753, 0x2755, 0x2757, 0x2757, 0x2795, 0x2797, 0x27B0,
+			0x27B0, 0x27BF, 0x27BF, 0x2B1B, 0x2B1C, 0x2B50, 0x2B50, 0x2B55, 0x2B55, 0x2E80, 0x2E99, 0x2E9B, 0x2EF3,
+			0x2F00, 0x2FD5, 0x2FF0, 0x2FFF, 0x3001, 0x303E, 0x3041, 0x3096, 0x3099, 0x30FF, 0x3105, 0x312F, 0x3131,
+			0x318E, 0x3190, 0x31E3, 0x31F0, 0x321E, 0x3220, 0x3247, 0x3250, 0x4DBF, 0x4E00, 0xA48C, 0xA490, 0xA4C6,
+			0xA960, 0xA97C, 0xAC00, 0xD7A3, 0xF900, 0xFAFF, 0xFE10, 0xFE19, 0xFE30, 0xFE52, 0xFE54, 0xFE66, 0xFE68,
+			0xFE6B, 0x16FE0, 0x16FE4, 0x16FF0, 0x16FF1, 0x17000, 0x187F7, 0x18800, 0x18CD5, 0x18D00, 0x18D08,
+			0x1AFF0, 0x1AFFE, 0x1B000, 0x1B122, 0x1B150, 0x1B152, 0x1B164, 0x1B167, 0x1B170, 0x1B2FB, 0x1F004,
+			0x1F004, 0x1F0CF, 0x1F0CF, 0x1F18E, 0x1F18E, 0x1F191, 0x1F19A, 0x1F200, 0x1F202, 0x1F210, 0x1F23B,
+			0x1F240, 0x1F248, 0x1F250, 0x1F251, 0x1F260, 0x1F265, 0x1F300, 0x1F320, 0x1F32D, 0x1F335, 0x1F337,
+			0x1F37C, 0x1F37E, 0x1F393, 0x1F3A0, 0x1F3CA, 0x1F3CF, 0x1F3D3, 0x1F3E0, 0x1F3F0, 0x1F3F4, 0x1F3F4,
+			0x1F3F8, 0x1F43E, 0x1F440, 0x1F440, 0x1F442, 0x1F4FC, 0x1F4FF, 0x1F53D, 0x1F54B, 0x1F54E, 0x1F550,
+			0x1F567, 0x1F57A, 0x1F57A, 0x1F595, 0x1F596, 0x1F5A4, 0x1F5A4, 0x1F5FB, 0x1F64F, 0x1F680, 0x1F6C5,
+			0x1F6CC, 0x1F6CC, 0x1F6D0, 0x1F6D2, 0x1F6D5, 0x1F6D7, 0x1F6DC, 0x1F6DF, 0x1F6EB, 0x1F6EC, 0x1F6F4,
+			0x1F6FC, 0x1F7E0, 0x1F7EB, 0x1F7F0, 0x1F7F0, 0x1F90C, 0x1F93A, 0x1F93C, 0x1F945, 0x1F947, 0x1F9FF,
+			0x1FA70, 0x1FA7C, 0x1FA80, 0x1FA88, 0x1FA90, 0x1FABD, 0x1FABF, 0x1FAC5, 0x1FACE, 0x1FADB, 0x1FAE0,
+			0x1FAE8, 0x1FAF0, 0x1FAF8, 0x20000, 0x2FFFD, 0x30000, 0x3FFFD };
+
+	private static final int[] AMBIGUOUSES = { 0xA1, 0xA1, 0xA4, 0xA4, 0xA7, 0xA8, 0xAA, 0xAA, 0xAD, 0xAE, 0xB0,
+			0xB4, 0xB6, 0xBA, 0xBC, 0xBF, 0xC6, 0xC6, 0xD0, 0xD0, 0xD7, 0xD8, 0xDE, 0xE1, 0xE6, 0xE6, 0xE8, 0xEA,
+			0xEC, 0xED, 0xF0, 0xF0, 0xF2, 0xF3, 0xF7, 0xFA, 0xFC, 0xFC, 0xFE, 0xFE, 0x101, 0x101, 0x111, 0x111,
+			0x113, 0x113, 0x11B, 0x11B, 0x126, 0x127, 0x12B, 0x12B, 0x131, 0x133, 0x138, 0x138, 0x13F, 0x142, 0x144,
+			0x144, 0x148, 0x14B, 0x14D, 0x14D, 0x152, 0x153, 0x166, 0x167, 0x16B, 0x16B, 0x1CE, 0x1CE, 0x1D0, 0x1D0,
+			0x1D2, 0x1D2, 0x1D4, 0x1D4, 0x1D6, 0x1D6, 0x1D8, 0x1D8, 0x1DA, 0x1DA, 0x1DC, 0x1DC, 0x251, 0x251, 0x261,
+			0x261, 0x2C4, 0x2C4, 0x2C7, 0x2C7, 0x2C9, 0x2CB, 0x2CD, 0x2CD, 0x2D0, 0x2D0, 0x2D8, 0x2DB, 0x2DD, 0x2DD,
+			0x2DF, 0x2DF, 0x300, 0x36F, 0x391, 0x3A1, 0x3A3, 0x3A9, 0x3B1, 0x3C1, 0x3C3, 0x3C9, 0x401, 0x401, 0x410,
+			0x44F, 0x451, 0x451, 0x2010, 0x2010, 0x2013, 0x2016, 0x2018, 0x2019, 0x201C, 0x201D, 0x2020, 0x2022,
+			0x2024, 0x2027, 0x2030, 0x2030, 0x2032, 0x2033, 0x2035, 0x2035, 0x203B, 0x203B, 0x203E, 0x203E, 0x2074,
+			0x2074, 0x207F, 0x207F, 0x2081, 0x2084, 0x20AC, 0x20AC, 0x2103, 0x2103, 0x2105, 0x2105, 0x2109, 0x2109,
+			0x2113, 0x2113, 0x2116, 0x2116, 0x2121, 0x2122, 0x2126, 0x2126, 0x212B, 0x212B, 0x2153, 0x2154, 0x215B,
+			0x215E, 0x2160, 0x216B, 0x2170, 0x2179, 0x2189, 0x2189, 0x2190, 0x2199, 0x21B8, 0x21B9, 0x21D2, 0x21D2,
+			0x21D4, 0x21D4, 0x21E7, 0x21E7, 0x2200, 0x2200, 0x2202, 0x2203, 0x2207, 0x2208, 0x220B, 0x220B, 0x220F,
+			0x220F, 0x2211, 0x2211, 0x2215, 0x2215, 0x221A, 0x221A, 0x221D, 0x2220, 0x2223, 0x2223, 0x2225, 0x2225,
+			0x2227, 0x222C, 0x222E, 0x222E, 0x2234, 0x2237, 0x223C, 0x223D, 0x2248, 0x2248, 0x224C, 0x224C, 0x2252,
+			0x2252, 0x2260, 0x2261, 0x2264, 0x2267, 0x226A, 0x226B, 0x226E, 0x226F, 0x2282, 0x2283, 0x2286, 0x2287,
+			0x2295, 0x2295, 0x2299, 0x2299, 0x22A5, 0x22A5, 0x22BF, 0x22BF, 0x2312, 0x2312, 0x2460, 0x24E9, 0x24EB,
+			0x254B, 0x2550, 0x2573, 0x2580, 0x258F, 0x2592, 0x2595, 0x25A0, 0x25A1, 0x25A3, 0x25A9, 0x25B2, 0x25B3,
+			0x25B6, 0x25B7, 0x25BC, 0x25BD, 0x25C0, 0x25C1, 0x25C6, 0x25C8, 0x25CB, 0x25CB, 0x25CE, 0x25D1, 0x25E2,
+			0x25E5, 0x25EF, 0x25EF, 0x2605, 0x2606, 0x2609, 0x2609, 0x260E, 0x260F, 0x261C, 0x261C, 0x261E, 0x261E,
+			0x2640, 0x2640, 0x2642, 0x2642, 0x2660, 0x2661, 0x2663, 0x2665, 0x2667, 0x266A, 0x266C, 0x266D, 0x266F,
+			0x266F, 0x269E, 0x269F, 0x26BF, 0x26BF, 0x26C6, 0x26CD, 0x26CF, 0x26D3, 0x26D5, 0x26E1, 0x26E3, 0x26E3,
+			0x26E8, 0x26E9, 0x26EB, 0x26F1, 0x26F4, 0x26F4, 0x26F6, 0x26F9, 0x26FB, 0x26FC, 0x26FE, 0x26FF, 0x273D,
+			0x273D, 0x2776, 0x277F, 0x2B56, 0x2B59, 0x3248, 0x324F, 0xE000, 0xF8FF, 0xFE00, 0xFE0F, 0xFFFD, 0xFFFD,
+			0x1F100, 0x1F10A, 0x1F110, 0x1F12D, 0x1F130, 0x1F169, 0x1F170, 0x1F18D, 0x1F18F, 0x1F190, 0x1F19B,
+			0x1F1AC, 0xE0100, 0xE01EF, 0xF0000, 0xFFFFD, 0x100000, 0x10FFFD };
+
+	/**
+	 * BMP字符的宽度类别, 低3位为类别, ZERO_WIDTH位表示显示宽度为0
+	 */
+	private static final byte[] BMP = new byte[1 << 16];
+
+	static {
+		fill(AMBIGUOUSES, AMBIGUOUS);
+		fill(NARROWS, NARROW);
+		fill(HALF, HALFWIDTH);
+		fill(WIDES, WIDE);
+		fill(FULL, FULLWIDTH);
+		for (int cp = 0; cp < BMP.length; cp++) {
+			if (zeroWidth(cp)) {
+				BMP[cp] |= ZERO_WIDTH;
+			}
+		}
+	}
+
+	private static void fill(int[] ranges, int cls) {
+		for (int i = 0; i < ranges.length && ranges[i] < BMP.length; i += 2) {
+			for (int cp = ranges[i]; cp <= ranges[i + 1]; cp++) {
+				BMP[cp] = (byte) cls;
+			}
+		}
+	}
+
+	private static boolean zeroWidth(int cp) {
+		if (cp == 0xAD) {
+			// 软连字符通常显示为1列
+			return false;
+		}
+		if (cp >= 0x1160 && cp <= 0x11FF) {
+			// 韩文字母的中声、终声与初声组合显示
+			return true;
+		}
+		switch (Character.getType(cp)) {
+		case Character.NON_SPACING_MARK:
+		case Character.ENCLOSING_MARK:
+		case Character.FORMAT:
+		case Character.CONTROL:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private EastAsianWidth() {
+	}
+
+	private static boolean in(int[] ranges, int cp) {
+		int lo = 0;
+		int hi = (ranges.length >> 1) - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cp < ranges[mid << 1]) {
+				hi = mid - 1;
+			} else if (cp > ranges[(mid << 1) + 1]) {
+				lo = mid + 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 取字符的东亚宽度类别
+	 *
+	 * @param cp
+	 *            码位
+	 * @return {@link #NEUTRAL}、{@link #NARROW}、{@link #HALFWIDTH}、{@link #WIDE}、{@link #FULLWIDTH}或
+	 *         {@link #AMBIGUOUS}
+	 */
+	public static int of(int cp) {
+		if (cp < BMP.length) {
+			return cp < 0 ? NEUTRAL : BMP[cp] & CLASS_MASK;
+		}
+		if (in(WIDES, cp)) {
+			return WIDE;
+		}
+		return in(AMBIGUOUSES, cp) ? AMBIGUOUS : NEUTRAL;
+	}
+
+	/**
+	 * 字符的显示宽度, 模糊宽度的字符按1列计算
+	 *
+	 * @param cp
+	 *            码位
+	 * @return 0、1或2
+	 */
+	public static int width(int cp) {
+		return width(cp, false);
+	}
+
+	/**
+	 * 字符的显示宽度
+	 *
+	 * @param cp
+	 *            码位
+	 * @param ambiguousWide
+	 *            模糊宽度的字符是否按2列计算
+	 * @return 0、1或2
+	 */
+	public static int width(int cp, boolean ambiguousWide) {
+		int cls;
+		if (cp < BMP.length) {
+			if (cp < 0) {
+				return 0;
+			}
+			int b = BMP[cp];
+			if ((b & ZERO_WIDTH) != 0) {
+				return 0;
+			}
+			cls = b & CLASS_MASK;
+		} else {
+			if (zeroWidth(cp)) {
+				return 0;
+			}
+			cls = of(cp);
+		}
+		return cls == WIDE || cls == FULLWIDTH || (ambiguousWide && cls == AMBIGUOUS) ? 2 : 1;
+	}
+
+	/**
+	 * 字符序列的显示宽度, 模糊宽度的字符按1列计算
+	 *
+	 * @param s
+	 *            字符序列
+	 * @return 显示宽度(列数). s为null时为0
+	 */
+	public static int width(CharSequence s) {
+		return width(s, false);
+	}
+
+	/**
+	 * 字符序列的显示宽度
+	 *
+	 * @param s
+	 *            字符序列
+	 * @param ambiguousWide
+	 *            模糊宽度的字符是否按2列计算
+	 * @return 显示宽度(列数). s为null时为0
+	 */
+	public static int width(CharSequence s, boolean ambiguousWide) {
+		if (s == null) {
+			return 0;
+		}
+		int ret = 0;
+		for (int i = 0, len = s.length(); i < len;) {
+			char ch = s.charAt(i++);
+			if (ch < 0x7F && ch >= 0x20) {
+				ret++;
+				continue;
+			}
+			int cp = ch;
+			if (Character.isHighSurrogate(ch) && i < len && Character.isLowSurrogate(s.charAt(i))) {
+				cp = Character.toCodePoint(ch, s.charAt(i++));
+			}
+			ret += width(cp, ambiguousWide);
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,378 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 16进制转储(hexdump -C格式), 用于诊断损坏的文件.
+ * <p>
+ * 文件按窗口(缺省64M)依次映射到内存, 不读入堆中, 可从任意偏移开始转储一段. 每行为偏移、16进制字节和文本栏:
+ *
+ * <pre>
+ * 00000000  48 65 6c 6c 6f 2c 20 e4  b8 ad e6 96 87 0a        |Hello, 中 文 .|
+ * 0000000e
+ * </pre>
+ *
+ * 文本栏缺省只显示可打印的ASCII字符, 其余为'.'; 也可按UTF-8或GB18030解码多字节字符, 字符显示在首字节的位置,
+ * 按显示宽度补空格使各行对齐. 跨行或无法解码的字节序列按单字节显示. 实例不是线程安全的.
+ *
+ * <pre>
+ * new HexDump().setGutter(HexDump.UTF8).dump(file, 0x1000, 256, writer);
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class HexDump {
+
+	/**
+	 * 文本栏只显示ASCII
+	 */
+	public static final int ASCII = 0;
+	/**
+	 * 文本栏按UTF-8解码
+	 */
+	public static final int UTF8 = 1;
+	/**
+	 * 文本栏按GB18030解码
+	 */
+	public static final int GB18030 = 2;
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final int FLUSH_SIZE = 8192;
+
+	private int bytesPerLine = 16;
+	private int gutter = ASCII;
+	private long windowSize = 64L << 20;
+
+	private CharsetDecoder gb;
+	private final ByteBuffer gbIn = ByteBuffer.allocate(4);
+	private final CharBuffer gbOut = CharBuffer.allocate(2);
+
+	/**
+	 * @param bytesPerLine
+	 *            每行字节数, 缺省为16
+	 */
+	public HexDump setBytesPerLine(int bytesPerLine) {
+		this.bytesPerLine = Math.max(1, bytesPerLine);
+		return this;
+	}
+
+	/**
+	 * @param gutter
+	 *            文本栏的解码方式: {@link #ASCII}(缺省)、{@link #UTF8}、{@link #GB18030}
+	 */
+	public HexDump setGutter(int gutter) {
+		if (gutter < ASCII || gutter > GB18030) {
+			throw new IllegalArgumentException("unknown gutter: " + gutter);
+		}
+		this.gutter = gutter;
+		return this;
+	}
+
+	/**
+	 * @param windowSize
+	 *            每次映射的字节数, 缺省为64M. 按每行字节数向上取整
+	 */
+	public HexDump setWindowSize(long windowSize) {
+		this.windowSize = Math.max(1, windowSize);
+		return this;
+	}
+
+	/**
+	 * 转储整个文件
+	 *
+	 * @throws IOException
+	 *             读写失败
+	 */
+	public void dump(File file, Writer out) throws IOException {
+		dump(file, 0, Long.MAX_VALUE, out);
+	}
+
+	/**
+	 * 转储文件的一段. 结束时刷新但不关闭out.
+	 *
+	 * @param file
+	 *            文件
+	 * @param offset
+	 *            起始偏移
+	 * @param length
+	 *            字节数, 超出文件末尾时到文件末尾为止
+	 * @param out
+	 *            输出
+	 * @throws IOException
+	 *             读写失败
+	 */
+	public void dump(File file, long offset, long length, Writer out) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel ch = raf.getChannel();
+			long size = ch.size();
+			long start = Math.min(Math.max(0, offset), size);
+			long end = length > size - start ? size : start + length;
+			long window = (windowSize + bytesPerLine - 1) / bytesPerLine * bytesPerLine;
+			window = Math.min(window, Integer.MAX_VALUE / bytesPerLine * bytesPerLine);
+			Output o = new Output(out, end);
+			for (long pos = start; pos < end; pos += window) {
+				int n = (int) Math.min(window, end - pos);
+				o.lines(ch.map(FileChannel.MapMode.READ_ONLY, pos, n), pos);
+			}
+			o.finish();
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * 转储ByteBuffer的position到limit之间的内容, 不改变其position. 结束时刷新但不关闭out.
+	 *
+	 * @param buf
+	 *            内容
+	 * @param baseOffset
+	 *            position处显示的偏移
+	 * @param out
+	 *            输出
+	 * @throws IOException
+	 *             写入失败
+	 */
+	public void dump(ByteBuffer buf, long baseOffset, Writer out) throws IOException {
+		ByteBuffer b = buf.duplicate();
+		Output o = new Output(out, baseOffset + b.remaining());
+		o.lines(b.slice(), baseOffset);
+		o.finish();
+	}
+
+	/**
+	 * 输出缓冲: 攒够一块再写入Writer
+	 */
+	private final class Output {
+		private final Writer out;
+		private final int offsetDigits;
+		private final long end;
+		private final char[] buf;
+		private int len;
+
+		Output(Writer out, long end) {
+			this.out = out;
+			this.end = end;
+			int digits = 8;
+			while (digits < 16 && (end >>> (digits << 2)) != 0) {
+				digits++;
+			}
+			this.offsetDigits = digits;
+			// 偏移 + 16进制 + 文本栏(每字节至多2个char)
+			this.buf = new char[FLUSH_SIZE + offsetDigits + bytesPerLine * 6 + 8];
+		}
+
+		/**
+		 * 输出b(position为0)的各行, 首字节的偏移为base
+		 */
+		void lines(ByteBuffer b, long base) throws IOException {
+			int limit = b.limit();
+			for (int i = 0; i < limit; i += bytesPerLine) {
+				line(b, i, Math.min(bytesPerLine, limit - i), base + i);
+				if (len >= FLUSH_SIZE) {
+					out.write(buf, 0, len);
+					len = 0;
+				}
+			}
+		}
+
+		private void line(ByteBuffer b, int from, int n, long offset) {
+			offset(offset);
+			buf[len++] = ' ';
+			for (int k = 0; k < bytesPerLine; k++) {
+				if (k > 0 && k % 8 == 0) {
+					buf[len++] = ' ';
+				}
+				buf[len++] = ' ';
+				if (k < n) {
+					int v = b.get(from + k);
+					buf[len++] = HEX_DIGITS[(v >> 4) & 0x0f];
+					buf[len++] = HEX_DIGITS[v & 0x0f];
+				} else {
+					buf[len++] = ' ';
+					buf[len++] = ' ';
+				}
+			}
+			buf[len++] = ' ';
+			buf[len++] = ' ';
+			buf[len++] = '|';
+			for (int k = 0; k < n;) {
+				k += gutter(b, from + k, n - k);
+			}
+			buf[len++] = '|';
+			buf[len++] = '\n';
+		}
+
+		private void offset(long offset) {
+			for (int i = offsetDigits - 1; i >= 0; i--) {
+				buf[len + i] = HEX_DIGITS[(int) offset & 0x0f];
+				offset >>>= 4;
+			}
+			len += offsetDigits;
+		}
+
+		/**
+		 * 输出文本栏中从i开始的一个字符, 行内剩余rest字节
+		 *
+		 * @return 用去的字节数
+		 */
+		private int gutter(ByteBuffer b, int i, int rest) {
+			int v = b.get(i) & 0xFF;
+			if (v >= 0x20 && v < 0x7F) {
+				buf[len++] = (char) v;
+				return 1;
+			}
+			if (v >= 0x80 && gutter != ASCII) {
+				int used = gutter == UTF8 ? utf8(b, i, rest) : gb18030(b, i, rest);
+				if (used > 0) {
+					return used;
+				}
+			}
+			buf[len++] = '.';
+			return 1;
+		}
+
+		/**
+		 * 解码一个UTF-8字符并按显示宽度补空格
+		 *
+		 * @return 用去的字节数, 0表示无法解码
+		 */
+		private int utf8(ByteBuffer b, int i, int rest) {
+			int v = b.get(i) & 0xFF;
+			int n;
+			int cp;
+			int min;
+			if (v >= 0xC2 && v <= 0xDF) {
+				n = 2;
+				cp = v & 0x1F;
+				min = 0x80;
+			} else if (v >= 0xE0 && v <= 0xEF) {
+				n = 3;
+				cp = v & 0x0F;
+				min = 0x800;
+			} else if (v >= 0xF0 && v <= 0xF4) {
+				n = 4;
+				cp = v & 0x07;
+				min = 0x10000;
+			} else {
+				return 0;
+			}
+			if (n > rest) {
+				return 0;
+			}
+			for (int k = 1; k < n; k++) {
+				int c = b.get(i + k) & 0xFF;
+				if ((c & 0xC0) != 0x80) {
+					return 0;
+				}
+				cp = cp << 6 | (c & 0x3F);
+			}
+			if (cp < min || cp > Character.MAX_CODE_POINT
+					|| (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+				return 0;
+			}
+			return put(cp, n);
+		}
+
+		/**
+		 * 解码一个GB18030字符(2或4字节)并按显示宽度补空格
+		 *
+		 * @return 用去的字节数, 0表示无法解码
+		 */
+		private int gb18030(ByteBuffer b, int i, int rest) {
+			int v = b.get(i) & 0xFF;
+			if (v < 0x81 || v > 0xFE || rest < 2) {
+				return 0;
+			}
+			int c = b.get(i + 1) & 0xFF;
+			int n;
+			if (c >= 0x30 && c <= 0x39) {
+				if (rest < 4) {
+					return 0;
+				}
+				int c2 = b.get(i + 2) & 0xFF;
+				int c3 = b.get(i + 3) & 0xFF;
+				if (c2 < 0x81 || c2 > 0xFE || c3 < 0x30 || c3 > 0x39) {
+					return 0;
+				}
+				n = 4;
+			} else if (c >= 0x40 && c <= 0xFE && c != 0x7F) {
+				n = 2;
+			} else {
+				return 0;
+			}
+			if (gb == null) {
+				gb = Charset.forName("GB18030").newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+						.onUnmappableCharacter(CodingErrorAction.REPORT);
+			}
+			gbIn.clear();
+			for (int k = 0; k < n; k++) {
+				gbIn.put(b.get(i + k));
+			}
+			gbIn.flip();
+			gbOut.clear();
+			gb.reset();
+			CoderResult r = gb.decode(gbIn, gbOut, true);
+			if (r.isError() || gbIn.hasRemaining() || gbOut.position() == 0) {
+				return 0;
+			}
+			gbOut.flip();
+			int cp = Character.codePointAt(gbOut, 0);
+			return put(cp, n);
+		}
+
+		/**
+		 * 输出字符并补空格到n列
+		 *
+		 * @return n, 字符不可显示或宽度超过n时为0
+		 */
+		private int put(int cp, int n) {
+			int w = EastAsianWidth.width(cp);
+			if (w == 0 || w > n || Character.isISOControl(cp)) {
+				return 0;
+			}
+			len += Character.toChars(cp, buf, len);
+			for (int k = w; k < n; k++) {
+				buf[len++] = ' ';
+			}
+			return n;
+		}
+
+		/**
+		 * 输出结束偏移并刷新
+		 */
+		void finish() throws IOException {
+			offset(end);
+			buf[len++] = '\n';
+			out.write(buf, 0, len);
+			len = 0;
+			out.flush();
+		}
+	}
+}
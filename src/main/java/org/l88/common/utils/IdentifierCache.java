@@ -0,0 +1,110 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 标识符命名形式转换的缓存.
+ * <p>
+ * 适用于反复转换同一批标识符的场合(如ORM映射时的列名、属性名), 命中后不再分配内存. 可多线程共享.
+ * 只缓存不超过maxLength的输入; 每种形式的条目数达到maxEntries时清空后重新缓存.
+ *
+ * <pre>
+ * static final IdentifierCache COLUMNS = new IdentifierCache(1024, 64);
+ * ...
+ * String column = COLUMNS.toSnakeCase(property);
+ * </pre>
+ *
+ * @see Strings#toCamelCase(String)
+ * @author alexpaul@126.com
+ *
+ */
+public final class IdentifierCache {
+
+	private final int maxEntries;
+	private final int maxLength;
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private final ConcurrentMap<String, String>[] maps = new ConcurrentMap[4];
+
+	/**
+	 * @param maxEntries
+	 *            每种形式最多缓存的条目数
+	 * @param maxLength
+	 *            缓存的输入的最大长度
+	 */
+	public IdentifierCache(int maxEntries, int maxLength) {
+		this.maxEntries = maxEntries;
+		this.maxLength = maxLength;
+		for (int i = 0; i < maps.length; i++) {
+			maps[i] = new ConcurrentHashMap<String, String>();
+		}
+	}
+
+	/**
+	 * @see Strings#toCamelCase(String)
+	 */
+	public String toCamelCase(String name) {
+		return convert(name, Strings.CAMEL);
+	}
+
+	/**
+	 * @see Strings#toSnakeCase(String)
+	 */
+	public String toSnakeCase(String name) {
+		return convert(name, Strings.SNAKE);
+	}
+
+	/**
+	 * @see Strings#toKebabCase(String)
+	 */
+	public String toKebabCase(String name) {
+		return convert(name, Strings.KEBAB);
+	}
+
+	/**
+	 * @see Strings#toUpperSnakeCase(String)
+	 */
+	public String toUpperSnakeCase(String name) {
+		return convert(name, Strings.UPPER_SNAKE);
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		for (ConcurrentMap<String, String> m : maps) {
+			m.clear();
+		}
+	}
+
+	private String convert(String name, int style) {
+		if (name == null || name.length() > maxLength) {
+			return Strings.toCase(name, style);
+		}
+		ConcurrentMap<String, String> map = maps[style];
+		String ret = map.get(name);
+		if (ret == null) {
+			ret = Strings.toCase(name, style);
+			if (map.size() >= maxEntries) {
+				map.clear();
+			}
+			map.put(name, ret);
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,339 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.IOException;
+import java.util.TimeZone;
+
+/**
+ * ISO 8601 / RFC 3339 时间戳的格式化和解析, 如<tt>2016-08-15T09:30:00.123+08:00</tt>.
+ * <p>
+ * 格式化时, 到秒为止的部分(日期、时间和时区偏移)缓存一秒: 同一秒内的时间戳只写毫秒. 时区偏移为0时写'Z',
+ * 偏移不是整分钟时(1900年前后的地方时)写到秒. 日期为前推格里高利历, 年份限0000~9999.
+ * <p>
+ * 解析接受<tt>yyyy-MM-dd</tt>、<tt>yyyy-MM-ddTHH:mm</tt>、<tt>yyyy-MM-ddTHH:mm:ss</tt>, 其后可有1~9位小数秒(超过3位截断)
+ * 和时区偏移(Z、±HH:mm、±HHmm、±HH、±HH:mm:ss); 'T'可为't'或空格. 没有时区偏移时按本实例的时区解释. 格式错误时抛出IllegalArgumentException.
+ * <p>
+ * 实例可多线程共享.
+ *
+ * <pre>
+ * char[] buf = new char[Iso8601.MAX_LENGTH];
+ * int n = Iso8601.utc().format(event.getTime(), buf, 0);
+ * long t = Iso8601.utc().parse(line, 0, 29);
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class Iso8601 {
+
+	/**
+	 * 格式化结果的最大长度
+	 */
+	public static final int MAX_LENGTH = 32;
+
+	private static final Iso8601 UTC = new Iso8601(TimeZone.getTimeZone("UTC"));
+	private static final Iso8601 LOCAL = new Iso8601(TimeZone.getDefault());
+	private static final int PREFIX_LENGTH = 19;
+
+	/**
+	 * 一秒的格式化结果: 日期时间和时区偏移
+	 */
+	private static final class Second {
+		final long second;
+		final char[] prefix;
+		final char[] offset;
+
+		Second(long second, char[] prefix, char[] offset) {
+			this.second = second;
+			this.prefix = prefix;
+			this.offset = offset;
+		}
+	}
+
+	private final TimeZone zone;
+	private volatile Second cache = new Second(Long.MIN_VALUE, null, null);
+
+	/**
+	 * @return UTC时区的实例, 格式化结果以'Z'结尾
+	 */
+	public static Iso8601 utc() {
+		return UTC;
+	}
+
+	/**
+	 * @return 默认时区(类初始化时)的实例
+	 */
+	public static Iso8601 local() {
+		return LOCAL;
+	}
+
+	/**
+	 * @param zone
+	 *            格式化所用的时区, 也是解析没有时区偏移的时间戳时所用的时区
+	 */
+	public Iso8601(TimeZone zone) {
+		this.zone = (TimeZone) zone.clone();
+	}
+
+	/**
+	 * @return 格式化的结果
+	 */
+	public String format(long millis) {
+		char[] buf = new char[MAX_LENGTH];
+		return new String(buf, 0, format(millis, buf, 0));
+	}
+
+	/**
+	 * 格式化并追加到out
+	 *
+	 * @throws IOException
+	 *             写入out失败
+	 */
+	public void format(long millis, Appendable out) throws IOException {
+		char[] buf = new char[MAX_LENGTH];
+		int n = format(millis, buf, 0);
+		if (out instanceof StringBuilder) {
+			((StringBuilder) out).append(buf, 0, n);
+		} else {
+			for (int i = 0; i < n; i++) {
+				out.append(buf[i]);
+			}
+		}
+	}
+
+	/**
+	 * 格式化并写入buf
+	 *
+	 * @param millis
+	 *            UTC毫秒数
+	 * @param buf
+	 *            目标, 从off起至少有{@link #MAX_LENGTH}个位置
+	 * @param off
+	 *            起始位置
+	 * @return 写入的字符数
+	 * @throws IllegalArgumentException
+	 *             年份超出0000~9999
+	 */
+	public int format(long millis, char[] buf, int off) {
+		long second = Chrono.floorDiv(millis, 1000);
+		Second s = cache;
+		if (s.second != second) {
+			s = second(second);
+			cache = s;
+		}
+		System.arraycopy(s.prefix, 0, buf, off, PREFIX_LENGTH);
+		int p = off + PREFIX_LENGTH;
+		int ms = (int) (millis - second * 1000);
+		buf[p] = '.';
+		buf[p + 1] = (char) ('0' + ms / 100);
+		buf[p + 2] = (char) ('0' + ms / 10 % 10);
+		buf[p + 3] = (char) ('0' + ms % 10);
+		p += 4;
+		System.arraycopy(s.offset, 0, buf, p, s.offset.length);
+		return p + s.offset.length - off;
+	}
+
+	private Second second(long second) {
+		int offset = zone.getOffset(second * 1000);
+		long ymdhms = Chrono.toYmdHms(second + Chrono.floorDiv(offset, 1000));
+		long year = ymdhms / 10000000000L;
+		if (ymdhms < 0 || year > 9999) {
+			throw new IllegalArgumentException("year out of range: " + second * 1000);
+		}
+		char[] prefix = new char[PREFIX_LENGTH];
+		put(prefix, 0, year, 4);
+		prefix[4] = '-';
+		put(prefix, 5, ymdhms / 100000000 % 100, 2);
+		prefix[7] = '-';
+		put(prefix, 8, ymdhms / 1000000 % 100, 2);
+		prefix[10] = 'T';
+		put(prefix, 11, ymdhms / 10000 % 100, 2);
+		prefix[13] = ':';
+		put(prefix, 14, ymdhms / 100 % 100, 2);
+		prefix[16] = ':';
+		put(prefix, 17, ymdhms % 100, 2);
+		return new Second(second, prefix, offset(offset / 1000));
+	}
+
+	/**
+	 * @return Z、±HH:mm或±HH:mm:ss
+	 */
+	private static char[] offset(int seconds) {
+		if (seconds == 0) {
+			return new char[] { 'Z' };
+		}
+		char[] ret = new char[seconds % 60 == 0 ? 6 : 9];
+		ret[0] = seconds < 0 ? '-' : '+';
+		int abs = Math.abs(seconds);
+		put(ret, 1, abs / 3600, 2);
+		ret[3] = ':';
+		put(ret, 4, abs / 60 % 60, 2);
+		if (ret.length > 6) {
+			ret[6] = ':';
+			put(ret, 7, abs % 60, 2);
+		}
+		return ret;
+	}
+
+	private static void put(char[] buf, int off, long v, int n) {
+		for (int i = off + n - 1; i >= off; i--) {
+			buf[i] = (char) ('0' + v % 10);
+			v /= 10;
+		}
+	}
+
+	/**
+	 * @return UTC毫秒数
+	 * @throws IllegalArgumentException
+	 *             格式错误
+	 */
+	public long parse(CharSequence s) {
+		return parse(s, 0, s.length());
+	}
+
+	/**
+	 * 解析s中[start, end)的部分
+	 *
+	 * @return UTC毫秒数
+	 * @throws IllegalArgumentException
+	 *             格式错误
+	 */
+	public long parse(CharSequence s, int start, int end) {
+		int p = start;
+		int year = digits(s, p, 4, end);
+		p = expect(s, p + 4, '-', end);
+		int month = digits(s, p, 2, end);
+		p = expect(s, p + 2, '-', end);
+		int day = digits(s, p, 2, end);
+		p += 2;
+		if (month < 1 || month > 12 || day < 1 || day > Chrono.daysOfMonth(year, month)) {
+			throw error(s, start, end);
+		}
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int millis = 0;
+		if (p < end) {
+			char t = s.charAt(p);
+			if (t != 'T' && t != 't' && t != ' ') {
+				throw error(s, start, end);
+			}
+			hour = digits(s, p + 1, 2, end);
+			p = expect(s, p + 3, ':', end);
+			minute = digits(s, p, 2, end);
+			p += 2;
+			if (p < end && s.charAt(p) == ':') {
+				second = digits(s, p + 1, 2, end);
+				p += 3;
+				if (p < end && (s.charAt(p) == '.' || s.charAt(p) == ',')) {
+					int n = 0;
+					for (p++; p < end && n < 9 && isDigit(s.charAt(p)); p++, n++) {
+						if (n < 3) {
+							millis = millis * 10 + (s.charAt(p) - '0');
+						}
+					}
+					if (n == 0) {
+						throw error(s, start, end);
+					}
+					for (; n < 3; n++) {
+						millis *= 10;
+					}
+				}
+			}
+			if (hour > 23 || minute > 59 || second > 59) {
+				throw error(s, start, end);
+			}
+		}
+		long local = Chrono.toEpochDay(year, month, day) * Chrono.MILLIS_PER_DAY
+				+ ((hour * 60 + minute) * 60 + second) * 1000L + millis;
+		if (p == end) {
+			return Chrono.toUtcMillis(local, zone);
+		}
+		char sign = s.charAt(p);
+		int offset;
+		if ((sign == 'Z' || sign == 'z') && p + 1 == end) {
+			offset = 0;
+		} else if (sign == '+' || sign == '-') {
+			int oh = digits(s, p + 1, 2, end);
+			int om = 0;
+			int os = 0;
+			p += 3;
+			if (p < end) {
+				boolean colon = s.charAt(p) == ':';
+				if (colon) {
+					p++;
+				}
+				om = digits(s, p, 2, end);
+				p += 2;
+				if (colon && p < end) {
+					os = digits(s, expect(s, p, ':', end), 2, end);
+					p += 3;
+				}
+			}
+			if (p != end || oh > 18 || om > 59 || os > 59) {
+				throw error(s, start, end);
+			}
+			offset = ((oh * 60 + om) * 60 + os) * 1000;
+			if (sign == '-') {
+				offset = -offset;
+			}
+		} else {
+			throw error(s, start, end);
+		}
+		return local - offset;
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/**
+	 * @return 从p开始的n位数字的值
+	 */
+	private static int digits(CharSequence s, int p, int n, int end) {
+		if (p + n > end) {
+			throw error(s, p, end);
+		}
+		int v = 0;
+		for (int i = p; i < p + n; i++) {
+			char ch = s.charAt(i);
+			if (!isDigit(ch)) {
+				throw error(s, p, end);
+			}
+			v = v * 10 + (ch - '0');
+		}
+		return v;
+	}
+
+	/**
+	 * @return p之后的位置
+	 */
+	private static int expect(CharSequence s, int p, char ch, int end) {
+		if (p >= end || s.charAt(p) != ch) {
+			throw error(s, p, end);
+		}
+		return p + 1;
+	}
+
+	/**
+	 * @return 指出从p开始的内容有误的异常
+	 */
+	private static IllegalArgumentException error(CharSequence s, int p, int end) {
+		return new IllegalArgumentException("illegal ISO 8601 timestamp near \"" + s.subSequence(Math.min(p, end), end)
+				+ "\"");
+	}
+}
@@ -0,0 +1,321 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JSON字符串的转义和反转义, 直接写入Appendable(StringBuilder、Writer等).
+ * <p>
+ * 转义按ASCII字符的替换表进行: 双引号、反斜杠和控制字符(\b \f \n \r \t, 其余为\\u00XX)总是转义;
+ * 不需转义的连续字符整段写出, 不逐字符分配. 不成对的代理字符总是转义为\\uXXXX, 使结果可按UTF-8编码.
+ * 另可选择:
+ * <ul>
+ * <li>非ASCII字符转义为\\uXXXX(补充平面字符为两个), 结果为纯ASCII;</li>
+ * <li>用于&lt;script&gt;内时转义"&lt;/"中的'/'和U+2028、U+2029.</li>
+ * </ul>
+ * 反转义接受JSON的全部转义序列, \\uXXXX原样还原为char, 因此代理对还原为补充平面字符. 实例不可变, 可多线程共享.
+ *
+ * <pre>
+ * Writer out = response.getWriter();
+ * out.write("{\"name\":");
+ * JsonEscaper.standard().quote(user.getName(), out);
+ * out.write('}');
+ * </pre>
+ *
+ * @see Strings#escapeJSON(String)
+ * @author alexpaul@126.com
+ *
+ */
+public final class JsonEscaper {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final String[] ESCAPES = new String[128];
+
+	static {
+		for (int i = 0; i < 0x20; i++) {
+			ESCAPES[i] = "\\u00" + HEX_DIGITS[i >> 4] + HEX_DIGITS[i & 0x0f];
+		}
+		ESCAPES['\b'] = "\\b";
+		ESCAPES['\f'] = "\\f";
+		ESCAPES['\n'] = "\\n";
+		ESCAPES['\r'] = "\\r";
+		ESCAPES['\t'] = "\\t";
+		ESCAPES['"'] = "\\\"";
+		ESCAPES['\\'] = "\\\\";
+	}
+
+	private static final JsonEscaper STANDARD = new JsonEscaper(false, false);
+	private static final JsonEscaper ASCII = new JsonEscaper(true, false);
+	private static final JsonEscaper SCRIPT = new JsonEscaper(true, true);
+
+	private final boolean escapeNonAscii;
+	private final boolean scriptSafe;
+
+	/**
+	 * @return 只转义必需的字符
+	 */
+	public static JsonEscaper standard() {
+		return STANDARD;
+	}
+
+	/**
+	 * @return 另转义非ASCII字符, 结果为纯ASCII
+	 */
+	public static JsonEscaper ascii() {
+		return ASCII;
+	}
+
+	/**
+	 * @return 纯ASCII, 且可直接置于&lt;script&gt;内
+	 */
+	public static JsonEscaper script() {
+		return SCRIPT;
+	}
+
+	/**
+	 * @param escapeNonAscii
+	 *            是否转义非ASCII字符
+	 * @param scriptSafe
+	 *            是否转义"&lt;/"中的'/'和U+2028、U+2029
+	 */
+	public JsonEscaper(boolean escapeNonAscii, boolean scriptSafe) {
+		this.escapeNonAscii = escapeNonAscii;
+		this.scriptSafe = scriptSafe;
+	}
+
+	/**
+	 * @return 转义后的字符串, 不需转义时为s.toString()
+	 */
+	public String escape(CharSequence s) {
+		int i = firstEscape(s, 0);
+		if (i < 0) {
+			return s.toString();
+		}
+		StringBuilder buf = new StringBuilder(s.length() + 16);
+		try {
+			escape(s, i, buf);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * 转义并写入out, 不加引号
+	 *
+	 * @throws IOException
+	 *             写入失败
+	 */
+	public void escape(CharSequence s, Appendable out) throws IOException {
+		int i = firstEscape(s, 0);
+		if (i < 0) {
+			append(s, 0, s.length(), out);
+		} else {
+			escape(s, i, out);
+		}
+	}
+
+	/**
+	 * 转义并加上双引号, 写入out
+	 *
+	 * @throws IOException
+	 *             写入失败
+	 */
+	public void quote(CharSequence s, Appendable out) throws IOException {
+		out.append('"');
+		escape(s, out);
+		out.append('"');
+	}
+
+	/**
+	 * @return 需转义的第一个字符的位置, -1表示没有
+	 */
+	private int firstEscape(CharSequence s, int from) {
+		for (int i = from, len = s.length(); i < len; i++) {
+			if (needsEscape(s, i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private boolean needsEscape(CharSequence s, int i) {
+		char ch = s.charAt(i);
+		if (ch < 128) {
+			return ESCAPES[ch] != null || (ch == '/' && scriptSafe && i > 0 && s.charAt(i - 1) == '<');
+		}
+		if (escapeNonAscii || (scriptSafe && (ch == '\u2028' || ch == '\u2029'))) {
+			return true;
+		}
+		if (ch < Character.MIN_SURROGATE || ch > Character.MAX_SURROGATE) {
+			return false;
+		}
+		// 成对的代理字符不转义
+		if (Character.isHighSurrogate(ch)) {
+			return i + 1 >= s.length() || !Character.isLowSurrogate(s.charAt(i + 1));
+		}
+		return i == 0 || !Character.isHighSurrogate(s.charAt(i - 1));
+	}
+
+	/**
+	 * 从需转义的位置i开始转义
+	 */
+	private void escape(CharSequence s, int i, Appendable out) throws IOException {
+		int len = s.length();
+		append(s, 0, i, out);
+		int j = i;
+		for (; i < len; i++) {
+			if (!needsEscape(s, i)) {
+				continue;
+			}
+			append(s, j, i, out);
+			char ch = s.charAt(i);
+			String esc = ch < 128 ? ESCAPES[ch] : null;
+			if (esc != null) {
+				out.append(esc);
+			} else if (ch == '/') {
+				out.append("\\/");
+			} else {
+				out.append('\\').append('u').append(HEX_DIGITS[ch >> 12]).append(HEX_DIGITS[(ch >> 8) & 0x0f])
+						.append(HEX_DIGITS[(ch >> 4) & 0x0f]).append(HEX_DIGITS[ch & 0x0f]);
+			}
+			j = i + 1;
+		}
+		append(s, j, len, out);
+	}
+
+	/**
+	 * @return 反转义后的字符串, 没有转义序列时为s.toString()
+	 * @throws IllegalArgumentException
+	 *             非法的转义序列
+	 */
+	public String unescape(CharSequence s) {
+		int i = indexOf(s, '\\', 0);
+		if (i < 0) {
+			return s.toString();
+		}
+		StringBuilder buf = new StringBuilder(s.length());
+		try {
+			unescape(s, buf);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * 反转义并写入out. s不含两端的引号
+	 *
+	 * @throws IOException
+	 *             写入失败
+	 * @throws IllegalArgumentException
+	 *             非法的转义序列, 此时之前的内容已写入out
+	 */
+	public void unescape(CharSequence s, Appendable out) throws IOException {
+		int len = s.length();
+		int j = 0;
+		int i;
+		while ((i = indexOf(s, '\\', j)) >= 0) {
+			append(s, j, i, out);
+			if (i + 1 >= len) {
+				throw new IllegalArgumentException("incomplete escape at " + i);
+			}
+			char ch = s.charAt(i + 1);
+			j = i + 2;
+			switch (ch) {
+			case '"':
+			case '\\':
+			case '/':
+				out.append(ch);
+				break;
+			case 'b':
+				out.append('\b');
+				break;
+			case 'f':
+				out.append('\f');
+				break;
+			case 'n':
+				out.append('\n');
+				break;
+			case 'r':
+				out.append('\r');
+				break;
+			case 't':
+				out.append('\t');
+				break;
+			case 'u':
+				if (i + 6 > len) {
+					throw new IllegalArgumentException("incomplete escape at " + i);
+				}
+				int v = 0;
+				for (int k = i + 2; k < i + 6; k++) {
+					int d = hex(s.charAt(k));
+					if (d < 0) {
+						throw new IllegalArgumentException("illegal \\u escape at " + i);
+					}
+					v = v << 4 | d;
+				}
+				out.append((char) v);
+				j = i + 6;
+				break;
+			default:
+				throw new IllegalArgumentException("illegal escape \\" + ch + " at " + i);
+			}
+		}
+		append(s, j, len, out);
+	}
+
+	private static int hex(char ch) {
+		if (ch >= '0' && ch <= '9') {
+			return ch - '0';
+		}
+		if (ch >= 'a' && ch <= 'f') {
+			return ch - 'a' + 10;
+		}
+		if (ch >= 'A' && ch <= 'F') {
+			return ch - 'A' + 10;
+		}
+		return -1;
+	}
+
+	private static int indexOf(CharSequence s, char ch, int from) {
+		if (s instanceof String) {
+			return ((String) s).indexOf(ch, from);
+		}
+		for (int i = from, len = s.length(); i < len; i++) {
+			if (s.charAt(i) == ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 整段写出s的[from, to). Writer.append(CharSequence, int, int)会生成子串, 对String改用write
+	 */
+	private static void append(CharSequence s, int from, int to, Appendable out) throws IOException {
+		if (from >= to) {
+			return;
+		}
+		if (out instanceof Writer && s instanceof String) {
+			((Writer) out).write((String) s, from, to - from);
+		} else {
+			out.append(s, from, to);
+		}
+	}
+}
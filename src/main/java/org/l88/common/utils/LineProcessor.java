@@ -0,0 +1,399 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按行处理文本文件的并行流水线.
+ * <p>
+ * 读线程按批读取行, 工作线程用{@link Strings#split(String, char, boolean)}分割字段并交给{@link Handler}处理,
+ * 调用线程按输入顺序写出结果. 各阶段之间为有界队列, 同时处理中的批数有上限, 下游慢时上游会等待.
+ * <p>
+ * 工作线程缺省为内部创建的固定线程池, 也可通过{@link #setExecutor(ExecutorService)}指定
+ * (如JDK 21的Executors.newVirtualThreadPerTaskExecutor()).
+ * <p>
+ * 每次运行的计数见{@link Stats}. 同一实例不能同时运行多次.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class LineProcessor {
+
+	/**
+	 * 处理一行
+	 */
+	public interface Handler {
+		/**
+		 * @param fields
+		 *            分割后的字段
+		 * @return 输出行(不含换行符), <tt>null</tt> 表示不输出
+		 */
+		String process(List<String> fields);
+	}
+
+	/**
+	 * 运行计数, 运行中也可读取
+	 */
+	public static final class Stats {
+		private final AtomicLong linesRead = new AtomicLong();
+		private final AtomicLong batchesRead = new AtomicLong();
+		private final AtomicLong linesProcessed = new AtomicLong();
+		private final AtomicLong linesWritten = new AtomicLong();
+		private final AtomicLong readNanos = new AtomicLong();
+		private final AtomicLong processNanos = new AtomicLong();
+		private final AtomicLong writeNanos = new AtomicLong();
+
+		public long getLinesRead() {
+			return linesRead.get();
+		}
+
+		public long getBatchesRead() {
+			return batchesRead.get();
+		}
+
+		public long getLinesProcessed() {
+			return linesProcessed.get();
+		}
+
+		public long getLinesWritten() {
+			return linesWritten.get();
+		}
+
+		/**
+		 * @return 读线程耗时(纳秒, 不含等待队列的时间)
+		 */
+		public long getReadNanos() {
+			return readNanos.get();
+		}
+
+		/**
+		 * @return 各工作线程处理耗时之和(纳秒)
+		 */
+		public long getProcessNanos() {
+			return processNanos.get();
+		}
+
+		/**
+		 * @return 写出耗时(纳秒)
+		 */
+		public long getWriteNanos() {
+			return writeNanos.get();
+		}
+
+		private static long perSecond(long n, long nanos) {
+			return nanos <= 0 ? 0 : (long) (n * 1e9 / nanos);
+		}
+
+		public String toString() {
+			return "read " + getLinesRead() + " lines (" + perSecond(getLinesRead(), getReadNanos()) + "/s), processed "
+					+ getLinesProcessed() + " (" + perSecond(getLinesProcessed(), getProcessNanos())
+					+ "/s per worker), written " + getLinesWritten() + " ("
+					+ perSecond(getLinesWritten(), getWriteNanos()) + "/s)";
+		}
+	}
+
+	private static final class Batch {
+		final long seq;
+		final List<String> lines;
+
+		Batch(long seq, List<String> lines) {
+			this.seq = seq;
+			this.lines = lines;
+		}
+	}
+
+	private static final Batch POISON = new Batch(-1, null);
+
+	private final Handler handler;
+	private char delimiter = ',';
+	private boolean trim = false;
+	private int batchSize = 1000;
+	private int workers = Runtime.getRuntime().availableProcessors();
+	private int queueCapacity = 0;
+	private String lineSeparator = "\n";
+	private ExecutorService executor;
+	private volatile Stats stats = new Stats();
+
+	/**
+	 * @param handler
+	 *            行处理
+	 */
+	public LineProcessor(Handler handler) {
+		if (handler == null) {
+			throw new IllegalArgumentException("handler must not be null");
+		}
+		this.handler = handler;
+	}
+
+	/**
+	 * @param delimiter
+	 *            字段分隔符, 缺省为','
+	 */
+	public LineProcessor setDelimiter(char delimiter) {
+		this.delimiter = delimiter;
+		return this;
+	}
+
+	/**
+	 * @param trim
+	 *            是否截去字段前后空格, 缺省为false
+	 */
+	public LineProcessor setTrim(boolean trim) {
+		this.trim = trim;
+		return this;
+	}
+
+	/**
+	 * @param batchSize
+	 *            每批行数, 缺省为1000
+	 */
+	public LineProcessor setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+		return this;
+	}
+
+	/**
+	 * @param workers
+	 *            工作线程数, 缺省为CPU数
+	 */
+	public LineProcessor setWorkers(int workers) {
+		this.workers = Math.max(1, workers);
+		return this;
+	}
+
+	/**
+	 * @param queueCapacity
+	 *            各队列容量(批数), 缺省为工作线程数的2倍
+	 */
+	public LineProcessor setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = Math.max(1, queueCapacity);
+		return this;
+	}
+
+	/**
+	 * @param lineSeparator
+	 *            输出的换行符, 缺省为"\n"
+	 */
+	public LineProcessor setLineSeparator(String lineSeparator) {
+		this.lineSeparator = lineSeparator;
+		return this;
+	}
+
+	/**
+	 * @param executor
+	 *            运行工作线程的线程池, 由调用方关闭. 为null时每次运行使用内部线程池
+	 */
+	public LineProcessor setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * @return 最近一次(或正在进行的)运行的计数
+	 */
+	public Stats getStats() {
+		return stats;
+	}
+
+	/**
+	 * 处理文件
+	 *
+	 * @param in
+	 *            输入文件
+	 * @param out
+	 *            输出文件
+	 * @param charset
+	 *            输入输出文件的字符集
+	 * @return 运行计数
+	 * @throws IOException
+	 *             读写失败, 或处理时出错(原异常为cause). 等待时被中断为{@link InterruptedIOException}
+	 */
+	public Stats run(File in, File out, Charset charset) throws IOException {
+		Reader r = new InputStreamReader(new FileInputStream(in), charset);
+		try {
+			Writer w = new OutputStreamWriter(new FileOutputStream(out), charset);
+			try {
+				return run(r, w);
+			} finally {
+				w.close();
+			}
+		} finally {
+			r.close();
+		}
+	}
+
+	/**
+	 * 处理文本流. 结束时刷新但不关闭in和out.
+	 *
+	 * @param in
+	 *            输入
+	 * @param out
+	 *            输出
+	 * @return 运行计数
+	 * @throws IOException
+	 *             读写失败, 或处理时出错(原异常为cause). 等待时被中断为{@link InterruptedIOException}
+	 */
+	public Stats run(Reader in, Writer out) throws IOException {
+		final Stats st = new Stats();
+		stats = st;
+		final int capacity = queueCapacity > 0 ? queueCapacity : workers * 2;
+		final BlockingQueue<Batch> todo = new ArrayBlockingQueue<Batch>(capacity);
+		final BlockingQueue<Batch> done = new ArrayBlockingQueue<Batch>(capacity + 1);
+		// 同时在途的批数上限, 防止某批处理慢时等待重排的结果无限增加
+		final Semaphore inFlight = new Semaphore(capacity * 2 + workers);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final AtomicLong totalBatches = new AtomicLong(-1);
+		final BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in,
+				1 << 16);
+		final Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+
+		Thread readThread = new Thread("jutils-line-reader") {
+			public void run() {
+				long seq = 0;
+				try {
+					while (failure.get() == null) {
+						inFlight.acquire();
+						long t = System.nanoTime();
+						List<String> lines = new ArrayList<String>(batchSize);
+						String line;
+						while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+							lines.add(line);
+						}
+						st.readNanos.addAndGet(System.nanoTime() - t);
+						if (lines.isEmpty()) {
+							break;
+						}
+						st.linesRead.addAndGet(lines.size());
+						st.batchesRead.incrementAndGet();
+						todo.put(new Batch(seq++, lines));
+					}
+					totalBatches.set(seq);
+					for (int i = 0; i < workers; i++) {
+						todo.put(POISON);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}
+		};
+		readThread.setDaemon(true);
+
+		ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(workers);
+		List<Future<?>> tasks = new ArrayList<Future<?>>();
+		readThread.start();
+		try {
+			for (int i = 0; i < workers; i++) {
+				tasks.add(pool.submit(new Runnable() {
+					public void run() {
+						try {
+							Batch b;
+							while ((b = todo.take()) != POISON && failure.get() == null) {
+								long t = System.nanoTime();
+								List<String> result = new ArrayList<String>(b.lines.size());
+								for (String line : b.lines) {
+									String r = handler.process(Strings.split(line, delimiter, trim));
+									if (r != null) {
+										result.add(r);
+									}
+								}
+								st.processNanos.addAndGet(System.nanoTime() - t);
+								st.linesProcessed.addAndGet(b.lines.size());
+								done.put(new Batch(b.seq, result));
+							}
+						} catch (Throwable e) {
+							failure.compareAndSet(null, e);
+						}
+					}
+				}));
+			}
+
+			Map<Long, Batch> pending = new HashMap<Long, Batch>();
+			long next = 0;
+			while (true) {
+				Throwable e = failure.get();
+				if (e != null) {
+					if (e instanceof IOException) {
+						throw (IOException) e;
+					}
+					throw new IOException("line processing failed: " + e, e);
+				}
+				long total = totalBatches.get();
+				if (total >= 0 && next >= total) {
+					break;
+				}
+				Batch b = done.poll(100, TimeUnit.MILLISECONDS);
+				if (b == null) {
+					continue;
+				}
+				pending.put(Long.valueOf(b.seq), b);
+				while ((b = pending.remove(Long.valueOf(next))) != null) {
+					long t = System.nanoTime();
+					for (String line : b.lines) {
+						writer.write(line);
+						writer.write(lineSeparator);
+					}
+					st.writeNanos.addAndGet(System.nanoTime() - t);
+					st.linesWritten.addAndGet(b.lines.size());
+					inFlight.release();
+					next++;
+				}
+			}
+			long t = System.nanoTime();
+			writer.flush();
+			st.writeNanos.addAndGet(System.nanoTime() - t);
+			return st;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException ex = new InterruptedIOException("interrupted");
+			ex.initCause(e);
+			throw ex;
+		} finally {
+			failure.compareAndSet(null, new IllegalStateException("stopped"));
+			readThread.interrupt();
+			for (Future<?> f : tasks) {
+				f.cancel(true);
+			}
+			if (pool != executor) {
+				pool.shutdownNow();
+			}
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.ObjectName;
+
+/**
+ * 热点方法运行指标(可选开启).
+ * <p>
+ * 以系统属性 <code>-Dl88.jutils.metrics=true</code> 启动时开启, 按方法记录调用次数、输入长度和采样耗时分布,
+ * 并注册为MBean <code>org.l88.common.utils:type=Metrics</code>.
+ * <p>
+ * 未开启时被记录的方法只多一次对静态常量 {@link #ENABLED} 的判断, JIT会将其消除.
+ * 计数按线程分散到多个槽位中累加, 多线程下竞争很小.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class Metrics implements MetricsMXBean {
+
+	/**
+	 * 开启指标采集的系统属性名
+	 */
+	public static final String PROPERTY = "l88.jutils.metrics";
+
+	/**
+	 * 是否开启指标采集(启动时确定,运行期不可更改)
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+	/**
+	 * MBean注册名
+	 */
+	public static final String OBJECT_NAME = "org.l88.common.utils:type=Metrics";
+
+	private static final Map<String, Probe> PROBES = new LinkedHashMap<String, Probe>();
+
+	static final Probe FORMAT = probe("Dates.format");
+	static final Probe SPLIT = probe("Strings.split");
+	static final Probe SPLIT_REGEX = probe("Strings.splitRegex");
+	static final Probe REPLACE = probe("Strings.replace");
+	static final Probe ESCAPE_XML = probe("Strings.escapeXML");
+	static final Probe ESCAPE_HTML = probe("Strings.escapeHTML");
+	static final Probe REPLACE_VAR = probe("Strings.replaceVar");
+	static final Probe TO_HEX = probe("Strings.toHex");
+	static final Probe GB_STR_LEN = probe("Strings.gbStrLen");
+	static final Probe TRIM_PUNCT = probe("Strings.trimPunct");
+
+	private static final Metrics INSTANCE = new Metrics();
+
+	static {
+		if (ENABLED) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+			} catch (Exception e) {
+				// 已被其它ClassLoader注册或无MBeanServer时, 仅不发布
+			}
+		}
+	}
+
+	private static Probe probe(String name) {
+		Probe p = new Probe(name);
+		PROBES.put(name, p);
+		return p;
+	}
+
+	private Metrics() {
+	}
+
+	/**
+	 * @return 指标管理对象(与MBean为同一实例)
+	 */
+	public static Metrics getInstance() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return ENABLED;
+	}
+
+	public String[] getMethods() {
+		return PROBES.keySet().toArray(new String[PROBES.size()]);
+	}
+
+	public Map<String, Long> getCallCounts() {
+		Map<String, Long> ret = new LinkedHashMap<String, Long>();
+		for (Probe p : PROBES.values()) {
+			ret.put(p.name, Long.valueOf(p.calls()));
+		}
+		return ret;
+	}
+
+	public Map<String, Long> getInputSizes() {
+		Map<String, Long> ret = new LinkedHashMap<String, Long>();
+		for (Probe p : PROBES.values()) {
+			ret.put(p.name, Long.valueOf(p.inputSize()));
+		}
+		return ret;
+	}
+
+	public long[] getLatencyHistogram(String method) {
+		Probe p = PROBES.get(method);
+		return p == null ? null : p.histogram();
+	}
+
+	public void reset() {
+		for (Probe p : PROBES.values()) {
+			p.reset();
+		}
+	}
+
+	/**
+	 * 单个方法的计数器.
+	 * <p>
+	 * 用法:
+	 *
+	 * <pre>
+	 * long t = probe.begin();
+	 * ...
+	 * probe.end(t, size);
+	 * </pre>
+	 *
+	 * 每 {@link #SAMPLE_RATE} 次调用采样一次耗时.
+	 */
+	static final class Probe {
+		static final int STRIPES = stripes();
+		static final int BUCKETS = 32;
+		static final int SAMPLE_RATE = 64;
+
+		// 每个槽位占一个缓存行(8个long), 避免伪共享
+		private static final int PAD = 8;
+		private static final int SHIFT = 32 - Integer.numberOfTrailingZeros(STRIPES);
+
+		final String name;
+		private final AtomicLongArray calls = new AtomicLongArray(STRIPES * PAD);
+		private final AtomicLongArray sizes = new AtomicLongArray(STRIPES * PAD);
+		private final AtomicLongArray latency = new AtomicLongArray(STRIPES * BUCKETS);
+
+		Probe(String name) {
+			this.name = name;
+		}
+
+		private static int stripes() {
+			int n = Runtime.getRuntime().availableProcessors();
+			int s = 2;
+			while (s < n && s < 64) {
+				s <<= 1;
+			}
+			return s;
+		}
+
+		private static int stripe() {
+			long id = Thread.currentThread().getId();
+			return ((int) id * 0x9E3779B9) >>> SHIFT;
+		}
+
+		static int bucket(long nanos) {
+			if (nanos <= 0) {
+				return 0;
+			}
+			int b = 63 - Long.numberOfLeadingZeros(nanos);
+			return b < BUCKETS ? b : BUCKETS - 1;
+		}
+
+		/**
+		 * 记录一次调用
+		 *
+		 * @return 采样开始时间, 0表示本次不采样
+		 */
+		long begin() {
+			if ((calls.incrementAndGet(stripe() * PAD) & (SAMPLE_RATE - 1)) == 0) {
+				long t = System.nanoTime();
+				return t == 0 ? 1 : t;
+			}
+			return 0;
+		}
+
+		/**
+		 * 记录调用结束
+		 *
+		 * @param begin
+		 *            {@link #begin()}的返回值
+		 * @param size
+		 *            输入长度
+		 */
+		void end(long begin, int size) {
+			int s = stripe();
+			sizes.addAndGet(s * PAD, size);
+			if (begin != 0) {
+				latency.incrementAndGet(s * BUCKETS + bucket(System.nanoTime() - begin));
+			}
+		}
+
+		long calls() {
+			return sum(calls, PAD);
+		}
+
+		long inputSize() {
+			return sum(sizes, PAD);
+		}
+
+		long[] histogram() {
+			long[] ret = new long[BUCKETS];
+			for (int i = 0; i < latency.length(); i++) {
+				ret[i % BUCKETS] += latency.get(i);
+			}
+			return ret;
+		}
+
+		void reset() {
+			for (int i = 0; i < calls.length(); i++) {
+				calls.set(i, 0);
+				sizes.set(i, 0);
+			}
+			for (int i = 0; i < latency.length(); i++) {
+				latency.set(i, 0);
+			}
+		}
+
+		private static long sum(AtomicLongArray a, int step) {
+			long ret = 0;
+			for (int i = 0; i < a.length(); i += step) {
+				ret += a.get(i);
+			}
+			return ret;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.Map;
+
+/**
+ * 工具方法运行指标的JMX管理接口
+ *
+ * @see Metrics
+ * @author alexpaul@126.com
+ *
+ */
+public interface MetricsMXBean {
+
+	/**
+	 * @return 是否已开启指标采集
+	 */
+	boolean isEnabled();
+
+	/**
+	 * @return 所有被记录的方法名
+	 */
+	String[] getMethods();
+
+	/**
+	 * @return 方法名 - 调用次数
+	 */
+	Map<String, Long> getCallCounts();
+
+	/**
+	 * @return 方法名 - 累计输入长度(字符数或字节数)
+	 */
+	Map<String, Long> getInputSizes();
+
+	/**
+	 * 取得方法的采样耗时分布.
+	 * <p>
+	 * 第i个元素为耗时落在[2^i, 2^(i+1))纳秒区间内的采样次数, 最后一个元素包含所有更大的耗时.
+	 *
+	 * @param method
+	 *            方法名
+	 * @return 耗时分布, <tt>null</tt> 如果方法名不存在
+	 */
+	long[] getLatencyHistogram(String method);
+
+	/**
+	 * 清零所有计数
+	 */
+	void reset();
+}
@@ -0,0 +1,202 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MurmurHash3 x64 128位非加密散列, 结果与参考实现(MurmurHash3_x64_128)相同.
+ * <p>
+ * 结果为两个long(h1、h2); 字节形式及16进制表示依次为h1、h2的小端字节, 与Guava的<code>murmur3_128()</code>一致.
+ *
+ * <pre>
+ * String key = Murmur3.hashUtf8(url).toHex();
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class Murmur3 extends StreamingHash {
+
+	private static final long C1 = 0x87C37B91114253D5L;
+	private static final long C2 = 0x4CF5AD432745937FL;
+
+	private final long seed;
+	private long h1;
+	private long h2;
+
+	public Murmur3() {
+		this(0);
+	}
+
+	/**
+	 * @param seed
+	 *            种子(参考实现为32位无符号数)
+	 */
+	public Murmur3(long seed) {
+		super(16);
+		this.seed = seed;
+		reset();
+	}
+
+	// {{ 一次计算
+	/**
+	 * @return 字节数组的散列(种子为0)
+	 */
+	public static Murmur3 hash(byte[] b) {
+		return hash(b, 0, b.length);
+	}
+
+	/**
+	 * @return 字节数组一段的散列(种子为0)
+	 */
+	public static Murmur3 hash(byte[] b, int off, int len) {
+		Murmur3 h = new Murmur3();
+		h.update(b, off, len);
+		return h;
+	}
+
+	/**
+	 * @return ByteBuffer的position到limit之间内容的散列(种子为0)
+	 */
+	public static Murmur3 hash(ByteBuffer src) {
+		Murmur3 h = new Murmur3();
+		h.update(src);
+		return h;
+	}
+
+	/**
+	 * @return 字符按UTF-16LE编码的散列(种子为0)
+	 */
+	public static Murmur3 hashChars(CharSequence s) {
+		Murmur3 h = new Murmur3();
+		h.updateChars(s);
+		return h;
+	}
+
+	/**
+	 * @return 字符按UTF-8编码的散列(种子为0)
+	 */
+	public static Murmur3 hashUtf8(CharSequence s) {
+		Murmur3 h = new Murmur3();
+		h.updateUtf8(s);
+		return h;
+	}
+	// }}
+
+	@Override
+	public Murmur3 reset() {
+		h1 = seed;
+		h2 = seed;
+		bufLen = 0;
+		total = 0;
+		return this;
+	}
+
+	@Override
+	void block(byte[] b, int off) {
+		h1 ^= mixK1(getLong(b, off));
+		h1 = Long.rotateLeft(h1, 27);
+		h1 += h2;
+		h1 = h1 * 5 + 0x52DCE729;
+		h2 ^= mixK2(getLong(b, off + 8));
+		h2 = Long.rotateLeft(h2, 31);
+		h2 += h1;
+		h2 = h2 * 5 + 0x38495AB5;
+	}
+
+	/**
+	 * @return 目前已输入内容散列值的前64位
+	 */
+	public long getH1() {
+		return finish()[0];
+	}
+
+	/**
+	 * @return 目前已输入内容散列值的后64位
+	 */
+	public long getH2() {
+		return finish()[1];
+	}
+
+	/**
+	 * @return 目前已输入内容的散列值, 16字节
+	 */
+	public byte[] getBytes() {
+		long[] h = finish();
+		byte[] ret = new byte[16];
+		for (int i = 0; i < 8; i++) {
+			ret[i] = (byte) (h[0] >>> (i << 3));
+			ret[i + 8] = (byte) (h[1] >>> (i << 3));
+		}
+		return ret;
+	}
+
+	@Override
+	public String toHex() {
+		long[] h = finish();
+		return Strings.toHex(Long.reverseBytes(h[0]), Long.reverseBytes(h[1]));
+	}
+
+	private long[] finish() {
+		long k1 = 0;
+		long k2 = 0;
+		for (int i = bufLen - 1; i >= 8; i--) {
+			k2 = k2 << 8 | (buf[i] & 0xFF);
+		}
+		for (int i = Math.min(bufLen, 8) - 1; i >= 0; i--) {
+			k1 = k1 << 8 | (buf[i] & 0xFF);
+		}
+		long a = h1;
+		long b = h2;
+		if (bufLen > 8) {
+			b ^= mixK2(k2);
+		}
+		if (bufLen > 0) {
+			a ^= mixK1(k1);
+		}
+		a ^= total;
+		b ^= total;
+		a += b;
+		b += a;
+		a = fmix(a);
+		b = fmix(b);
+		a += b;
+		b += a;
+		return new long[] { a, b };
+	}
+
+	private static long mixK1(long k1) {
+		k1 *= C1;
+		k1 = Long.rotateLeft(k1, 31);
+		return k1 * C2;
+	}
+
+	private static long mixK2(long k2) {
+		k2 *= C2;
+		k2 = Long.rotateLeft(k2, 33);
+		return k2 * C1;
+	}
+
+	private static long fmix(long k) {
+		k ^= k >>> 33;
+		k *= 0xFF51AFD7ED558CCDL;
+		k ^= k >>> 33;
+		k *= 0xC4CEB9FE1A85EC53L;
+		k ^= k >>> 33;
+		return k;
+	}
+}
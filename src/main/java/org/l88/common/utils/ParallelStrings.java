@@ -0,0 +1,377 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 大文本的并行替换和转义.
+ * <p>
+ * 将输入按区段分给线程池处理, 最后一次性写入结果数组. 结果与{@link Strings#replace(String, String, String)}、
+ * {@link Strings#escapeXML(String)}、{@link Strings#escapeHTML(String)}完全相同.
+ * 长度小于 {@link #THRESHOLD} 时直接使用顺序实现.
+ * <p>
+ * 未指定线程池时使用内部的守护线程池(线程数为CPU数). 调用线程也参与处理尚未开始的区段,
+ * 因此可以在指定线程池自身的工作线程中调用.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class ParallelStrings {
+
+	/**
+	 * 使用并行处理的最小长度(字符数)
+	 */
+	public static final int THRESHOLD = 1 << 20;
+
+	private static final int MIN_CHUNK = 1 << 16;
+
+	private ParallelStrings() {
+	}
+
+	private static final class DefaultPool {
+		static final ExecutorService POOL = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				new ThreadFactory() {
+					private final AtomicInteger seq = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "jutils-parallel-" + seq.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+	}
+
+	private static int chunkSize(int len) {
+		int n = Runtime.getRuntime().availableProcessors() * 4;
+		return Math.max(MIN_CHUNK, (len + n - 1) / n);
+	}
+
+	// {{ replace
+	/**
+	 * 并行替换所有匹配的字符串(不使用正则表达式).
+	 *
+	 * @see Strings#replace(String, String, String)
+	 * @param input
+	 *            源字符串
+	 * @param matchString
+	 *            匹配字符串
+	 * @param newString
+	 *            新字符串
+	 * @return 替换后的新字符串
+	 */
+	public static String replace(String input, String matchString, String newString) {
+		if (input.length() < THRESHOLD) {
+			return Strings.replace(input, matchString, newString);
+		}
+		return replace(input, matchString, newString, DefaultPool.POOL, chunkSize(input.length()));
+	}
+
+	/**
+	 * 使用指定线程池并行替换所有匹配的字符串.
+	 *
+	 * @see #replace(String, String, String)
+	 * @param pool
+	 *            线程池
+	 */
+	public static String replace(String input, String matchString, String newString, ExecutorService pool) {
+		if (input.length() < THRESHOLD) {
+			return Strings.replace(input, matchString, newString);
+		}
+		return replace(input, matchString, newString, pool, chunkSize(input.length()));
+	}
+
+	static String replace(final String input, final String matchString, final String newString,
+			ExecutorService pool, int chunk) {
+		final int mLen = matchString.length();
+		if (mLen == 0) {
+			return Strings.replace(input, matchString, newString);
+		}
+		final int len = input.length();
+
+		// 1. 各区段查找以本区段内位置开始的匹配
+		List<FutureTask<int[]>> found = new ArrayList<FutureTask<int[]>>();
+		for (int s = 0; s < len; s += chunk) {
+			final int start = s;
+			final int end = Math.min(len, s + chunk);
+			found.add(fork(pool, new Callable<int[]>() {
+				public int[] call() {
+					return find(input, matchString, start, end);
+				}
+			}));
+		}
+		List<int[]> chunks = join(found);
+
+		// 2. 跨区段的匹配会与下一区段的前几个匹配重叠, 从上一个匹配的结尾处重新查找
+		int total = 0;
+		int next = 0;
+		for (int k = 0; k < chunks.size(); k++) {
+			int[] m = chunks.get(k);
+			if (m[0] > 0 && m[1] < next) {
+				int start = k * chunk;
+				m = find(input, matchString, next, Math.min(len, start + chunk));
+				chunks.set(k, m);
+			}
+			if (m[0] > 0) {
+				next = m[m[0]] + mLen;
+			}
+			total += m[0];
+		}
+		if (total == 0) {
+			return input;
+		}
+		final int[] matches = new int[total];
+		int n = 0;
+		for (int[] m : chunks) {
+			System.arraycopy(m, 1, matches, n, m[0]);
+			n += m[0];
+		}
+
+		// 3. 按匹配序号分段, 各自写入结果数组的对应位置
+		final int delta = newString.length() - mLen;
+		final char[] out = new char[len + total * delta];
+		final char[] repl = newString.toCharArray();
+		int per = Math.max(1, (int) ((long) total * chunk / len));
+		List<FutureTask<int[]>> copied = new ArrayList<FutureTask<int[]>>();
+		for (int a = 0; a < total; a += per) {
+			final int from = a;
+			final int to = Math.min(total, a + per);
+			copied.add(fork(pool, new Callable<int[]>() {
+				public int[] call() {
+					for (int i = from; i < to; i++) {
+						int srcBegin = i == 0 ? 0 : matches[i - 1] + mLen;
+						int dst = srcBegin + i * delta;
+						input.getChars(srcBegin, matches[i], out, dst);
+						System.arraycopy(repl, 0, out, dst + matches[i] - srcBegin, repl.length);
+					}
+					if (to == matches.length) {
+						int srcBegin = matches[to - 1] + mLen;
+						input.getChars(srcBegin, len, out, srcBegin + to * delta);
+					}
+					return null;
+				}
+			}));
+		}
+		join(copied);
+		return new String(out);
+	}
+
+	/**
+	 * 查找在[start, end)内开始的所有不重叠匹配
+	 *
+	 * @return 第0个元素为匹配个数, 其后为各匹配位置
+	 */
+	private static int[] find(String input, String matchString, int start, int end) {
+		int[] ret = new int[8];
+		int n = 0;
+		int i = input.indexOf(matchString, start);
+		while (i >= 0 && i < end) {
+			if (++n == ret.length) {
+				int[] r = new int[ret.length << 1];
+				System.arraycopy(ret, 0, r, 0, n);
+				ret = r;
+			}
+			ret[n] = i;
+			i = input.indexOf(matchString, i + matchString.length());
+		}
+		ret[0] = n;
+		return ret;
+	}
+	// }}
+
+	// {{ escape
+	/**
+	 * 并行编码XML标记.
+	 *
+	 * @see Strings#escapeXML(String)
+	 * @param xml
+	 *            待编码字符串.
+	 * @return 编码后的字符串.
+	 */
+	public static String escapeXML(String xml) {
+		if (xml == null || xml.length() < THRESHOLD) {
+			return Strings.escapeXML(xml);
+		}
+		return escape(xml, false, DefaultPool.POOL, chunkSize(xml.length()));
+	}
+
+	/**
+	 * 使用指定线程池并行编码XML标记.
+	 *
+	 * @see #escapeXML(String)
+	 */
+	public static String escapeXML(String xml, ExecutorService pool) {
+		if (xml == null || xml.length() < THRESHOLD) {
+			return Strings.escapeXML(xml);
+		}
+		return escape(xml, false, pool, chunkSize(xml.length()));
+	}
+
+	/**
+	 * 并行编码HTML标记.
+	 *
+	 * @see Strings#escapeHTML(String)
+	 * @param input
+	 *            待编码字符串.
+	 * @return 编码后的字符串.
+	 */
+	public static String escapeHTML(String input) {
+		if (input == null || input.length() < THRESHOLD) {
+			return Strings.escapeHTML(input);
+		}
+		return escape(input, true, DefaultPool.POOL, chunkSize(input.length()));
+	}
+
+	/**
+	 * 使用指定线程池并行编码HTML标记.
+	 *
+	 * @see #escapeHTML(String)
+	 */
+	public static String escapeHTML(String input, ExecutorService pool) {
+		if (input == null || input.length() < THRESHOLD) {
+			return Strings.escapeHTML(input);
+		}
+		return escape(input, true, pool, chunkSize(input.length()));
+	}
+
+	static String escape(final String input, final boolean html, ExecutorService pool, int chunk) {
+		final int len = input.length();
+
+		// 1. 各区段计算编码后的长度
+		List<FutureTask<int[]>> counted = new ArrayList<FutureTask<int[]>>();
+		for (int s = 0; s < len; s += chunk) {
+			final int start = s;
+			final int end = Math.min(len, s + chunk);
+			counted.add(fork(pool, new Callable<int[]>() {
+				public int[] call() {
+					int n = 0;
+					for (int i = start; i < end; i++) {
+						String esc = escape(input.charAt(i), html);
+						n += esc == null ? 1 : esc.length();
+					}
+					return new int[] { n };
+				}
+			}));
+		}
+		List<int[]> lens = join(counted);
+		int total = 0;
+		final int[] offsets = new int[lens.size()];
+		for (int k = 0; k < offsets.length; k++) {
+			offsets[k] = total;
+			total += lens.get(k)[0];
+		}
+		if (total == len && !html) {
+			return input;
+		}
+
+		// 2. 各区段写入结果数组的对应位置
+		final char[] out = new char[total];
+		List<FutureTask<int[]>> written = new ArrayList<FutureTask<int[]>>();
+		for (int k = 0; k < offsets.length; k++) {
+			final int start = k * chunk;
+			final int end = Math.min(len, start + chunk);
+			final int offset = offsets[k];
+			written.add(fork(pool, new Callable<int[]>() {
+				public int[] call() {
+					int j = start;
+					int dst = offset;
+					for (int i = start; i < end; i++) {
+						String esc = escape(input.charAt(i), html);
+						if (esc != null) {
+							input.getChars(j, i, out, dst);
+							dst += i - j;
+							esc.getChars(0, esc.length(), out, dst);
+							dst += esc.length();
+							j = i + 1;
+						}
+					}
+					input.getChars(j, end, out, dst);
+					return null;
+				}
+			}));
+		}
+		join(written);
+		return new String(out);
+	}
+
+	private static String escape(char ch, boolean html) {
+		switch (ch) {
+		case '<':
+			return "&lt;";
+		case '>':
+			return "&gt;";
+		case '"':
+			return "&quot;";
+		case '\'':
+			return "&apos;";
+		case '&':
+			return "&amp;";
+		case '\r':
+			return html ? "" : null;
+		case '\n':
+			return html ? "<br>" : null;
+		default:
+			return null;
+		}
+	}
+	// }}
+
+	private static <T> FutureTask<T> fork(ExecutorService pool, Callable<T> task) {
+		FutureTask<T> f = new FutureTask<T>(task);
+		pool.execute(f);
+		return f;
+	}
+
+	/**
+	 * 等待各区段完成. 尚未被线程池开始的区段由调用线程自己执行(FutureTask只会执行一次),
+	 * 因此调用线程只等待正在运行的区段, 在同一个有界线程池的工作线程中调用也不会死锁.
+	 */
+	private static <T> List<T> join(List<FutureTask<T>> futures) {
+		List<T> ret = new ArrayList<T>(futures.size());
+		try {
+			for (FutureTask<T> f : futures) {
+				f.run();
+			}
+			for (FutureTask<T> f : futures) {
+				ret.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			for (FutureTask<T> f : futures) {
+				f.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable t = e.getCause();
+			if (t instanceof RuntimeException) {
+				throw (RuntimeException) t;
+			}
+			if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new IllegalStateException(t);
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,248 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按属性路径取值, 如 <tt>order.customer.name</tt>、<tt>order.items[0].price</tt>、<tt>order.items.0.price</tt>.
+ * <p>
+ * 每一级按对象类型取值: Map按键, 数组和List按下标, 其它对象依次查找public的getXxx()、isXxx()方法和public字段.
+ * 只取bean属性, 不调用其它方法, 以免模板(可能来自配置或用户输入)触发如File.delete()之类的副作用.
+ * 非public类(如JDK内部实现类、匿名类)的方法, 通过其public接口或父类中的声明调用, 不使用setAccessible.
+ * 查找结果按类和属性名缓存, 预热后取值只有一次Method.invoke(或Field.get), 不再重复反射查找.
+ * 缓存持有类的引用, 不适合频繁加载卸载类的环境.
+ *
+ * @see Strings#replaceVar(String, Object)
+ * @author alexpaul@126.com
+ *
+ */
+final class PropertyPath {
+
+	private static final int MAX_CACHED = 4096;
+
+	private static final Object[] NO_ARGS = {};
+
+	/**
+	 * 取值方式
+	 */
+	private static abstract class Accessor {
+		abstract Object get(Object target) throws Exception;
+	}
+
+	private static final Accessor NONE = new Accessor() {
+		Object get(Object target) {
+			return null;
+		}
+	};
+
+	private static final class MethodAccessor extends Accessor {
+		private final Method method;
+
+		MethodAccessor(Method method) {
+			this.method = method;
+		}
+
+		Object get(Object target) throws Exception {
+			return method.invoke(target, NO_ARGS);
+		}
+	}
+
+	private static final class FieldAccessor extends Accessor {
+		private final Field field;
+
+		FieldAccessor(Field field) {
+			this.field = field;
+		}
+
+		Object get(Object target) throws Exception {
+			return field.get(target);
+		}
+	}
+
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Accessor>> ACCESSORS = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Accessor>>();
+
+	private static final ConcurrentMap<String, String[]> PATHS = new ConcurrentHashMap<String, String[]>();
+
+	private PropertyPath() {
+	}
+
+	/**
+	 * 按属性路径取值
+	 *
+	 * @param root
+	 *            根对象
+	 * @param path
+	 *            属性路径
+	 * @return 属性值. <tt>null</tt> 如果路径中任一级为null、不存在或取值出错
+	 */
+	static Object get(Object root, String path) {
+		String[] names = parse(path);
+		Object v = root;
+		for (int i = 0; i < names.length && v != null; i++) {
+			v = property(v, names[i]);
+		}
+		return v;
+	}
+
+	static boolean isPath(String name) {
+		return name.indexOf('.') >= 0 || name.indexOf('[') >= 0;
+	}
+
+	private static String[] parse(String path) {
+		String[] ret = PATHS.get(path);
+		if (ret != null) {
+			return ret;
+		}
+		List<String> names = new ArrayList<String>();
+		int start = 0;
+		for (int i = 0; i <= path.length(); i++) {
+			char ch = i < path.length() ? path.charAt(i) : '.';
+			if (ch == '.' || ch == '[' || ch == ']') {
+				if (i > start) {
+					names.add(path.substring(start, i));
+				}
+				start = i + 1;
+			}
+		}
+		ret = names.toArray(new String[names.size()]);
+		if (PATHS.size() < MAX_CACHED) {
+			PATHS.putIfAbsent(path, ret);
+		}
+		return ret;
+	}
+
+	private static Object property(Object target, String name) {
+		if (target instanceof Map) {
+			return ((Map<?, ?>) target).get(name);
+		}
+		if (target instanceof List) {
+			List<?> list = (List<?>) target;
+			int idx = index(name);
+			return idx >= 0 && idx < list.size() ? list.get(idx) : null;
+		}
+		if (target.getClass().isArray()) {
+			int idx = index(name);
+			return idx >= 0 && idx < Array.getLength(target) ? Array.get(target, idx) : null;
+		}
+		try {
+			return accessor(target.getClass(), name).get(target);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private static int index(String name) {
+		int n = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char ch = name.charAt(i);
+			if (ch < '0' || ch > '9' || n > (Integer.MAX_VALUE - 9) / 10) {
+				return -1;
+			}
+			n = n * 10 + (ch - '0');
+		}
+		return name.length() == 0 ? -1 : n;
+	}
+
+	private static Accessor accessor(Class<?> type, String name) {
+		ConcurrentMap<String, Accessor> props = ACCESSORS.get(type);
+		if (props == null) {
+			props = new ConcurrentHashMap<String, Accessor>();
+			if (ACCESSORS.size() < MAX_CACHED) {
+				ConcurrentMap<String, Accessor> old = ACCESSORS.putIfAbsent(type, props);
+				if (old != null) {
+					props = old;
+				}
+			}
+		}
+		Accessor ret = props.get(name);
+		if (ret == null) {
+			ret = lookup(type, name);
+			if (props.size() < MAX_CACHED) {
+				props.putIfAbsent(name, ret);
+			}
+		}
+		return ret;
+	}
+
+	private static Accessor lookup(Class<?> type, String name) {
+		String cap = Strings.capitalize(name);
+		Method m = method(type, "get" + cap);
+		if (m == null) {
+			m = method(type, "is" + cap);
+			if (m != null && m.getReturnType() != boolean.class && m.getReturnType() != Boolean.class) {
+				m = null;
+			}
+		}
+		if (m != null) {
+			return new MethodAccessor(m);
+		}
+		try {
+			Field f = type.getField(name);
+			if (!Modifier.isStatic(f.getModifiers()) && Modifier.isPublic(f.getDeclaringClass().getModifiers())) {
+				return new FieldAccessor(f);
+			}
+		} catch (NoSuchFieldException e) {
+			// fall through
+		}
+		return NONE;
+	}
+
+	private static Method method(Class<?> type, String name) {
+		Method m = publicDeclaration(type, name);
+		if (m == null || m.getReturnType() == void.class || Modifier.isStatic(m.getModifiers())
+				|| m.getDeclaringClass() == Object.class) {
+			return null;
+		}
+		return m;
+	}
+
+	/**
+	 * 在type本身或其public接口、父类中, 查找声明类为public的无参方法
+	 *
+	 * @return <tt>null</tt> 如果没有可直接调用的声明
+	 */
+	private static Method publicDeclaration(Class<?> type, String name) {
+		if (type == null) {
+			return null;
+		}
+		if (Modifier.isPublic(type.getModifiers())) {
+			try {
+				Method m = type.getMethod(name);
+				if (Modifier.isPublic(m.getDeclaringClass().getModifiers())) {
+					return m;
+				}
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+		for (Class<?> i : type.getInterfaces()) {
+			Method m = publicDeclaration(i, name);
+			if (m != null) {
+				return m;
+			}
+		}
+		return publicDeclaration(type.getSuperclass(), name);
+	}
+}
@@ -0,0 +1,165 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+/**
+ * 预先编译的子串查找(Boyer-Moore-Horspool).
+ * <p>
+ * 同一匹配串反复用于大量输入时使用: 跳转表只在构造时建一次. 跳转表按字符的低8位索引, 同一格取最小的跳转距离,
+ * 因此对中文等字符同样正确. 匹配按从左到右、互不重叠计算. 实例不可变, 可多线程共享.
+ *
+ * <pre>
+ * static final Searcher TAB = new Searcher("\t");
+ * ...
+ * String line = TAB.replace(input, "    ");
+ * </pre>
+ *
+ * @see Strings#replace(String, String, String)
+ * @author alexpaul@126.com
+ *
+ */
+public final class Searcher {
+
+	private final String needle;
+	private final char[] pattern;
+	/**
+	 * 窗口末字符(低8位)对应的跳转距离
+	 */
+	private final int[] shift = new int[256];
+
+	/**
+	 * @param needle
+	 *            匹配串, 不能为空
+	 */
+	public Searcher(String needle) {
+		if (needle.length() == 0) {
+			throw new IllegalArgumentException("empty needle");
+		}
+		this.needle = needle;
+		this.pattern = needle.toCharArray();
+		int last = pattern.length - 1;
+		for (int i = 0; i < shift.length; i++) {
+			shift[i] = pattern.length;
+		}
+		for (int i = 0; i < last; i++) {
+			shift[pattern[i] & 0xFF] = last - i;
+		}
+	}
+
+	/**
+	 * @return 匹配串
+	 */
+	public String needle() {
+		return needle;
+	}
+
+	/**
+	 * @param s
+	 *            字符序列
+	 * @return 第一次出现的位置. <tt>-1</tt> 如果没有出现
+	 */
+	public int indexOf(CharSequence s) {
+		return indexOf(s, 0);
+	}
+
+	/**
+	 * @param s
+	 *            字符序列
+	 * @param from
+	 *            开始查找的位置
+	 * @return from之后第一次出现的位置. <tt>-1</tt> 如果没有出现
+	 */
+	public int indexOf(CharSequence s, int from) {
+		char[] p = pattern;
+		int last = p.length - 1;
+		char lastCh = p[last];
+		int n = s.length();
+		for (int i = Math.max(from, 0) + last; i < n;) {
+			char ch = s.charAt(i);
+			if (ch == lastCh) {
+				int k = last - 1;
+				int j = i - 1;
+				while (k >= 0 && s.charAt(j) == p[k]) {
+					k--;
+					j--;
+				}
+				if (k < 0) {
+					return i - last;
+				}
+			}
+			i += shift[ch & 0xFF];
+		}
+		return -1;
+	}
+
+	/**
+	 * @param s
+	 *            字符序列
+	 * @return 是否含有匹配串
+	 */
+	public boolean contains(CharSequence s) {
+		return indexOf(s, 0) >= 0;
+	}
+
+	/**
+	 * @param s
+	 *            字符序列
+	 * @return 互不重叠的出现次数
+	 */
+	public int count(CharSequence s) {
+		return count(s, 0);
+	}
+
+	private int count(CharSequence s, int from) {
+		int ret = 0;
+		int i = from;
+		while ((i = indexOf(s, i)) >= 0) {
+			ret++;
+			i += pattern.length;
+		}
+		return ret;
+	}
+
+	/**
+	 * 将所有(互不重叠的)匹配串替换为新字符串. 结果一次分配到位.
+	 *
+	 * @param input
+	 *            源字符序列
+	 * @param replacement
+	 *            新字符串
+	 * @return 替换后的字符串. 没有匹配时为input.toString()(input为String时即其本身)
+	 */
+	public String replace(CharSequence input, CharSequence replacement) {
+		int i = indexOf(input, 0);
+		if (i < 0) {
+			return input.toString();
+		}
+		int mLen = pattern.length;
+		int rLen = replacement.length();
+		int size = input.length();
+		if (rLen > mLen) {
+			size += (rLen - mLen) * (1 + count(input, i + mLen));
+		}
+		StringBuilder buf = new StringBuilder(size);
+		int j = 0;
+		do {
+			buf.append(input, j, i).append(replacement);
+			j = i + mLen;
+		} while ((i = indexOf(input, j)) >= 0);
+		buf.append(input, j, input.length());
+		return buf.toString();
+	}
+}
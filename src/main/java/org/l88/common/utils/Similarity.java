@@ -0,0 +1,557 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * 字符串相似度: 编辑距离、Jaro-Winkler、n-gram.
+ * <p>
+ * 编辑距离(Levenshtein)使用Myers的位并行算法(Hyyrö的分块形式), 每64个字符一个long, 复杂度为
+ * O(⌈m/64⌉·n); 限定距离的判断只计算对角线附近宽为2k+1的带, 超出时提前结束.
+ * <p>
+ * 实例持有各算法的临时缓冲, 多次调用间重复使用, 预热后不再分配内存. 实例不是线程安全的, 每个线程各用一个.
+ * 批量方法对一个查询串只建一次位向量表, 再与候选数组逐个比较.
+ *
+ * <pre>
+ * Similarity sim = new Similarity();
+ * int[] d = sim.distances("张三丰", names, 1);
+ * </pre>
+ *
+ * @see Strings#editDistance(CharSequence, CharSequence)
+ * @author alexpaul@126.com
+ *
+ */
+public final class Similarity {
+
+	private static final int MAX_PREFIX = 4;
+	private static final double PREFIX_SCALE = 0.1;
+	private static final double BOOST_THRESHOLD = 0.7;
+
+	// {{ 编辑距离的临时缓冲
+	/**
+	 * 查询串长度(字符数)
+	 */
+	private int plen;
+	/**
+	 * 每个long存64个位置, 共blocks块
+	 */
+	private int blocks;
+	/**
+	 * 0~255字符的位向量, 第c个字符的第b块为latin[c * blocks + b]
+	 */
+	private long[] latin = new long[256];
+	/**
+	 * 其它字符的开放寻址表: 键为字符, 值为位向量在others中的起始下标
+	 */
+	private char[] keys = new char[16];
+	private int[] slots = new int[16];
+	private boolean[] used = new boolean[16];
+	private long[] others = new long[16];
+	private int otherCount;
+	private long[] pv = new long[1];
+	private long[] mv = new long[1];
+	// }}
+
+	private int[] row1 = new int[16];
+	private int[] row2 = new int[16];
+	private boolean[] flags1 = new boolean[16];
+	private boolean[] flags2 = new boolean[16];
+	private long[] grams1 = new long[16];
+	private long[] grams2 = new long[16];
+
+	// {{ Levenshtein
+	/**
+	 * 编辑距离(插入、删除、替换各计1)
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @return 编辑距离
+	 */
+	public int distance(CharSequence a, CharSequence b) {
+		if (a.length() > b.length()) {
+			CharSequence t = a;
+			a = b;
+			b = t;
+		}
+		if (a.length() == 0) {
+			return b.length();
+		}
+		prepare(a);
+		try {
+			return myers(b, Integer.MAX_VALUE);
+		} finally {
+			release(a);
+		}
+	}
+
+	/**
+	 * 判断编辑距离是否不超过k. 只计算对角线附近的带, 某行全部超过k时提前结束.
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @param k
+	 *            最大距离
+	 * @return 编辑距离 &lt;= k
+	 */
+	public boolean withinDistance(CharSequence a, CharSequence b, int k) {
+		int m = a.length();
+		int n = b.length();
+		if (Math.abs(m - n) > k) {
+			return false;
+		}
+		if (m == 0 || n == 0) {
+			return true;
+		}
+		if (k >= Math.max(m, n)) {
+			return true;
+		}
+		int inf = k + 1;
+		int[] prev = row(1, n + 1);
+		int[] cur = row(2, n + 1);
+		for (int j = 0; j <= n; j++) {
+			prev[j] = j <= k ? j : inf;
+		}
+		for (int i = 1; i <= m; i++) {
+			int lo = Math.max(1, i - k);
+			int hi = Math.min(n, i + k);
+			cur[lo - 1] = lo == 1 ? i : inf;
+			int rowMin = cur[lo - 1];
+			char ca = a.charAt(i - 1);
+			for (int j = lo; j <= hi; j++) {
+				int v = prev[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+				int up = prev[j] + 1;
+				if (up < v) {
+					v = up;
+				}
+				int left = cur[j - 1] + 1;
+				if (left < v) {
+					v = left;
+				}
+				if (v > inf) {
+					v = inf;
+				}
+				cur[j] = v;
+				if (v < rowMin) {
+					rowMin = v;
+				}
+			}
+			if (hi < n) {
+				cur[hi + 1] = inf;
+			}
+			if (rowMin > k) {
+				return false;
+			}
+			int[] t = prev;
+			prev = cur;
+			cur = t;
+		}
+		return prev[n] <= k;
+	}
+
+	/**
+	 * 批量计算查询串与各候选串的编辑距离
+	 *
+	 * @param query
+	 *            查询串
+	 * @param candidates
+	 *            候选串
+	 * @return 与各候选串的编辑距离
+	 */
+	public int[] distances(CharSequence query, CharSequence[] candidates) {
+		return distances(query, candidates, Integer.MAX_VALUE - 1);
+	}
+
+	/**
+	 * 批量计算查询串与各候选串的编辑距离, 超过k的记为k+1(并提前结束该候选串的计算)
+	 *
+	 * @param query
+	 *            查询串
+	 * @param candidates
+	 *            候选串
+	 * @param k
+	 *            关心的最大距离
+	 * @return 与各候选串的编辑距离, 超过k的为k+1
+	 */
+	public int[] distances(CharSequence query, CharSequence[] candidates, int k) {
+		int[] ret = new int[candidates.length];
+		int qLen = query.length();
+		if (qLen == 0) {
+			for (int i = 0; i < ret.length; i++) {
+				ret[i] = Math.min(candidates[i].length(), k + 1);
+			}
+			return ret;
+		}
+		prepare(query);
+		try {
+			for (int i = 0; i < ret.length; i++) {
+				CharSequence c = candidates[i];
+				ret[i] = Math.abs(c.length() - qLen) > k ? k + 1 : Math.min(myers(c, k), k + 1);
+			}
+		} finally {
+			release(query);
+		}
+		return ret;
+	}
+
+	/**
+	 * 在候选串中查找与查询串编辑距离最小的一个
+	 *
+	 * @param query
+	 *            查询串
+	 * @param candidates
+	 *            候选串
+	 * @param k
+	 *            最大距离
+	 * @return 距离最小(相同时取靠前的)且不超过k的候选串下标. <tt>-1</tt> 如果都超过k
+	 */
+	public int nearest(CharSequence query, CharSequence[] candidates, int k) {
+		int[] d = distances(query, candidates, k);
+		int ret = -1;
+		for (int i = 0; i < d.length; i++) {
+			if (d[i] <= k && (ret < 0 || d[i] < d[ret])) {
+				ret = i;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 为查询串建立各字符的位向量表
+	 */
+	private void prepare(CharSequence p) {
+		plen = p.length();
+		blocks = (plen + 63) >>> 6;
+		if (latin.length < blocks << 8) {
+			latin = new long[blocks << 8];
+		}
+		if (pv.length < blocks) {
+			pv = new long[blocks];
+			mv = new long[blocks];
+		}
+		otherCount = 0;
+		for (int i = 0; i < plen; i++) {
+			long[] table;
+			int base;
+			char ch = p.charAt(i);
+			if (ch < 256) {
+				table = latin;
+				base = ch * blocks;
+			} else {
+				base = slot(ch, true);
+				table = others;
+			}
+			table[base + (i >>> 6)] |= 1L << i;
+		}
+	}
+
+	/**
+	 * 清除查询串用到的表项, 供下次使用
+	 */
+	private void release(CharSequence p) {
+		for (int i = 0; i < plen; i++) {
+			char ch = p.charAt(i);
+			if (ch < 256) {
+				Arrays.fill(latin, ch * blocks, (ch + 1) * blocks, 0L);
+			}
+		}
+		if (otherCount > 0) {
+			Arrays.fill(used, false);
+			Arrays.fill(others, 0, otherCount * blocks, 0L);
+			otherCount = 0;
+		}
+	}
+
+	/**
+	 * 查找(或分配)非Latin-1字符的位向量起始下标
+	 *
+	 * @return 起始下标, 查找时字符不存在返回-1
+	 */
+	private int slot(char ch, boolean create) {
+		int mask = keys.length - 1;
+		int h = (ch * 0x9E3779B1) >>> 16 & mask;
+		while (used[h]) {
+			if (keys[h] == ch) {
+				return slots[h];
+			}
+			h = (h + 1) & mask;
+		}
+		if (!create) {
+			return -1;
+		}
+		if ((otherCount + 1) * 2 > keys.length) {
+			rehash();
+			return slot(ch, true);
+		}
+		used[h] = true;
+		keys[h] = ch;
+		slots[h] = otherCount * blocks;
+		otherCount++;
+		if (others.length < otherCount * blocks) {
+			others = Arrays.copyOf(others, Math.max(others.length << 1, otherCount * blocks));
+		}
+		return slots[h];
+	}
+
+	private void rehash() {
+		char[] oldKeys = keys;
+		int[] oldSlots = slots;
+		boolean[] oldUsed = used;
+		keys = new char[oldKeys.length << 1];
+		slots = new int[keys.length];
+		used = new boolean[keys.length];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int h = (oldKeys[i] * 0x9E3779B1) >>> 16 & mask;
+				while (used[h]) {
+					h = (h + 1) & mask;
+				}
+				used[h] = true;
+				keys[h] = oldKeys[i];
+				slots[h] = oldSlots[i];
+			}
+		}
+	}
+
+	/**
+	 * Myers/Hyyrö位并行算法, 查询串的位向量表已建好.
+	 *
+	 * @param t
+	 *            比较串
+	 * @param k
+	 *            当前距离减去剩余字符数仍大于k时提前结束
+	 * @return 编辑距离(提前结束时为大于k的值)
+	 */
+	private int myers(CharSequence t, int k) {
+		int n = t.length();
+		int last = blocks - 1;
+		long high = 1L << ((plen - 1) & 63);
+		Arrays.fill(pv, 0, blocks, -1L);
+		Arrays.fill(mv, 0, blocks, 0L);
+		int score = plen;
+		for (int j = 0; j < n; j++) {
+			char ch = t.charAt(j);
+			long[] table;
+			int base;
+			if (ch < 256) {
+				table = latin;
+				base = ch * blocks;
+			} else {
+				base = slot(ch, false);
+				table = base < 0 ? null : others;
+			}
+			int hin = 1;
+			for (int b = 0; b <= last; b++) {
+				long eq = table == null ? 0L : table[base + b];
+				long p = pv[b];
+				long mm = mv[b];
+				long xv = eq | mm;
+				if (hin < 0) {
+					eq |= 1L;
+				}
+				long xh = (((eq & p) + p) ^ p) | eq;
+				long ph = mm | ~(xh | p);
+				long mh = p & xh;
+				long top = b == last ? high : 0x8000000000000000L;
+				int hout = (ph & top) != 0 ? 1 : (mh & top) != 0 ? -1 : 0;
+				ph <<= 1;
+				mh <<= 1;
+				if (hin < 0) {
+					mh |= 1L;
+				} else if (hin > 0) {
+					ph |= 1L;
+				}
+				pv[b] = mh | ~(xv | ph);
+				mv[b] = ph & xv;
+				hin = hout;
+			}
+			score += hin;
+			if (score - (n - j - 1) > k) {
+				return k + 1;
+			}
+		}
+		return score;
+	}
+	// }}
+
+	// {{ Jaro-Winkler
+	/**
+	 * Jaro-Winkler相似度(前缀权重0.1, 最长前缀4, Jaro相似度超过0.7时才加前缀权重)
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @return 0~1, 1表示相同
+	 */
+	public double jaroWinkler(CharSequence a, CharSequence b) {
+		double jaro = jaro(a, b);
+		if (jaro <= BOOST_THRESHOLD) {
+			return jaro;
+		}
+		int prefix = 0;
+		int max = Math.min(MAX_PREFIX, Math.min(a.length(), b.length()));
+		while (prefix < max && a.charAt(prefix) == b.charAt(prefix)) {
+			prefix++;
+		}
+		return jaro + prefix * PREFIX_SCALE * (1 - jaro);
+	}
+
+	/**
+	 * Jaro相似度
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @return 0~1, 1表示相同
+	 */
+	public double jaro(CharSequence a, CharSequence b) {
+		int la = a.length();
+		int lb = b.length();
+		if (la == 0 && lb == 0) {
+			return 1;
+		}
+		if (la == 0 || lb == 0) {
+			return 0;
+		}
+		if (flags1.length < la) {
+			flags1 = new boolean[Math.max(la, flags1.length << 1)];
+		}
+		if (flags2.length < lb) {
+			flags2 = new boolean[Math.max(lb, flags2.length << 1)];
+		}
+		boolean[] fa = flags1;
+		boolean[] fb = flags2;
+		int window = Math.max(0, Math.max(la, lb) / 2 - 1);
+		int matches = 0;
+		for (int i = 0; i < la; i++) {
+			char ch = a.charAt(i);
+			for (int j = Math.max(0, i - window), end = Math.min(lb - 1, i + window); j <= end; j++) {
+				if (!fb[j] && b.charAt(j) == ch) {
+					fa[i] = true;
+					fb[j] = true;
+					matches++;
+					break;
+				}
+			}
+		}
+		int half = 0;
+		if (matches > 0) {
+			for (int i = 0, j = 0; i < la; i++) {
+				if (fa[i]) {
+					while (!fb[j]) {
+						j++;
+					}
+					if (a.charAt(i) != b.charAt(j)) {
+						half++;
+					}
+					j++;
+				}
+			}
+		}
+		Arrays.fill(fa, 0, la, false);
+		Arrays.fill(fb, 0, lb, false);
+		if (matches == 0) {
+			return 0;
+		}
+		double md = matches;
+		return (md / la + md / lb + (matches - half / 2) / md) / 3;
+	}
+	// }}
+
+	// {{ n-gram
+	/**
+	 * n-gram相似度(Dice系数): 2 × 共有的n元组数 / 两串n元组数之和, n元组按多重集合计数.
+	 * <p>
+	 * 长度不足n的串整体作为一个n元组.
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @param n
+	 *            元组长度, 如2、3
+	 * @return 0~1, 1表示n元组完全相同
+	 */
+	public double ngram(CharSequence a, CharSequence b, int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("n must be positive: " + n);
+		}
+		int ca = Math.max(1, a.length() - n + 1);
+		int cb = Math.max(1, b.length() - n + 1);
+		if (a.length() == 0 && b.length() == 0) {
+			return 1;
+		}
+		if (grams1.length < ca) {
+			grams1 = new long[Math.max(ca, grams1.length << 1)];
+		}
+		if (grams2.length < cb) {
+			grams2 = new long[Math.max(cb, grams2.length << 1)];
+		}
+		grams(a, n, grams1, ca);
+		grams(b, n, grams2, cb);
+		Arrays.sort(grams1, 0, ca);
+		Arrays.sort(grams2, 0, cb);
+		int common = 0;
+		for (int i = 0, j = 0; i < ca && j < cb;) {
+			if (grams1[i] == grams2[j]) {
+				common++;
+				i++;
+				j++;
+			} else if (grams1[i] < grams2[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return 2.0 * common / (ca + cb);
+	}
+
+	/**
+	 * 各n元组的键: n &lt;= 4时为各字符拼成的long(无冲突), 否则为64位多项式散列
+	 */
+	private static void grams(CharSequence s, int n, long[] out, int count) {
+		int len = Math.min(n, s.length());
+		for (int i = 0; i < count; i++) {
+			long h = len;
+			for (int k = 0; k < len; k++) {
+				char ch = s.charAt(i + k);
+				h = n <= 4 ? (h << 16) | ch : h * 0x100000001B3L + ch;
+			}
+			out[i] = h;
+		}
+	}
+	// }}
+
+	private int[] row(int which, int size) {
+		if (which == 1) {
+			if (row1.length < size) {
+				row1 = new int[Math.max(size, row1.length << 1)];
+			}
+			return row1;
+		}
+		if (row2.length < size) {
+			row2 = new int[Math.max(size, row2.length << 1)];
+		}
+		return row2;
+	}
+}
@@ -0,0 +1,196 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 按定长块处理的非加密散列的公共部分: 分块缓冲、字节/ByteBuffer/字符输入.
+ * <p>
+ * 字符可按UTF-16LE(每个char原样取两个字节)或UTF-8输入, 直接写入块缓冲, 不生成中间字节数组. UTF-8编码与
+ * {@link String#getBytes(String)}相同, 不成对的代理字符编码为'?'. 输入的ByteBuffer只读取其position到limit之间的内容,
+ * 不改变其position.
+ * <p>
+ * 取结果不改变状态, 可继续输入. 实例不是线程安全的.
+ *
+ * @see XxHash64
+ * @see Murmur3
+ * @author alexpaul@126.com
+ *
+ */
+public abstract class StreamingHash {
+
+	/**
+	 * 未满一块的输入
+	 */
+	final byte[] buf;
+	int bufLen;
+	/**
+	 * 已输入的总字节数
+	 */
+	long total;
+
+	StreamingHash(int blockSize) {
+		buf = new byte[blockSize];
+	}
+
+	/**
+	 * 处理从off开始的一个完整块
+	 */
+	abstract void block(byte[] b, int off);
+
+	/**
+	 * 恢复到初始状态(种子不变)
+	 *
+	 * @return this
+	 */
+	public abstract StreamingHash reset();
+
+	/**
+	 * @return 散列值的16进制表示(小写)
+	 */
+	public abstract String toHex();
+
+	/**
+	 * 输入一个字节
+	 *
+	 * @return this
+	 */
+	public StreamingHash update(byte b) {
+		buf[bufLen++] = b;
+		total++;
+		if (bufLen == buf.length) {
+			block(buf, 0);
+			bufLen = 0;
+		}
+		return this;
+	}
+
+	/**
+	 * @return this
+	 */
+	public StreamingHash update(byte[] b) {
+		return update(b, 0, b.length);
+	}
+
+	/**
+	 * 输入字节数组的一段
+	 *
+	 * @return this
+	 */
+	public StreamingHash update(byte[] b, int off, int len) {
+		int end = off + len;
+		int size = buf.length;
+		total += len;
+		if (bufLen > 0) {
+			int n = Math.min(size - bufLen, len);
+			System.arraycopy(b, off, buf, bufLen, n);
+			bufLen += n;
+			off += n;
+			if (bufLen < size) {
+				return this;
+			}
+			block(buf, 0);
+			bufLen = 0;
+		}
+		for (; off <= end - size; off += size) {
+			block(b, off);
+		}
+		System.arraycopy(b, off, buf, 0, end - off);
+		bufLen = end - off;
+		return this;
+	}
+
+	/**
+	 * 输入ByteBuffer的position到limit之间的内容
+	 *
+	 * @return this
+	 */
+	public StreamingHash update(ByteBuffer src) {
+		if (src.hasArray()) {
+			return update(src.array(), src.arrayOffset() + src.position(), src.remaining());
+		}
+		for (int i = src.position(), end = src.limit(); i < end; i++) {
+			update(src.get(i));
+		}
+		return this;
+	}
+
+	/**
+	 * 按UTF-16LE输入字符
+	 *
+	 * @return this
+	 */
+	public StreamingHash updateChars(CharSequence s) {
+		for (int i = 0, len = s.length(); i < len; i++) {
+			char ch = s.charAt(i);
+			if (bufLen + 2 <= buf.length) {
+				buf[bufLen] = (byte) ch;
+				buf[bufLen + 1] = (byte) (ch >>> 8);
+				bufLen += 2;
+				total += 2;
+				if (bufLen == buf.length) {
+					block(buf, 0);
+					bufLen = 0;
+				}
+			} else {
+				update((byte) ch);
+				update((byte) (ch >>> 8));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * 按UTF-8输入字符
+	 *
+	 * @return this
+	 */
+	public StreamingHash updateUtf8(CharSequence s) {
+		for (int i = 0, len = s.length(); i < len; i++) {
+			char ch = s.charAt(i);
+			if (ch < 0x80) {
+				update((byte) ch);
+			} else if (ch < 0x800) {
+				update((byte) (0xC0 | ch >> 6));
+				update((byte) (0x80 | ch & 0x3F));
+			} else if (ch < Character.MIN_SURROGATE || ch > Character.MAX_SURROGATE) {
+				update((byte) (0xE0 | ch >> 12));
+				update((byte) (0x80 | ch >> 6 & 0x3F));
+				update((byte) (0x80 | ch & 0x3F));
+			} else if (Character.isHighSurrogate(ch) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(ch, s.charAt(++i));
+				update((byte) (0xF0 | cp >> 18));
+				update((byte) (0x80 | cp >> 12 & 0x3F));
+				update((byte) (0x80 | cp >> 6 & 0x3F));
+				update((byte) (0x80 | cp & 0x3F));
+			} else {
+				update((byte) '?');
+			}
+		}
+		return this;
+	}
+
+	static long getLong(byte[] b, int i) {
+		return (b[i] & 0xFFL) | (b[i + 1] & 0xFFL) << 8 | (b[i + 2] & 0xFFL) << 16 | (b[i + 3] & 0xFFL) << 24
+				| (b[i + 4] & 0xFFL) << 32 | (b[i + 5] & 0xFFL) << 40 | (b[i + 6] & 0xFFL) << 48
+				| (b[i + 7] & 0xFFL) << 56;
+	}
+
+	static long getInt(byte[] b, int i) {
+		return (b[i] & 0xFFL) | (b[i + 1] & 0xFFL) << 8 | (b[i + 2] & 0xFFL) << 16 | (b[i + 3] & 0xFFL) << 24;
+	}
+}
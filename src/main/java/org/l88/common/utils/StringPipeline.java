@@ -0,0 +1,498 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 字符串处理流水线.
+ * <p>
+ * 将trim、replace、escapeXML、大小写转换、填充、截断等{@link Strings}中的操作串接起来, 编译后尽量在一次遍历中完成:
+ * 开头的trim只缩小读取范围, 一个replace和其后的逐字符转换(转义、大小写)合并为一遍, 填充和截断直接在结果缓冲上进行.
+ * 只有replace之前已有其它转换、trim不在开头、或填充截断之后还有转换时才需要再遍历一次.
+ *
+ * <pre>
+ * StringPipeline p = StringPipeline.builder().trim().replace(",", "，").escapeXML().lFill(' ', 20).build();
+ * String v = p.apply(field);
+ * </pre>
+ *
+ * 编译后的流水线不可变, 可被多个线程共用. {@link #apply(CharSequence)}使用线程内复用的缓冲.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class StringPipeline {
+
+	private final Pass[] passes;
+
+	private final ThreadLocal<StringBuilder[]> buffers = new ThreadLocal<StringBuilder[]>() {
+		protected StringBuilder[] initialValue() {
+			return new StringBuilder[] { new StringBuilder(64), new StringBuilder(64) };
+		}
+	};
+
+	private StringPipeline(List<Pass> passes) {
+		this.passes = passes.toArray(new Pass[passes.size()]);
+	}
+
+	/**
+	 * @return 新的流水线构造器
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * 处理字符序列
+	 *
+	 * @param input
+	 *            输入
+	 * @return 处理结果. <tt>null</tt> 如果输入为null
+	 */
+	public String apply(CharSequence input) {
+		if (input == null) {
+			return null;
+		}
+		StringBuilder[] bufs = buffers.get();
+		StringBuilder out = bufs[0];
+		apply(input, out, bufs[1]);
+		String ret = out.toString();
+		if (out.capacity() > 8192) {
+			bufs[0] = new StringBuilder(64);
+		}
+		return ret;
+	}
+
+	/**
+	 * 处理字符序列, 结果写入out(先清空). input可以就是out, 此时先复制到线程内的缓冲再处理
+	 *
+	 * @param input
+	 *            输入
+	 * @param out
+	 *            输出缓冲, 可重复使用
+	 * @return out. <tt>null</tt> 如果输入为null, 此时out不变
+	 */
+	public StringBuilder apply(CharSequence input, StringBuilder out) {
+		if (input == null) {
+			return null;
+		}
+		StringBuilder[] bufs = buffers.get();
+		if (input == out) {
+			StringBuilder copy = bufs[0];
+			copy.setLength(0);
+			copy.append(out);
+			apply(copy, out, bufs[1]);
+			copy.setLength(0);
+			if (copy.capacity() > 8192) {
+				bufs[0] = new StringBuilder(64);
+			}
+		} else {
+			apply(input, out, bufs[1]);
+		}
+		return out;
+	}
+
+	private void apply(CharSequence input, StringBuilder out, StringBuilder scratch) {
+		out.setLength(0);
+		if (passes.length == 0) {
+			out.append(input);
+			return;
+		}
+		// 多遍时在out与scratch之间交替, 保证最后一遍写入out
+		StringBuilder dst = passes.length % 2 == 1 ? out : scratch;
+		StringBuilder other = dst == out ? scratch : out;
+		CharSequence src = input;
+		for (Pass p : passes) {
+			dst.setLength(0);
+			p.run(src, dst);
+			src = dst;
+			StringBuilder t = dst;
+			dst = other;
+			other = t;
+		}
+		scratch.setLength(0);
+		if (scratch.capacity() > 8192) {
+			buffers.get()[1] = new StringBuilder(64);
+		}
+	}
+
+	/**
+	 * 一次遍历: [trim] [replace] 逐字符转换* 缓冲操作*
+	 */
+	private static final class Pass {
+		boolean trim;
+		String match;
+		String replacement;
+		final List<CharOp> charOps = new ArrayList<CharOp>();
+		final List<BufferOp> bufferOps = new ArrayList<BufferOp>();
+		CharOp[] maps;
+
+		boolean isEmpty() {
+			return !trim && match == null && charOps.isEmpty() && bufferOps.isEmpty();
+		}
+
+		void run(CharSequence src, StringBuilder out) {
+			int start = 0;
+			int end = src.length();
+			if (trim) {
+				while (start < end && src.charAt(start) <= ' ') {
+					start++;
+				}
+				while (end > start && src.charAt(end - 1) <= ' ') {
+					end--;
+				}
+			}
+			CharOp[] maps = this.maps;
+			if (match == null) {
+				if (maps.length == 0) {
+					out.append(src, start, end);
+				} else {
+					for (int i = start; i < end; i++) {
+						emit(maps, 0, src.charAt(i), out);
+					}
+				}
+			} else {
+				String m = match;
+				int mLen = m.length();
+				char first = m.charAt(0);
+				int i = start;
+				while (i < end) {
+					char c = src.charAt(i);
+					if (c == first && i + mLen <= end && regionMatches(src, i, m)) {
+						if (maps.length == 0) {
+							out.append(replacement);
+						} else {
+							for (int k = 0; k < replacement.length(); k++) {
+								emit(maps, 0, replacement.charAt(k), out);
+							}
+						}
+						i += mLen;
+					} else {
+						if (maps.length == 0) {
+							out.append(c);
+						} else {
+							emit(maps, 0, c, out);
+						}
+						i++;
+					}
+				}
+			}
+			for (BufferOp op : bufferOps) {
+				op.apply(out);
+			}
+		}
+
+		private static boolean regionMatches(CharSequence src, int from, String m) {
+			for (int k = 1; k < m.length(); k++) {
+				if (src.charAt(from + k) != m.charAt(k)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static void emit(CharOp[] maps, int from, char c, StringBuilder out) {
+			for (int k = from; k < maps.length; k++) {
+				String s = maps[k].expand(c);
+				if (s != null) {
+					for (int i = 0; i < s.length(); i++) {
+						emit(maps, k + 1, s.charAt(i), out);
+					}
+					return;
+				}
+				c = maps[k].convert(c);
+			}
+			out.append(c);
+		}
+	}
+
+	/**
+	 * 逐字符转换
+	 */
+	private abstract static class CharOp {
+		/**
+		 * @return 替换为多个字符时的结果, <tt>null</tt> 如果结果为单个字符
+		 */
+		String expand(char c) {
+			return null;
+		}
+
+		char convert(char c) {
+			return c;
+		}
+	}
+
+	/**
+	 * 在整个结果缓冲上的操作
+	 */
+	private abstract static class BufferOp {
+		abstract void apply(StringBuilder buf);
+	}
+
+	private static final class Escape extends CharOp {
+		private final boolean html;
+
+		Escape(boolean html) {
+			this.html = html;
+		}
+
+		String expand(char c) {
+			switch (c) {
+			case '<':
+				return "&lt;";
+			case '>':
+				return "&gt;";
+			case '"':
+				return "&quot;";
+			case '\'':
+				return "&apos;";
+			case '&':
+				return "&amp;";
+			case '\r':
+				return html ? "" : null;
+			case '\n':
+				return html ? "<br>" : null;
+			default:
+				return null;
+			}
+		}
+	}
+
+	private static final class UpperCase extends CharOp {
+		char convert(char c) {
+			return Character.toUpperCase(c);
+		}
+	}
+
+	private static final class LowerCase extends CharOp {
+		char convert(char c) {
+			return Character.toLowerCase(c);
+		}
+	}
+
+	private static final class Fill extends BufferOp {
+		private final boolean left;
+		private final char ch;
+		private final int len;
+
+		Fill(boolean left, char ch, int len) {
+			this.left = left;
+			this.ch = ch;
+			this.len = len;
+		}
+
+		void apply(StringBuilder buf) {
+			int srclen = Strings.gbStrLen(buf);
+			if (srclen == len) {
+				return;
+			}
+			if (srclen > len) {
+				String s = buf.toString();
+				buf.setLength(0);
+				buf.append(left ? Strings.lFillStr(s, ch, len) : Strings.rFillStr(s, ch, len));
+				return;
+			}
+			if (left) {
+				for (int i = srclen; i < len; i++) {
+					buf.append(ch);
+				}
+			} else {
+				buf.insert(0, Strings.replicateStr(ch, len - srclen));
+			}
+		}
+	}
+
+	private static final class Truncate extends BufferOp {
+		private final int max;
+
+		Truncate(int max) {
+			this.max = max;
+		}
+
+		void apply(StringBuilder buf) {
+			if (buf.length() > max) {
+				buf.setLength(max);
+			}
+		}
+	}
+
+	private static final class Omit extends BufferOp {
+		private final int max;
+
+		Omit(int max) {
+			this.max = max;
+		}
+
+		void apply(StringBuilder buf) {
+			if (max > 0 && utf8Length(buf) <= max) {
+				return;
+			}
+			String s = Strings.omit(buf.toString(), max);
+			buf.setLength(0);
+			buf.append(s);
+		}
+
+		private static int utf8Length(CharSequence cs) {
+			int n = 0;
+			for (int i = 0, len = cs.length(); i < len; i++) {
+				char c = cs.charAt(i);
+				if (c < 0x80) {
+					n++;
+				} else if (c < 0x800) {
+					n += 2;
+				} else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(cs.charAt(i + 1))) {
+					n += 4;
+					i++;
+				} else {
+					n += 3;
+				}
+			}
+			return n;
+		}
+	}
+
+	/**
+	 * 流水线构造器, 按调用顺序执行各操作
+	 */
+	public static final class Builder {
+		private final List<Pass> passes = new ArrayList<Pass>();
+		private Pass current = new Pass();
+
+		private Builder() {
+		}
+
+		private Pass next() {
+			if (!current.isEmpty()) {
+				passes.add(current);
+			}
+			current = new Pass();
+			return current;
+		}
+
+		private Pass forCharOp() {
+			return current.bufferOps.isEmpty() ? current : next();
+		}
+
+		/**
+		 * 截去前后空白字符(同String.trim)
+		 */
+		public Builder trim() {
+			Pass p = current.isEmpty() ? current : next();
+			p.trim = true;
+			return this;
+		}
+
+		/**
+		 * 替换所有匹配的字符串, 同{@link Strings#replace(String, String, String)}
+		 *
+		 * @param matchString
+		 *            匹配字符串, 不能为空
+		 * @param newString
+		 *            新字符串
+		 */
+		public Builder replace(String matchString, String newString) {
+			if (matchString == null || matchString.length() == 0 || newString == null) {
+				throw new IllegalArgumentException("matchString and newString must not be empty");
+			}
+			Pass p = current.match == null && current.charOps.isEmpty() && current.bufferOps.isEmpty() ? current
+					: next();
+			p.match = matchString;
+			p.replacement = newString;
+			return this;
+		}
+
+		/**
+		 * 编码XML标记, 同{@link Strings#escapeXML(String)}
+		 */
+		public Builder escapeXML() {
+			forCharOp().charOps.add(new Escape(false));
+			return this;
+		}
+
+		/**
+		 * 编码HTML标记, 同{@link Strings#escapeHTML(String)}
+		 */
+		public Builder escapeHTML() {
+			forCharOp().charOps.add(new Escape(true));
+			return this;
+		}
+
+		/**
+		 * 逐字符转为大写(Character.toUpperCase)
+		 */
+		public Builder toUpperCase() {
+			forCharOp().charOps.add(new UpperCase());
+			return this;
+		}
+
+		/**
+		 * 逐字符转为小写(Character.toLowerCase)
+		 */
+		public Builder toLowerCase() {
+			forCharOp().charOps.add(new LowerCase());
+			return this;
+		}
+
+		/**
+		 * 左对齐填充定长, 同{@link Strings#lFillStr(String, char, int)}
+		 */
+		public Builder lFill(char ch, int len) {
+			current.bufferOps.add(new Fill(true, ch, len));
+			return this;
+		}
+
+		/**
+		 * 右对齐填充定长, 同{@link Strings#rFillStr(String, char, int)}
+		 */
+		public Builder rFill(char ch, int len) {
+			current.bufferOps.add(new Fill(false, ch, len));
+			return this;
+		}
+
+		/**
+		 * 截取前maxLength个字符
+		 */
+		public Builder truncate(int maxLength) {
+			current.bufferOps.add(new Truncate(Math.max(0, maxLength)));
+			return this;
+		}
+
+		/**
+		 * 按UTF-8字节长度截断并以"..."结尾, 同{@link Strings#omit(String, int)}
+		 */
+		public Builder omit(int maxlength) {
+			current.bufferOps.add(new Omit(maxlength));
+			return this;
+		}
+
+		/**
+		 * @return 编译后的流水线
+		 */
+		public StringPipeline build() {
+			List<Pass> ret = new ArrayList<Pass>(passes);
+			if (!current.isEmpty()) {
+				ret.add(current);
+			}
+			for (Pass p : ret) {
+				p.maps = p.charOps.toArray(new CharOp[p.charOps.size()]);
+			}
+			passes.clear();
+			current = new Pass();
+			return new StringPipeline(ret);
+		}
+	}
+}
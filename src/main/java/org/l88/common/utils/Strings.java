@@ -19,6 +19,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +52,17 @@ public class Strings {
 		return str == null || str.equals("");
 	}
 
+	/**
+	 * 判断是否是空字符序列 null和长度为0 都返回 true
+	 *
+	 * @param cs
+	 *            判断的字符序列
+	 * @return 是否有效
+	 */
+	public static boolean isEmpty(CharSequence cs) {
+		return cs == null || cs.length() == 0;
+	}
+
 	/**
 	 * 将对象转换为字符串. 若对象为NULL或空则返回缺省字符串. 相当于oracle的Nvl函数
 	 * 
@@ -145,6 +162,16 @@ public class Strings {
 	 *         </ul>
 	 */
 	public static List<String> split(String s, char delimiter, boolean trim) {
+		if (Metrics.ENABLED) {
+			long t = Metrics.SPLIT.begin();
+			List<String> ret = doSplit(s, delimiter, trim);
+			Metrics.SPLIT.end(t, s == null ? 0 : s.length());
+			return ret;
+		}
+		return doSplit(s, delimiter, trim);
+	}
+
+	private static List<String> doSplit(String s, char delimiter, boolean trim) {
 		List<String> ret = new ArrayList<String>();
 		if (s == null) {
 			return ret;
@@ -202,6 +229,74 @@ public class Strings {
 		return split(s, delimiter, true);
 	}
 
+	/**
+	 * 以单个字符为分隔符分割字符序列（可选是否截断空格).
+	 * <p>
+	 * 结果与{@link #split(String, char, boolean)}相同, 直接在序列上查找, 每个元素只复制一次.
+	 *
+	 * @param s
+	 *            待分割字符序列(如StringBuilder、CharBuffer)
+	 * @param delimiter
+	 *            字符分隔符
+	 * @param trim
+	 *            是否截去前后空格
+	 * @return List
+	 */
+	public static List<String> split(CharSequence s, char delimiter, boolean trim) {
+		if (s instanceof String) {
+			return split((String) s, delimiter, trim);
+		}
+		List<String> ret = new ArrayList<String>();
+		if (s == null) {
+			return ret;
+		}
+		int lastIdx = 0;
+		int idx = indexOf(s, delimiter, 0);
+
+		while (idx > 0) {
+			ret.add(subString(s, lastIdx, idx, trim));
+			lastIdx = idx + 1;
+			idx = indexOf(s, delimiter, lastIdx);
+		}
+		ret.add(subString(s, lastIdx, s.length(), trim));
+		return ret;
+	}
+
+	/**
+	 * 以单个字符为分隔符分割字符序列，并截去前后空格.
+	 *
+	 * @see #split(String, char)
+	 * @param s
+	 *            待分割字符序列
+	 * @param delimiter
+	 *            分隔符
+	 * @return List
+	 */
+	public static List<String> split(CharSequence s, char delimiter) {
+		return split(s, delimiter, true);
+	}
+
+	private static int indexOf(CharSequence s, char ch, int from) {
+		for (int i = from, len = s.length(); i < len; i++) {
+			if (s.charAt(i) == ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String subString(CharSequence s, int start, int end, boolean trim) {
+		if (trim) {
+			while (start < end && s.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && s.charAt(end - 1) <= ' ') {
+				end--;
+			}
+		}
+		return s.subSequence(start, end).toString();
+	}
+
 	/**
 	 * 按空白字符(空格)或逗号分隔字符串. 本方法的返回结果中不包括零长字符串，示例如下：
 	 * <table border="1">
@@ -240,6 +335,16 @@ public class Strings {
 	 * @return 字符串列表. <tt>null</tt> 如果源串为null
 	 */
 	public static List<String> split(String input, String sep) {
+		if (Metrics.ENABLED) {
+			long t = Metrics.SPLIT_REGEX.begin();
+			List<String> ret = doSplit(input, sep);
+			Metrics.SPLIT_REGEX.end(t, input == null ? 0 : input.length());
+			return ret;
+		}
+		return doSplit(input, sep);
+	}
+
+	private static List<String> doSplit(String input, String sep) {
 		if (input == null)
 			return null;
 		int index = 0;
@@ -267,6 +372,8 @@ public class Strings {
 
 	/**
 	 * 将源字符串中所有匹配的字符串替换为提供的新字符串(不使用正则表达式).
+	 * <p>
+	 * 匹配串为空时只在开头插入一次新字符串. 同一匹配串反复用于大量输入时, 用{@link Searcher}预先编译.
 	 * 
 	 * @param input
 	 *            源字符串
@@ -277,24 +384,72 @@ public class Strings {
 	 * @return 替换后的新字符串
 	 */
 	public static final String replace(String input, String matchString, String newString) {
-		int i = 0;
-		if ((i = input.indexOf(matchString, i)) >= 0) {
-			char[] line2 = input.toCharArray();
-			char[] newString2 = newString.toCharArray();
-			int oLength = matchString.length();
-			StringBuffer buf = new StringBuffer(line2.length);
-			buf.append(line2, 0, i).append(newString2);
+		if (Metrics.ENABLED) {
+			long t = Metrics.REPLACE.begin();
+			String ret = StringsSupport.replace(input, matchString, newString);
+			Metrics.REPLACE.end(t, input.length());
+			return ret;
+		}
+		return StringsSupport.replace(input, matchString, newString);
+	}
+
+	/**
+	 * 将源字符序列中所有匹配的字符串替换为提供的新字符串(不使用正则表达式).
+	 * <p>
+	 * 参数都是String时同{@link #replace(String, String, String)}.
+	 *
+	 * @param input
+	 *            源字符序列
+	 * @param matchString
+	 *            匹配字符串
+	 * @param newString
+	 *            新字符串
+	 * @return 替换后的新字符串
+	 */
+	public static final String replace(CharSequence input, CharSequence matchString, CharSequence newString) {
+		if (input instanceof String && matchString instanceof String && newString instanceof String) {
+			return replace((String) input, (String) matchString, (String) newString);
+		}
+		int i = indexOf(input, matchString, 0);
+		if (i < 0) {
+			return input.toString();
+		}
+		int oLength = matchString.length();
+		if (oLength == 0) {
+			return new StringBuilder(input.length() + newString.length()).append(newString).append(input).toString();
+		}
+		StringBuilder buf = new StringBuilder(input.length() + Math.max(16, newString.length() - oLength));
+		buf.append(input, 0, i).append(newString);
+		i += oLength;
+		int j = i;
+		while ((i = indexOf(input, matchString, i)) >= 0) {
+			buf.append(input, j, i).append(newString);
 			i += oLength;
-			int j = i;
-			while ((i = input.indexOf(matchString, i)) > 0) {
-				buf.append(line2, j, i - j).append(newString2);
-				i += oLength;
-				j = i;
+			j = i;
+		}
+		buf.append(input, j, input.length());
+		return buf.toString();
+	}
+
+	private static int indexOf(CharSequence s, CharSequence match, int from) {
+		int mLen = match.length();
+		if (mLen == 0) {
+			return from <= s.length() ? from : -1;
+		}
+		char first = match.charAt(0);
+		for (int i = from, max = s.length() - mLen; i <= max; i++) {
+			if (s.charAt(i) != first) {
+				continue;
+			}
+			int k = 1;
+			while (k < mLen && s.charAt(i + k) == match.charAt(k)) {
+				k++;
+			}
+			if (k == mLen) {
+				return i;
 			}
-			buf.append(line2, j, line2.length - j);
-			return buf.toString();
 		}
-		return input;
+		return -1;
 	}
 
 	/**
@@ -315,35 +470,28 @@ public class Strings {
 	 * @return 编码后的字符串.
 	 */
 	public static final String escapeXML(String xml) {
-		// Check if the string is null or zero length -- if so, return
-		// what was sent in.
-		if (xml == null || xml.length() == 0) {
-			return xml;
-		}
-		// Use a StringBuffer in lieu of String concatenation -- it is
-		// much more efficient this way.
-		StringBuffer buf = new StringBuffer(xml.length());
-		char ch = ' ';
-		for (int i = 0; i < xml.length(); i++) {
-			ch = xml.charAt(i);
-			buf.append(escapeXML(ch));
+		if (Metrics.ENABLED) {
+			long t = Metrics.ESCAPE_XML.begin();
+			String ret = StringsSupport.escapeXML(xml);
+			Metrics.ESCAPE_XML.end(t, xml == null ? 0 : xml.length());
+			return ret;
 		}
-		return buf.toString();
+		return StringsSupport.escapeXML(xml);
 	}
 
-	private static String escapeXML(char ch) {
-		if (ch == '<') {
-			return ("&lt;");
-		} else if (ch == '>') {
-			return ("&gt;");
-		} else if (ch == '"') {
-			return ("&quot;");
-		} else if (ch == '\'') {
-			return ("&apos;");
-		} else if (ch == '&') {
-			return ("&amp;");
+	/**
+	 * 编码XML标记.
+	 *
+	 * @see #escapeXML(String)
+	 * @param xml
+	 *            待编码字符序列.
+	 * @return 编码后的字符串. <tt>null</tt> 如果输入为null
+	 */
+	public static final String escapeXML(CharSequence xml) {
+		if (xml == null || xml instanceof String) {
+			return escapeXML((String) xml);
 		}
-		return String.valueOf(ch);
+		return escape(xml, false);
 	}
 
 	/**
@@ -382,26 +530,93 @@ public class Strings {
 	 * @return 编码后的字符串.
 	 */
 	public static final String escapeHTML(String input) {
-		// Check if the string is null or zero length -- if so, return
-		// what was sent in.
-		if (input == null || input.length() == 0) {
-			return input;
-		}
-		// Use a StringBuffer in lieu of String concatenation -- it is
-		// much more efficient this way.
-		StringBuffer buf = new StringBuffer(input.length());
-		char ch = ' ';
-		for (int i = 0; i < input.length(); i++) {
-			ch = input.charAt(i);
-			if (ch == '\r') {
-				// buf.append("<br>");
-			} else if (ch == '\n') {
-				buf.append("<br>");
-			} else {
-				buf.append(escapeXML(ch));
+		if (Metrics.ENABLED) {
+			long t = Metrics.ESCAPE_HTML.begin();
+			String ret = StringsSupport.escapeHTML(input);
+			Metrics.ESCAPE_HTML.end(t, input == null ? 0 : input.length());
+			return ret;
+		}
+		return StringsSupport.escapeHTML(input);
+	}
+
+	/**
+	 * 编码HTML标记为浏览器可显示格式.
+	 *
+	 * @see #escapeHTML(String)
+	 * @param input
+	 *            待编码字符序列.
+	 * @return 编码后的字符串. <tt>null</tt> 如果输入为null
+	 */
+	public static final String escapeHTML(CharSequence input) {
+		if (input == null || input instanceof String) {
+			return escapeHTML((String) input);
+		}
+		return escape(input, true);
+	}
+
+	private static String escape(CharSequence input, boolean html) {
+		int len = input.length();
+		StringBuilder buf = new StringBuilder(len + 16);
+		int j = 0;
+		for (int i = 0; i < len; i++) {
+			String esc;
+			switch (input.charAt(i)) {
+			case '<':
+				esc = "&lt;";
+				break;
+			case '>':
+				esc = "&gt;";
+				break;
+			case '"':
+				esc = "&quot;";
+				break;
+			case '\'':
+				esc = "&apos;";
+				break;
+			case '&':
+				esc = "&amp;";
+				break;
+			case '\r':
+				esc = html ? "" : null;
+				break;
+			case '\n':
+				esc = html ? "<br>" : null;
+				break;
+			default:
+				esc = null;
+			}
+			if (esc != null) {
+				buf.append(input, j, i).append(esc);
+				j = i + 1;
 			}
 		}
-		return buf.toString();
+		return buf.append(input, j, len).toString();
+	}
+
+	/**
+	 * 转义JSON字符串的内容(不加引号): 双引号、反斜杠和控制字符
+	 *
+	 * @see JsonEscaper
+	 * @param input
+	 *            待转义字符串
+	 * @return 转义后的字符串. <tt>null</tt> 如果输入为null
+	 */
+	public static final String escapeJSON(String input) {
+		return input == null ? null : JsonEscaper.standard().escape(input);
+	}
+
+	/**
+	 * 反转义JSON字符串的内容(不含引号)
+	 *
+	 * @see JsonEscaper
+	 * @param input
+	 *            待反转义字符串
+	 * @return 反转义后的字符串. <tt>null</tt> 如果输入为null
+	 * @throws IllegalArgumentException
+	 *             非法的转义序列
+	 */
+	public static final String unescapeJSON(String input) {
+		return input == null ? null : JsonEscaper.standard().unescape(input);
 	}
 
 	/**
@@ -414,8 +629,12 @@ public class Strings {
 		if (name == null || name.length() == 0) {
 			return name;
 		}
+		char first = Character.toUpperCase(name.charAt(0));
+		if (first == name.charAt(0)) {
+			return name;
+		}
 		char chars[] = name.toCharArray();
-		chars[0] = Character.toUpperCase(chars[0]);
+		chars[0] = first;
 		return new String(chars);
 	}
 
@@ -429,14 +648,133 @@ public class Strings {
 		if (name == null || name.length() == 0) {
 			return name;
 		}
+		char first = Character.toLowerCase(name.charAt(0));
+		if (first == name.charAt(0)) {
+			return name;
+		}
 		char chars[] = name.toCharArray();
-		chars[0] = Character.toLowerCase(chars[0]);
+		chars[0] = first;
 		return new String(chars);
 	}
 
+	static final int CAMEL = 0;
+	static final int SNAKE = 1;
+	static final int KEBAB = 2;
+	static final int UPPER_SNAKE = 3;
+
 	/**
-	 * 用提供的属性替换字符串中的${NAME}变量
-	 * 
+	 * 将标识符转换为小驼峰形式, 如 user_name、user-name、UserName 转换为 userName.
+	 * <p>
+	 * 单词的划分: '_'、'-'、空格为分隔符(首尾的分隔符去掉), 其它字母或数字后的大写字母、
+	 * 连续大写字母中后跟小写字母的最后一个(如 HTTPServer 划分为 HTTP、Server)开始新单词.
+	 * 无需改变时返回原字符串.
+	 *
+	 * @see IdentifierCache
+	 * @param name
+	 *            标识符
+	 * @return 转换后的标识符
+	 */
+	public static String toCamelCase(String name) {
+		return toCase(name, CAMEL);
+	}
+
+	/**
+	 * 将标识符转换为小写下划线形式, 如 userName、HTTPServer 转换为 user_name、http_server.
+	 *
+	 * @see #toCamelCase(String)
+	 * @param name
+	 *            标识符
+	 * @return 转换后的标识符
+	 */
+	public static String toSnakeCase(String name) {
+		return toCase(name, SNAKE);
+	}
+
+	/**
+	 * 将标识符转换为小写连字符形式, 如 userName 转换为 user-name.
+	 *
+	 * @see #toCamelCase(String)
+	 * @param name
+	 *            标识符
+	 * @return 转换后的标识符
+	 */
+	public static String toKebabCase(String name) {
+		return toCase(name, KEBAB);
+	}
+
+	/**
+	 * 将标识符转换为大写下划线形式, 如 userName 转换为 USER_NAME.
+	 *
+	 * @see #toCamelCase(String)
+	 * @param name
+	 *            标识符
+	 * @return 转换后的标识符
+	 */
+	public static String toUpperSnakeCase(String name) {
+		return toCase(name, UPPER_SNAKE);
+	}
+
+	/**
+	 * 一次扫描完成转换. 输出与输入相同的前缀不复制, 出现第一个不同字符时才分配缓冲(最多为输入的两倍长).
+	 */
+	static String toCase(String name, int style) {
+		if (name == null) {
+			return null;
+		}
+		int len = name.length();
+		char[] buf = null;
+		int n = 0;
+		int words = 0;
+		boolean gap = false;
+		char sep = style == KEBAB ? '-' : '_';
+		for (int i = 0; i < len; i++) {
+			char ch = name.charAt(i);
+			if (ch == '_' || ch == '-' || ch == ' ') {
+				gap = true;
+				continue;
+			}
+			boolean start = i == 0 || gap;
+			if (!start && Character.isUpperCase(ch)) {
+				char prev = name.charAt(i - 1);
+				start = (Character.isLetterOrDigit(prev) && !Character.isUpperCase(prev))
+						|| (Character.isUpperCase(prev) && i + 1 < len && Character.isLowerCase(name.charAt(i + 1)));
+			}
+			gap = false;
+			if (start) {
+				if (words++ > 0 && style != CAMEL) {
+					buf = put(name, buf, n++, sep);
+				}
+				ch = style == UPPER_SNAKE || (style == CAMEL && words > 1) ? Character.toUpperCase(ch) : Character
+						.toLowerCase(ch);
+			} else {
+				ch = style == UPPER_SNAKE ? Character.toUpperCase(ch) : Character.toLowerCase(ch);
+			}
+			buf = put(name, buf, n++, ch);
+		}
+		if (buf != null) {
+			return new String(buf, 0, n);
+		}
+		return n == len ? name : name.substring(0, n);
+	}
+
+	private static char[] put(String name, char[] buf, int n, char ch) {
+		if (buf == null) {
+			if (n < name.length() && name.charAt(n) == ch) {
+				return null;
+			}
+			buf = new char[name.length() * 2];
+			name.getChars(0, n, buf, 0);
+		}
+		buf[n] = ch;
+		return buf;
+	}
+
+	/**
+	 * 用提供的属性替换字符串中的${NAME}变量.
+	 * <p>
+	 * 先按NAME整体查找; 找不到且NAME为属性路径(如<tt>order.customer.name</tt>、<tt>items[0]</tt>)时,
+	 * 第一级取对照表中的值, 其后各级按{@link #replaceVar(String, Object)}的规则取值.
+	 *
 	 * @param value
 	 *            待替换的字符串
 	 * @param staticProp
@@ -444,13 +782,74 @@ public class Strings {
 	 * @return 替换后的字符串
 	 */
 	public static String replaceVar(final String value, final Map<String, ?> staticProp) {
-		StringBuffer sb = new StringBuffer();
+		if (Metrics.ENABLED) {
+			long t = Metrics.REPLACE_VAR.begin();
+			String ret = doReplaceVar(value, staticProp);
+			Metrics.REPLACE_VAR.end(t, value.length());
+			return ret;
+		}
+		return doReplaceVar(value, staticProp);
+	}
+
+	/**
+	 * 用对象的属性替换字符串中的${NAME}变量, NAME可为属性路径, 如<tt>${order.customer.name}</tt>.
+	 * <p>
+	 * 各级按对象类型取值: Map按键, 数组和List按下标(<tt>items[0]</tt>或<tt>items.0</tt>), 其它对象依次查找
+	 * public的getXxx()、isXxx()方法和public字段. 取值方式按类缓存. 值为null或找不到的变量保持原样.
+	 *
+	 * @param value
+	 *            待替换的字符串
+	 * @param vars
+	 *            提供属性的对象(bean、Map、数组等)
+	 * @return 替换后的字符串
+	 */
+	public static String replaceVar(final String value, final Object vars) {
+		if (Metrics.ENABLED) {
+			long t = Metrics.REPLACE_VAR.begin();
+			String ret = doReplaceVar(value, vars);
+			Metrics.REPLACE_VAR.end(t, value.length());
+			return ret;
+		}
+		return doReplaceVar(value, vars);
+	}
+
+	/**
+	 * 用提供的属性替换字符序列中的${NAME}变量
+	 *
+	 * @see #replaceVar(String, Map)
+	 * @param value
+	 *            待替换的字符序列
+	 * @param staticProp
+	 *            静态属性对照表
+	 * @return 替换后的字符串
+	 */
+	public static String replaceVar(final CharSequence value, final Map<String, ?> staticProp) {
+		if (value instanceof String) {
+			return replaceVar((String) value, staticProp);
+		}
+		return doReplaceVar(value, staticProp);
+	}
+
+	private static Object lookupVar(final Object vars, final String name) {
+		if (vars instanceof Map) {
+			Object v = ((Map<?, ?>) vars).get(name);
+			if (v != null || !PropertyPath.isPath(name)) {
+				return v;
+			}
+		} else if (vars == null) {
+			return null;
+		}
+		return PropertyPath.get(vars, name);
+	}
+
+	private static String doReplaceVar(final CharSequence value, final Object vars) {
+		StringBuilder sb = new StringBuilder(value.length() + 16);
 		int prev = 0;
 		// assert value!=nil
 		int pos;
-		while ((pos = value.indexOf("$", prev)) >= 0) {
+		while ((pos = indexOf(value, '$', prev)) >= 0) {
 			if (pos > 0) {
-				sb.append(value.substring(prev, pos));
+				sb.append(value, prev, pos);
 			}
 			if (pos == (value.length() - 1)) {// $在最后
 				sb.append('$');
@@ -458,29 +857,26 @@ public class Strings {
 				break;
 			} else if (value.charAt(pos + 1) != '{') {
 				sb.append('$');
-				// sb.append(value.charAt(pos + 1));
 				prev = pos + 1; // XXX
 			} else {
-				int endName = value.indexOf('}', pos);
+				int endName = indexOf(value, '}', pos);
 				if (endName < 0) {
-					sb.append(value.substring(pos));
+					sb.append(value, pos, value.length());
 					prev = value.length();
 					continue;
 				}
-				String n = value.substring(pos + 2, endName);
-				String v = null;
-				if (n != null && staticProp != null && staticProp.get(n) != null) {
-					v = staticProp.get(n).toString();
+				String n = value.subSequence(pos + 2, endName).toString();
+				Object v = lookupVar(vars, n);
+				if (v != null) {
+					sb.append(v.toString());
+				} else {
+					sb.append("${").append(n).append('}');
 				}
-				if (v == null)
-					v = "${" + n + "}";
-
-				sb.append(v);
 				prev = endName + 1;
 			}
 		}
 		if (prev < value.length())
-			sb.append(value.substring(prev));
+			sb.append(value, prev, value.length());
 		return sb.toString();
 	}
 	// }}
@@ -494,18 +890,63 @@ public class Strings {
 	 * @return 16进制表示的字符串
 	 */
 	public static final String toHex(byte hash[]) {
-		StringBuffer buf = new StringBuffer(hash.length * 2);
-		String stmp = "";
+		if (Metrics.ENABLED) {
+			long t = Metrics.TO_HEX.begin();
+			String ret = doToHex(hash);
+			Metrics.TO_HEX.end(t, hash.length);
+			return ret;
+		}
+		return doToHex(hash);
+	}
 
-		for (int i = 0; i < hash.length; i++) {
-			stmp = (java.lang.Integer.toHexString(hash[i] & 0XFF));
-			if (stmp.length() == 1) {
-				buf.append(0).append(stmp);
-			} else {
-				buf.append(stmp);
-			}
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static String doToHex(byte hash[]) {
+		char[] buf = new char[hash.length * 2];
+		for (int i = 0, j = 0; i < hash.length; i++) {
+			int b = hash[i];
+			buf[j++] = HEX_DIGITS[(b >> 4) & 0x0f];
+			buf[j++] = HEX_DIGITS[b & 0x0f];
+		}
+		return new String(buf);
+	}
+
+	/**
+	 * 将long按大端转换为16位16进制字符串(不足补0), 用于散列值等.
+	 *
+	 * @param value
+	 *            数值
+	 * @return 16个字符的16进制表示
+	 * @see XxHash64#toHex()
+	 */
+	public static final String toHex(long value) {
+		char[] buf = new char[16];
+		putHex(value, buf, 0);
+		return new String(buf);
+	}
+
+	/**
+	 * 将两个long依次按大端转换为32位16进制字符串, 用于128位散列值.
+	 *
+	 * @param high
+	 *            前64位
+	 * @param low
+	 *            后64位
+	 * @return 32个字符的16进制表示
+	 * @see Murmur3#toHex()
+	 */
+	public static final String toHex(long high, long low) {
+		char[] buf = new char[32];
+		putHex(high, buf, 0);
+		putHex(low, buf, 16);
+		return new String(buf);
+	}
+
+	private static void putHex(long value, char[] buf, int off) {
+		for (int i = off + 15; i >= off; i--) {
+			buf[i] = HEX_DIGITS[(int) value & 0x0f];
+			value >>>= 4;
 		}
-		return buf.toString();
 	}
 
 	/**
@@ -538,6 +979,106 @@ public class Strings {
 		return bytes;
 	}
 
+	/**
+	 * 标准Base64编码(补'=')
+	 *
+	 * @param bytes
+	 *            待转换字节数组
+	 * @return Base64表示的字符串
+	 * @see BinaryCodec#base64()
+	 */
+	public static final String toBase64(byte[] bytes) {
+		return BinaryCodec.base64().encode(bytes);
+	}
+
+	/**
+	 * 标准Base64解码(补位可省略)
+	 *
+	 * @param base64
+	 *            Base64表示的字符串
+	 * @return 字节数组
+	 * @throws IllegalArgumentException
+	 *             非法的Base64字符串
+	 */
+	public static final byte[] base64ToBytes(String base64) {
+		return BinaryCodec.base64().decode(base64);
+	}
+
+	/**
+	 * URL安全的Base64编码(不补位), 可直接用于URL参数和文件名
+	 *
+	 * @param bytes
+	 *            待转换字节数组
+	 * @return Base64表示的字符串
+	 * @see BinaryCodec#base64Url()
+	 */
+	public static final String toBase64Url(byte[] bytes) {
+		return BinaryCodec.base64Url().encode(bytes);
+	}
+
+	/**
+	 * URL安全的Base64解码
+	 *
+	 * @param base64
+	 *            Base64表示的字符串
+	 * @return 字节数组
+	 * @throws IllegalArgumentException
+	 *             非法的Base64字符串
+	 */
+	public static final byte[] base64UrlToBytes(String base64) {
+		return BinaryCodec.base64Url().decode(base64);
+	}
+
+	/**
+	 * Base32编码(补'='), 不区分大小写的场合使用
+	 *
+	 * @param bytes
+	 *            待转换字节数组
+	 * @return Base32表示的字符串
+	 * @see BinaryCodec#base32()
+	 */
+	public static final String toBase32(byte[] bytes) {
+		return BinaryCodec.base32().encode(bytes);
+	}
+
+	/**
+	 * Base32解码
+	 *
+	 * @param base32
+	 *            Base32表示的字符串(大写)
+	 * @return 字节数组
+	 * @throws IllegalArgumentException
+	 *             非法的Base32字符串
+	 */
+	public static final byte[] base32ToBytes(String base32) {
+		return BinaryCodec.base32().decode(base32);
+	}
+
+	/**
+	 * Base62编码(只含字母和数字), 用于紧凑的ID
+	 *
+	 * @param bytes
+	 *            待转换字节数组
+	 * @return Base62表示的字符串
+	 * @see BinaryCodec#base62()
+	 */
+	public static final String toBase62(byte[] bytes) {
+		return BinaryCodec.base62().encode(bytes);
+	}
+
+	/**
+	 * Base62解码
+	 *
+	 * @param base62
+	 *            Base62表示的字符串
+	 * @return 字节数组
+	 * @throws IllegalArgumentException
+	 *             非法的Base62字符串
+	 */
+	public static final byte[] base62ToBytes(String base62) {
+		return BinaryCodec.base62().decode(base62);
+	}
+
 	// }}
 
 	// {{ misc
@@ -582,6 +1123,44 @@ public class Strings {
 		// charEnc = Charset.defaultCharset().name();
 		return charEnc != null ? charEnc : "<unknown charset encoding>";
 	}
+
+	/**
+	 * 每个线程一个, 复用临时缓冲
+	 */
+	private static final ThreadLocal<Similarity> SIMILARITY = new ThreadLocal<Similarity>() {
+		@Override
+		protected Similarity initialValue() {
+			return new Similarity();
+		}
+	};
+
+	/**
+	 * 编辑距离(Levenshtein), 位并行算法
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @return 插入、删除、替换的最少次数
+	 * @see Similarity#distance(CharSequence, CharSequence)
+	 */
+	public static int editDistance(CharSequence a, CharSequence b) {
+		return SIMILARITY.get().distance(a, b);
+	}
+
+	/**
+	 * Jaro-Winkler相似度
+	 *
+	 * @param a
+	 *            字符串
+	 * @param b
+	 *            字符串
+	 * @return 0~1, 1表示相同
+	 * @see Similarity#jaroWinkler(CharSequence, CharSequence)
+	 */
+	public static double jaroWinkler(CharSequence a, CharSequence b) {
+		return SIMILARITY.get().jaroWinkler(a, b);
+	}
 	// }}
 
 	// {{ 中文
@@ -680,6 +1259,86 @@ public class Strings {
 	 * 
 	 */
 	public static int gbStrLen(String str) {
+		if (Metrics.ENABLED) {
+			long t = Metrics.GB_STR_LEN.begin();
+			int ret = doGbStrLen(str);
+			Metrics.GB_STR_LEN.end(t, str == null ? 0 : str.length());
+			return ret;
+		}
+		return doGbStrLen(str);
+	}
+
+	/**
+	 * GB18030编码器及其输出缓冲, 每个线程一个
+	 */
+	private static final class GbEncoder {
+		final CharsetEncoder encoder;
+		final ByteBuffer out = ByteBuffer.allocate(256);
+
+		GbEncoder(CharsetEncoder encoder) {
+			this.encoder = encoder;
+		}
+	}
+
+	/**
+	 * 不支持GB18030时为null
+	 */
+	private static final ThreadLocal<GbEncoder> GB_ENCODER = new ThreadLocal<GbEncoder>() {
+		@Override
+		protected GbEncoder initialValue() {
+			try {
+				return new GbEncoder(Charset.forName("GB18030").newEncoder()
+						.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE));
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		}
+	};
+
+	/**
+	 * 取带汉字字符序列的GB18030字节长度, 不生成中间字节数组, 编码器和缓冲在线程内复用
+	 *
+	 * @see #gbStrLen(String)
+	 * @param str
+	 *            源字符序列
+	 * @return int Byte位长度
+	 */
+	public static int gbStrLen(CharSequence str) {
+		if (str == null || str instanceof String) {
+			return gbStrLen((String) str);
+		}
+		int len = str.length();
+		int i = 0;
+		while (i < len && str.charAt(i) < 0x80) {
+			i++;
+		}
+		if (i == len) {
+			return len;
+		}
+		GbEncoder gb = GB_ENCODER.get();
+		if (gb == null) {
+			return gbStrLen(str.toString());
+		}
+		CharsetEncoder encoder = gb.encoder.reset();
+		ByteBuffer out = gb.out;
+		out.clear();
+		CharBuffer in = CharBuffer.wrap(str, i, len);
+		int ret = i;
+		CoderResult cr;
+		do {
+			cr = encoder.encode(in, out, true);
+			ret += out.position();
+			out.clear();
+		} while (cr.isOverflow());
+		do {
+			cr = encoder.flush(out);
+			ret += out.position();
+			out.clear();
+		} while (cr.isOverflow());
+		return ret;
+	}
+
+	private static int doGbStrLen(String str) {
 		if (str == null) {
 			return 0;
 		}
@@ -691,6 +1350,111 @@ public class Strings {
 		}
 		return strByte.length;
 	}
+
+	/**
+	 * 取字符串在终端或等宽字体下的显示宽度(列数). 汉字、全角字符、emoji占2列, 组合符号占0列.
+	 * <p>
+	 * 与{@link #gbStrLen(String)}不同, 按Unicode东亚宽度计算, 全角标点和GB18030的4字节字符也能对齐.
+	 *
+	 * @see EastAsianWidth#width(CharSequence)
+	 * @param str
+	 *            源字符串
+	 * @return 显示宽度. str为null时为0
+	 */
+	public static int displayWidth(String str) {
+		return EastAsianWidth.width(str);
+	}
+
+	/**
+	 * 全角转半角(SBC转DBC): 全角ASCII字符、全角空格及￠￡￢￣￤￥￦转换为对应的半角字符, 其它字符不变.
+	 *
+	 * @param str
+	 *            源字符串
+	 * @return 转换后的字符串. 没有需转换的字符时为str本身
+	 */
+	public static String toHalfWidth(String str) {
+		if (str == null) {
+			return null;
+		}
+		char[] buf = null;
+		for (int i = 0, len = str.length(); i < len; i++) {
+			char ch = str.charAt(i);
+			char c = toHalfWidth(ch);
+			if (c != ch) {
+				if (buf == null) {
+					buf = str.toCharArray();
+				}
+				buf[i] = c;
+			}
+		}
+		return buf == null ? str : new String(buf);
+	}
+
+	/**
+	 * 半角转全角(DBC转SBC): 可见ASCII字符、空格及¢£¬¯¦¥₩转换为对应的全角字符, 其它字符不变.
+	 *
+	 * @param str
+	 *            源字符串
+	 * @return 转换后的字符串. 没有需转换的字符时为str本身
+	 */
+	public static String toFullWidth(String str) {
+		if (str == null) {
+			return null;
+		}
+		char[] buf = null;
+		for (int i = 0, len = str.length(); i < len; i++) {
+			char ch = str.charAt(i);
+			char c = toFullWidth(ch);
+			if (c != ch) {
+				if (buf == null) {
+					buf = str.toCharArray();
+				}
+				buf[i] = c;
+			}
+		}
+		return buf == null ? str : new String(buf);
+	}
+
+	private static final String HALF_SIGNS = "\u00a2\u00a3\u00ac\u00af\u00a6\u00a5\u20a9";
+
+	private static char toHalfWidth(char ch) {
+		if (ch < 0x3000) {
+			return ch;
+		}
+		if (ch >= 0xFF01 && ch <= 0xFF5E) {
+			return (char) (ch - 0xFEE0);
+		}
+		switch (ch) {
+		case 0x3000:
+			return ' ';
+		case 0xFF5F:
+			return 0x2985;
+		case 0xFF60:
+			return 0x2986;
+		default:
+			return ch >= 0xFFE0 && ch <= 0xFFE6 ? HALF_SIGNS.charAt(ch - 0xFFE0) : ch;
+		}
+	}
+
+	private static char toFullWidth(char ch) {
+		if (ch > 0x20 && ch < 0x7F) {
+			return (char) (ch + 0xFEE0);
+		}
+		switch (ch) {
+		case ' ':
+			return 0x3000;
+		case 0x2985:
+			return 0xFF5F;
+		case 0x2986:
+			return 0xFF60;
+		default:
+			if (ch < 0xA2) {
+				return ch;
+			}
+			int k = HALF_SIGNS.indexOf(ch);
+			return k < 0 ? ch : (char) (0xFFE0 + k);
+		}
+	}
 	// }}
 
 	// {{ 填充
@@ -745,6 +1509,33 @@ public class Strings {
 		return src + replicateStr(ch, len - srclen);
 	}
 
+	/**
+	 * 左对齐填充定长字符串.
+	 *
+	 * @see #lFillStr(String, char, int)
+	 * @param src
+	 *            源字符序列
+	 * @param ch
+	 *            用于填充的字符
+	 * @param len
+	 *            新字符串总长度
+	 * @return
+	 */
+	public static String lFillStr(CharSequence src, char ch, int len) {
+		if (src instanceof String) {
+			return lFillStr((String) src, ch, len);
+		}
+		int srclen = gbStrLen(src);
+		if (srclen > len) {
+			return gbsubstr(src.toString(), 0, len);
+		}
+		StringBuilder sb = new StringBuilder(src.length() + len - srclen).append(src);
+		for (int i = srclen; i < len; i++) {
+			sb.append(ch);
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * 右对齐填充定长字符串. 向字符串前部添加字符, 处理汉字
 	 * 
@@ -757,6 +1548,19 @@ public class Strings {
 		return rFillStr(src, ch, len, true);
 	}
 
+	/**
+	 * 右对齐填充定长字符串. 向字符串前部添加字符, 处理汉字
+	 *
+	 * @see #rFillStr(String, char, int)
+	 * @param src
+	 * @param ch
+	 * @param len
+	 * @return
+	 */
+	public static String rFillStr(CharSequence src, char ch, int len) {
+		return rFillStr(src, ch, len, true);
+	}
+
 	/**
 	 * 右对齐填充定长字符串.
 	 * <br/>
@@ -784,6 +1588,147 @@ public class Strings {
 		return replicateStr(ch, len - srclen) + src;
 	}
 
+	/**
+	 * 右对齐填充定长字符串.
+	 *
+	 * @see #rFillStr(String, char, int, boolean)
+	 * @param src
+	 *            源字符序列
+	 * @param ch
+	 *            用于填充的字符
+	 * @param len
+	 *            新字符串长度
+	 * @param gb
+	 *            源字符串是否包含有中文
+	 * @return
+	 */
+	public static String rFillStr(CharSequence src, char ch, int len, boolean gb) {
+		if (src instanceof String) {
+			return rFillStr((String) src, ch, len, gb);
+		}
+		int srclen = gb ? gbStrLen(src) : src.length();
+		if (srclen > len) {
+			return gbsubstr(src.toString(), srclen - len, srclen);
+		}
+		StringBuilder sb = new StringBuilder(src.length() + len - srclen);
+		for (int i = srclen; i < len; i++) {
+			sb.append(ch);
+		}
+		return sb.append(src).toString();
+	}
+
+	/**
+	 * 按显示宽度左对齐填充定长字符串.
+	 * <br/>
+	 * 宽度不足，则向字符串尾部添加字符; 超宽，则从后截断, 截断处的宽字符放不下时用填充字符补齐.
+	 * 结果的显示宽度总是等于width.
+	 *
+	 * @see #displayWidth(String)
+	 * @param src
+	 *            源字符串
+	 * @param ch
+	 *            用于填充的字符(应为单列字符)
+	 * @param width
+	 *            新字符串的显示宽度
+	 * @return 填充后的字符串. 宽度正好时为src本身
+	 */
+	public static String lFillWidth(String src, char ch, int width) {
+		int len = src.length();
+		int w = 0;
+		int i = 0;
+		while (i < len) {
+			int cp = src.codePointAt(i);
+			int cw = EastAsianWidth.width(cp);
+			if (w + cw > width) {
+				break;
+			}
+			w += cw;
+			i += Character.charCount(cp);
+		}
+		if (i == len && w == width) {
+			return src;
+		}
+		StringBuilder sb = new StringBuilder(i + width - w).append(src, 0, i);
+		for (; w < width; w++) {
+			sb.append(ch);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 按显示宽度右对齐填充定长字符串.
+	 * <br/>
+	 * 宽度不足，向字符串前部添加字符; 超宽，从前部截断, 截断处的宽字符放不下时用填充字符补齐.
+	 * 结果的显示宽度总是等于width.
+	 *
+	 * @see #displayWidth(String)
+	 * @param src
+	 *            源字符串
+	 * @param ch
+	 *            用于填充的字符(应为单列字符)
+	 * @param width
+	 *            新字符串的显示宽度
+	 * @return 填充后的字符串. 宽度正好时为src本身
+	 */
+	public static String rFillWidth(String src, char ch, int width) {
+		int len = src.length();
+		int w = 0;
+		int i = len;
+		while (i > 0) {
+			int cp = src.codePointBefore(i);
+			int cw = EastAsianWidth.width(cp);
+			if (w + cw > width) {
+				break;
+			}
+			w += cw;
+			i -= Character.charCount(cp);
+		}
+		if (i == 0 && w == width) {
+			return src;
+		}
+		StringBuilder sb = new StringBuilder(len - i + width - w);
+		for (; w < width; w++) {
+			sb.append(ch);
+		}
+		return sb.append(src, i, len).toString();
+	}
+
+	/**
+	 * 截断字符串，当显示宽度超过指定宽度时截断，并在最后加上“...”(共占指定宽度以内)
+	 *
+	 * @see #displayWidth(String)
+	 * @param s
+	 *            源字符串
+	 * @param width
+	 *            指定最大显示宽度
+	 * @return 字符串
+	 *         <ul>
+	 *         <li><tt>原值</tt> 如果不超过指定宽度.
+	 *         <li><tt>""</tt> 如果字符串为null.
+	 *         <li><tt>"..."</tt> 当指定宽度小于等于3且字符串超宽时.
+	 *         <li><tt>新字符串</tt> 显示宽度不超过指定宽度, 以"..."结尾.
+	 *         </ul>
+	 */
+	public static String omitWidth(String s, int width) {
+		if (s == null)
+			return "";
+		int len = s.length();
+		int w = 0;
+		int cut = -1;
+		for (int i = 0; i < len;) {
+			int cp = s.codePointAt(i);
+			w += EastAsianWidth.width(cp);
+			if (w > width - 3 && cut < 0) {
+				cut = i;
+			}
+			if (w > width) {
+				return width <= 3 ? "..." : s.substring(0, cut) + "...";
+			}
+			i += Character.charCount(cp);
+		}
+		return s;
+	}
+
 	/**
 	 * 截断字符串，当字符长度超过指定长度时截断，并将最后3位用“...”替换(长度按字节计算)
 	 * 
@@ -839,16 +1784,29 @@ public class Strings {
 	}
 
 	/**
-	 * 删除所有的标点符号
+	 * 删除所有的标点符号, 规则同正则表达式<tt>[\pP\p{Punct}]</tt>.
+	 * <p>
+	 * 查表实现, 没有标点时不复制.
 	 *
+	 * @see CharFilter#punct()
 	 * @param str
 	 *            处理的字符串
 	 */
 	public static String trimPunct(String str) {
+		if (Metrics.ENABLED) {
+			long t = Metrics.TRIM_PUNCT.begin();
+			String ret = doTrimPunct(str);
+			Metrics.TRIM_PUNCT.end(t, str == null ? 0 : str.length());
+			return ret;
+		}
+		return doTrimPunct(str);
+	}
+
+	private static String doTrimPunct(String str) {
 		if (isEmpty(str)) {
 			return "";
 		}
-		return str.replaceAll("[\\pP\\p{Punct}]", "");
+		return CharFilter.punct().removeFrom(str);
 	}
 	// }}
 
@@ -875,6 +1833,40 @@ public class Strings {
 		}
 		return val1.equals(val2);
 	}
+
+	/**
+	 * 比较两个字符序列的内容是否相等
+	 *
+	 * @param val1
+	 * @param val2
+	 * @return
+	 *         <ul>
+	 *         <li>都为null时，true</li>
+	 *         <li>仅一个为null,false</li>
+	 *         <li>其它,逐个字符比较</li>
+	 *         </ul>
+	 */
+	public static boolean equals(CharSequence val1, CharSequence val2) {
+		if (val1 == val2) {
+			return true;
+		}
+		if (val1 == null || val2 == null) {
+			return false;
+		}
+		if (val1 instanceof String && val2 instanceof String) {
+			return val1.equals(val2);
+		}
+		int len = val1.length();
+		if (len != val2.length()) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (val1.charAt(i) != val2.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
 	// }}
 
 }
@@ -0,0 +1,109 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+/**
+ * {@link Strings}热点方法的实现(JDK 1.6基线版本).
+ * <p>
+ * 多版本JAR中, <code>META-INF/versions/9</code>与<code>META-INF/versions/17</code>下有同名的替代实现,
+ * 各版本须保持相同的方法签名和结果.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+final class StringsSupport {
+
+	private StringsSupport() {
+	}
+
+	static String replace(String input, String matchString, String newString) {
+		int i = input.indexOf(matchString);
+		if (i < 0) {
+			return input;
+		}
+		int oLength = matchString.length();
+		if (oLength == 0) {
+			// 空匹配串只在开头插入一次
+			return String.valueOf(newString).concat(input);
+		}
+		StringBuilder buf = new StringBuilder(input.length() + Math.max(16, newString.length() - oLength));
+		buf.append(input, 0, i).append(newString);
+		i += oLength;
+		int j = i;
+		while ((i = input.indexOf(matchString, i)) >= 0) {
+			buf.append(input, j, i).append(newString);
+			i += oLength;
+			j = i;
+		}
+		buf.append(input, j, input.length());
+		return buf.toString();
+	}
+
+	static String escapeXML(String xml) {
+		// Check if the string is null or zero length -- if so, return
+		// what was sent in.
+		if (xml == null || xml.length() == 0) {
+			return xml;
+		}
+		// Use a StringBuffer in lieu of String concatenation -- it is
+		// much more efficient this way.
+		StringBuffer buf = new StringBuffer(xml.length());
+		char ch = ' ';
+		for (int i = 0; i < xml.length(); i++) {
+			ch = xml.charAt(i);
+			buf.append(escapeXML(ch));
+		}
+		return buf.toString();
+	}
+
+	static String escapeHTML(String input) {
+		// Check if the string is null or zero length -- if so, return
+		// what was sent in.
+		if (input == null || input.length() == 0) {
+			return input;
+		}
+		// Use a StringBuffer in lieu of String concatenation -- it is
+		// much more efficient this way.
+		StringBuffer buf = new StringBuffer(input.length());
+		char ch = ' ';
+		for (int i = 0; i < input.length(); i++) {
+			ch = input.charAt(i);
+			if (ch == '\r') {
+				// buf.append("<br>");
+			} else if (ch == '\n') {
+				buf.append("<br>");
+			} else {
+				buf.append(escapeXML(ch));
+			}
+		}
+		return buf.toString();
+	}
+
+	private static String escapeXML(char ch) {
+		if (ch == '<') {
+			return ("&lt;");
+		} else if (ch == '>') {
+			return ("&gt;");
+		} else if (ch == '"') {
+			return ("&quot;");
+		} else if (ch == '\'') {
+			return ("&apos;");
+		} else if (ch == '&') {
+			return ("&amp;");
+		}
+		return String.valueOf(ch);
+	}
+}
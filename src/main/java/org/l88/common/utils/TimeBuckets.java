@@ -0,0 +1,281 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.util.TimeZone;
+
+/**
+ * 按时间段(分、时、日、月)计数和求和, 输入为UTC毫秒数.
+ * <p>
+ * 时间段按指定时区的本地时间划分, 不使用Calendar: 先取该时刻的时区偏移(同一小时内只取一次), 再按本地时间整除.
+ * 日的起点与{@link Dates#omitForDate}相同. 夏令时结束时重复的一小时并入同一个时间段, 开始时跳过的时间段为空.
+ * <p>
+ * 计数和求和存于按时间段下标的long数组, 不装箱. 范围在构造时给定, 范围外的输入只计入{@link #getDropped()}.
+ * 实例不是线程安全的; 多线程时每个线程用{@link #newPartial()}得到各自的实例, 最后{@link #merge}合并.
+ *
+ * <pre>
+ * TimeBuckets days = new TimeBuckets(TimeBuckets.DAY, from, to);
+ * for (Event e : events) {
+ *     days.add(e.getTime(), e.getAmount());
+ * }
+ * for (int i = 0; i &lt; days.size(); i++) {
+ *     print(new Date(days.getStart(i)), days.getCount(i), days.getSum(i));
+ * }
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class TimeBuckets {
+
+	/**
+	 * 按分钟
+	 */
+	public static final int MINUTE = 0;
+	/**
+	 * 按小时
+	 */
+	public static final int HOUR = 1;
+	/**
+	 * 按日
+	 */
+	public static final int DAY = 2;
+	/**
+	 * 按月
+	 */
+	public static final int MONTH = 3;
+
+	private static final long MILLIS_PER_HOUR = 3600000L;
+	private static final long[] UNIT_MILLIS = { 60000L, MILLIS_PER_HOUR, Chrono.MILLIS_PER_DAY };
+
+	private final int unit;
+	private final TimeZone zone;
+	private final long from;
+	private final long to;
+	/**
+	 * 第一个时间段的序号(本地时间1970-01-01起的分钟/小时/日/月数)
+	 */
+	private final long first;
+	private final long[] counts;
+	private final long[] sums;
+	private long dropped;
+
+	/**
+	 * 时区偏移的缓存: [cacheStart, cacheStart + 1小时)内偏移为cacheOffset
+	 */
+	private long cacheStart = Long.MIN_VALUE;
+	private int cacheOffset;
+
+	/**
+	 * 默认时区
+	 *
+	 * @param unit
+	 *            时间段: {@link #MINUTE}、{@link #HOUR}、{@link #DAY}、{@link #MONTH}
+	 * @param from
+	 *            范围起点(UTC毫秒数, 含)
+	 * @param to
+	 *            范围终点(UTC毫秒数, 不含)
+	 */
+	public TimeBuckets(int unit, long from, long to) {
+		this(unit, from, to, TimeZone.getDefault());
+	}
+
+	/**
+	 * @param unit
+	 *            时间段: {@link #MINUTE}、{@link #HOUR}、{@link #DAY}、{@link #MONTH}
+	 * @param from
+	 *            范围起点(UTC毫秒数, 含)
+	 * @param to
+	 *            范围终点(UTC毫秒数, 不含)
+	 * @param zone
+	 *            时区
+	 * @throws IllegalArgumentException
+	 *             时间段未知, 范围为空, 或时间段超过Integer.MAX_VALUE个
+	 */
+	public TimeBuckets(int unit, long from, long to, TimeZone zone) {
+		if (unit < MINUTE || unit > MONTH) {
+			throw new IllegalArgumentException("unknown unit: " + unit);
+		}
+		if (from >= to) {
+			throw new IllegalArgumentException("empty range: " + from + " ~ " + to);
+		}
+		this.unit = unit;
+		this.zone = (TimeZone) zone.clone();
+		this.from = from;
+		this.to = to;
+		this.first = bucket(from);
+		long n = bucket(to - 1) - first + 1;
+		if (n > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("too many buckets: " + n);
+		}
+		this.counts = new long[(int) n];
+		this.sums = new long[(int) n];
+	}
+
+	/**
+	 * @return 配置相同的空实例, 用于其他线程
+	 */
+	public TimeBuckets newPartial() {
+		return new TimeBuckets(unit, from, to, zone);
+	}
+
+	/**
+	 * 计数加1
+	 *
+	 * @param millis
+	 *            UTC毫秒数
+	 * @return 时间段下标, 范围外时为-1
+	 */
+	public int add(long millis) {
+		return add(millis, 0);
+	}
+
+	/**
+	 * 计数加1, 和加value
+	 *
+	 * @param millis
+	 *            UTC毫秒数
+	 * @param value
+	 *            数值
+	 * @return 时间段下标, 范围外时为-1
+	 */
+	public int add(long millis, long value) {
+		int i = indexOf(millis);
+		if (i < 0) {
+			dropped++;
+			return -1;
+		}
+		counts[i]++;
+		sums[i] += value;
+		return i;
+	}
+
+	/**
+	 * 加上另一实例的计数和求和
+	 *
+	 * @return this
+	 * @throws IllegalArgumentException
+	 *             配置(时间段、范围、时区)不同
+	 */
+	public TimeBuckets merge(TimeBuckets other) {
+		if (other.unit != unit || other.from != from || other.to != to || !other.zone.hasSameRules(zone)) {
+			throw new IllegalArgumentException("incompatible buckets");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+			sums[i] += other.sums[i];
+		}
+		dropped += other.dropped;
+		return this;
+	}
+
+	/**
+	 * @param millis
+	 *            UTC毫秒数
+	 * @return 所在时间段的下标, 范围外时为-1
+	 */
+	public int indexOf(long millis) {
+		if (millis < from || millis >= to) {
+			return -1;
+		}
+		return (int) (bucket(millis) - first);
+	}
+
+	/**
+	 * @return 时间段个数
+	 */
+	public int size() {
+		return counts.length;
+	}
+
+	/**
+	 * @return 第i个时间段的起点(UTC毫秒数). 第一个时间段的起点可能早于范围起点
+	 */
+	public long getStart(int i) {
+		long n = first + i;
+		long local;
+		if (unit == MONTH) {
+			long year = Chrono.floorDiv(n, 12);
+			local = Chrono.toEpochDay((int) year, (int) (n - year * 12) + 1, 1) * Chrono.MILLIS_PER_DAY;
+		} else {
+			local = n * UNIT_MILLIS[unit];
+		}
+		return Chrono.toUtcMillis(local, zone);
+	}
+
+	/**
+	 * @return 第i个时间段的计数
+	 */
+	public long getCount(int i) {
+		return counts[i];
+	}
+
+	/**
+	 * @return 第i个时间段的和
+	 */
+	public long getSum(int i) {
+		return sums[i];
+	}
+
+	/**
+	 * @return 各时间段的计数(副本)
+	 */
+	public long[] getCounts() {
+		return counts.clone();
+	}
+
+	/**
+	 * @return 各时间段的和(副本)
+	 */
+	public long[] getSums() {
+		return sums.clone();
+	}
+
+	/**
+	 * @return 范围外而未计入的个数
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return 本地时间1970-01-01起的时间段序号
+	 */
+	private long bucket(long millis) {
+		long local = millis + offset(millis);
+		if (unit != MONTH) {
+			return Chrono.floorDiv(local, UNIT_MILLIS[unit]);
+		}
+		int ymd = Chrono.toYmd(Chrono.floorDiv(local, Chrono.MILLIS_PER_DAY));
+		return (ymd / 10000) * 12L + ymd / 100 % 100 - 1;
+	}
+
+	/**
+	 * 时区偏移. 一小时内首尾偏移相同时缓存该小时的偏移
+	 */
+	private int offset(long millis) {
+		long hour = Chrono.floorDiv(millis, MILLIS_PER_HOUR) * MILLIS_PER_HOUR;
+		if (hour != cacheStart) {
+			int offset = zone.getOffset(hour);
+			if (offset != zone.getOffset(hour + MILLIS_PER_HOUR - 1)) {
+				return zone.getOffset(millis);
+			}
+			cacheStart = hour;
+			cacheOffset = offset;
+		}
+		return cacheOffset;
+	}
+}
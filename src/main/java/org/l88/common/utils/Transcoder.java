@@ -0,0 +1,420 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 字符集转换(如GB18030与UTF-8互转), 文件到文件或通道到通道.
+ * <p>
+ * 基于CharsetDecoder/CharsetEncoder, 输入输出使用直接内存缓冲, 在多次转换间重复使用. 两个字符集都兼容ASCII时,
+ * 处于字符边界的ASCII字节原样复制, 不经过解码和编码. GBK/GB18030的双字节字符的第2字节、四字节字符的第2、4字节可能小于0x80,
+ * 但不会有两个连续的这样的字节, 因此连续两个小于0x80的字节中的后一个必定位于字符边界, 复制从那里开始.
+ * <p>
+ * 遇到非法的字节序列时, 缺省抛出{@link MalformedException}, 其中有该序列在输入中的偏移; 也可设置为替换后继续,
+ * 替换的个数和第一个的偏移记录在{@link Stats}中. 实例不是线程安全的.
+ *
+ * <pre>
+ * Transcoder t = new Transcoder(Charset.forName("GB18030"), Charset.forName("UTF-8"));
+ * t.transcode(new File("partner.txt"), new File("partner.utf8.txt"));
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class Transcoder {
+
+	/**
+	 * 单字节位于字符边界时一定是ASCII字符、且多字节字符中没有连续两个小于0x80的字节的字符集
+	 */
+	private static final Set<String> ASCII_SAFE = new HashSet<String>(Arrays.asList("US-ASCII", "UTF-8",
+			"ISO-8859-1", "GB2312", "GBK", "GB18030", "Big5", "EUC-JP", "EUC-KR", "windows-1252"));
+
+	/**
+	 * 非法的字节序列
+	 */
+	public static final class MalformedException extends IOException {
+		private static final long serialVersionUID = 1L;
+		private final long offset;
+		private final int length;
+
+		MalformedException(String message, long offset, int length) {
+			super(message + " at offset " + offset + " (length " + length + ")");
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/**
+		 * @return 在输入中的偏移. 输出字符集无法表示的字符为当时已解码到的偏移(该字符在此之前, 至多相差一个缓冲)
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * @return 非法序列的字节数(无法转换时为字符数)
+		 */
+		public int getLength() {
+			return length;
+		}
+	}
+
+	/**
+	 * 一次转换的计数
+	 */
+	public static final class Stats {
+		long bytesRead;
+		long bytesWritten;
+		long asciiBytes;
+		long replaced;
+		long firstReplaced = -1;
+
+		/**
+		 * @return 读入的字节数
+		 */
+		public long getBytesRead() {
+			return bytesRead;
+		}
+
+		/**
+		 * @return 写出的字节数
+		 */
+		public long getBytesWritten() {
+			return bytesWritten;
+		}
+
+		/**
+		 * @return 按ASCII原样复制的字节数
+		 */
+		public long getAsciiBytes() {
+			return asciiBytes;
+		}
+
+		/**
+		 * @return 替换的非法序列或无法转换的字符数
+		 */
+		public long getReplaced() {
+			return replaced;
+		}
+
+		/**
+		 * @return 第一个替换处在输入中的偏移, 没有替换时为-1
+		 */
+		public long getFirstReplaced() {
+			return firstReplaced;
+		}
+
+		@Override
+		public String toString() {
+			return "read=" + bytesRead + ", written=" + bytesWritten + ", ascii=" + asciiBytes + ", replaced="
+					+ replaced + (replaced > 0 ? " (first at " + firstReplaced + ")" : "");
+		}
+	}
+
+	private final CharsetDecoder decoder;
+	private final CharsetEncoder encoder;
+	/**
+	 * 目标字符集能否编码U+FFFD, 不能时非法序列直接写出编码器的替换字节
+	 */
+	private final boolean encodesReplacement;
+	private final boolean asciiFastPath;
+	private boolean replace;
+	private int bufferSize = 64 << 10;
+
+	private ByteBuffer in;
+	private ByteBuffer inView;
+	private ByteBuffer out;
+	private CharBuffer chars;
+
+	/**
+	 * 当前in中下标0在输入中的偏移
+	 */
+	private long base;
+	private Stats stats;
+
+	/**
+	 * @param from
+	 *            输入的字符集
+	 * @param to
+	 *            输出的字符集
+	 */
+	public Transcoder(Charset from, Charset to) {
+		decoder = from.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		encoder = to.newEncoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		encodesReplacement = encoder.canEncode('\uFFFD');
+		asciiFastPath = ASCII_SAFE.contains(from.name()) && ASCII_SAFE.contains(to.name());
+	}
+
+	/**
+	 * @param replace
+	 *            遇到非法序列或无法转换的字符时是否替换后继续, 缺省为false(抛出MalformedException)
+	 */
+	public Transcoder setReplace(boolean replace) {
+		this.replace = replace;
+		return this;
+	}
+
+	/**
+	 * @param bufferSize
+	 *            输入输出缓冲的字节数, 缺省为64K
+	 */
+	public Transcoder setBufferSize(int bufferSize) {
+		this.bufferSize = Math.max(16, bufferSize);
+		return this;
+	}
+
+	/**
+	 * 转换文件
+	 *
+	 * @param src
+	 *            输入文件
+	 * @param dst
+	 *            输出文件(覆盖)
+	 * @return 转换计数
+	 * @throws IOException
+	 *             读写失败, 或遇到非法序列({@link MalformedException})
+	 */
+	public Stats transcode(File src, File dst) throws IOException {
+		FileInputStream fin = new FileInputStream(src);
+		try {
+			FileOutputStream fout = new FileOutputStream(dst);
+			try {
+				return transcode(fin.getChannel(), fout.getChannel());
+			} finally {
+				fout.close();
+			}
+		} finally {
+			fin.close();
+		}
+	}
+
+	/**
+	 * 转换通道的内容, 直到输入结束. 不关闭通道.
+	 *
+	 * @param src
+	 *            输入
+	 * @param dst
+	 *            输出
+	 * @return 转换计数
+	 * @throws IOException
+	 *             读写失败, 或遇到非法序列({@link MalformedException})
+	 */
+	public Stats transcode(ReadableByteChannel src, WritableByteChannel dst) throws IOException {
+		if (in == null || in.capacity() != bufferSize) {
+			in = ByteBuffer.allocateDirect(bufferSize);
+			inView = in.duplicate();
+			out = ByteBuffer.allocateDirect(bufferSize);
+			chars = CharBuffer.allocate(bufferSize);
+		}
+		in.clear();
+		out.clear();
+		chars.clear();
+		decoder.reset();
+		encoder.reset();
+		base = 0;
+		stats = new Stats();
+		boolean eof = false;
+		while (!eof) {
+			int n = src.read(in);
+			if (n < 0) {
+				eof = true;
+			} else {
+				stats.bytesRead += n;
+			}
+			in.flip();
+			process(dst, eof);
+			base += in.position();
+			in.compact();
+		}
+		// 剩余的不完整序列
+		in.flip();
+		if (in.hasRemaining()) {
+			malformed(in.position(), in.remaining(), dst);
+		}
+		encode(dst, true);
+		while (encoder.flush(out).isOverflow()) {
+			drain(dst);
+		}
+		drain(dst);
+		return stats;
+	}
+
+	/**
+	 * 处理in中的内容: ASCII段直接复制, 其余交给解码器. 输入未结束时可能留下末尾不完整的字符.
+	 */
+	private void process(WritableByteChannel dst, boolean eof) throws IOException {
+		int limit = in.limit();
+		while (in.position() < limit) {
+			int p = in.position();
+			if (asciiFastPath && in.get(p) >= 0) {
+				int q = p + 1;
+				while (q < limit && in.get(q) >= 0) {
+					q++;
+				}
+				copyAscii(p, q, dst);
+				continue;
+			}
+			// 非ASCII段: 到连续两个小于0x80的字节中的后一个为止
+			int q = limit;
+			if (asciiFastPath) {
+				for (int i = p + 1; i < limit - 1; i++) {
+					if (in.get(i) >= 0 && in.get(i + 1) >= 0) {
+						q = i + 1;
+						break;
+					}
+				}
+			}
+			in.limit(q);
+			boolean done = decode(dst, eof || q < limit);
+			in.limit(limit);
+			if (!done) {
+				// 末尾不完整的字符, 等待更多输入
+				return;
+			}
+		}
+	}
+
+	private void copyAscii(int p, int q, WritableByteChannel dst) throws IOException {
+		// 先把解码器中已有的字符编码输出, 保持顺序
+		encode(dst, false);
+		stats.asciiBytes += q - p;
+		while (p < q) {
+			if (!out.hasRemaining()) {
+				drain(dst);
+			}
+			int n = Math.min(q - p, out.remaining());
+			inView.limit(p + n).position(p);
+			out.put(inView);
+			p += n;
+		}
+		in.position(q);
+	}
+
+	/**
+	 * 解码in的position到limit之间的内容
+	 *
+	 * @param complete
+	 *            该段之后是否一定是字符边界
+	 * @return 是否已全部解码
+	 */
+	private boolean decode(WritableByteChannel dst, boolean complete) throws IOException {
+		for (;;) {
+			CoderResult r = decoder.decode(in, chars, false);
+			if (r.isOverflow()) {
+				encode(dst, false);
+			} else if (r.isError()) {
+				malformed(in.position(), r.length(), dst);
+			} else if (!in.hasRemaining()) {
+				return true;
+			} else if (complete) {
+				// 该段末尾的不完整序列
+				malformed(in.position(), in.remaining(), dst);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * 处理从下标i开始的n个非法字节: 抛出异常, 或替换后跳过
+	 */
+	private void malformed(int i, int n, WritableByteChannel dst) throws IOException {
+		long offset = base + i;
+		if (!replace) {
+			throw new MalformedException("malformed " + decoder.charset().name() + " input", offset, n);
+		}
+		replaced(offset);
+		in.position(i + n);
+		if (!encodesReplacement) {
+			// 先输出已解码的字符, 保持顺序; 否则U+FFFD在编码时会再被替换计数一次
+			encode(dst, false);
+			putReplacement(dst);
+			return;
+		}
+		if (!chars.hasRemaining()) {
+			encode(dst, false);
+		}
+		chars.put('\uFFFD');
+	}
+
+	private void putReplacement(WritableByteChannel dst) throws IOException {
+		byte[] rep = encoder.replacement();
+		if (out.remaining() < rep.length) {
+			drain(dst);
+		}
+		out.put(rep);
+	}
+
+	private void replaced(long offset) {
+		if (stats.replaced++ == 0) {
+			stats.firstReplaced = offset;
+		}
+	}
+
+	/**
+	 * 将已解码的字符编码到out
+	 */
+	private void encode(WritableByteChannel dst, boolean endOfInput) throws IOException {
+		chars.flip();
+		for (;;) {
+			CoderResult r = encoder.encode(chars, out, endOfInput);
+			if (r.isOverflow()) {
+				drain(dst);
+			} else if (r.isError()) {
+				int n = r.length();
+				long offset = base + in.position();
+				if (!replace) {
+					throw new MalformedException("unmappable " + encoder.charset().name() + " character U+"
+							+ Integer.toHexString(Character.codePointAt(chars, 0)).toUpperCase(), offset, n);
+				}
+				replaced(offset);
+				chars.position(chars.position() + n);
+				putReplacement(dst);
+			} else {
+				break;
+			}
+		}
+		chars.compact();
+	}
+
+	/**
+	 * 写出out中的内容
+	 */
+	private void drain(WritableByteChannel dst) throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			stats.bytesWritten += dst.write(out);
+		}
+		out.clear();
+	}
+}
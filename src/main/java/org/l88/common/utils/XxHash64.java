@@ -0,0 +1,181 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * xxHash64非加密散列, 结果与参考实现(XXH64)相同.
+ * <p>
+ * 用于缓存键、分片键等场合代替MD5, 速度快得多. 16进制表示与<code>xxhsum</code>一致(大端).
+ *
+ * <pre>
+ * String key = Strings.toHex(XxHash64.hashUtf8(url));
+ *
+ * XxHash64 h = new XxHash64();
+ * h.updateUtf8(name);
+ * h.update(bytes);
+ * long v = h.getValue();
+ * </pre>
+ *
+ * @author alexpaul@126.com
+ *
+ */
+public final class XxHash64 extends StreamingHash {
+
+	private static final long P1 = 0x9E3779B185EBCA87L;
+	private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long P3 = 0x165667B19E3779F9L;
+	private static final long P4 = 0x85EBCA77C2B2AE63L;
+	private static final long P5 = 0x27D4EB2F165667C5L;
+
+	private final long seed;
+	private long v1;
+	private long v2;
+	private long v3;
+	private long v4;
+
+	public XxHash64() {
+		this(0);
+	}
+
+	/**
+	 * @param seed
+	 *            种子
+	 */
+	public XxHash64(long seed) {
+		super(32);
+		this.seed = seed;
+		reset();
+	}
+
+	// {{ 一次计算
+	/**
+	 * @return 字节数组的散列值(种子为0)
+	 */
+	public static long hash(byte[] b) {
+		return hash(b, 0, b.length);
+	}
+
+	/**
+	 * @return 字节数组一段的散列值(种子为0)
+	 */
+	public static long hash(byte[] b, int off, int len) {
+		XxHash64 h = new XxHash64();
+		h.update(b, off, len);
+		return h.getValue();
+	}
+
+	/**
+	 * @return ByteBuffer的position到limit之间内容的散列值(种子为0)
+	 */
+	public static long hash(ByteBuffer src) {
+		XxHash64 h = new XxHash64();
+		h.update(src);
+		return h.getValue();
+	}
+
+	/**
+	 * @return 字符按UTF-16LE编码的散列值(种子为0)
+	 */
+	public static long hashChars(CharSequence s) {
+		XxHash64 h = new XxHash64();
+		h.updateChars(s);
+		return h.getValue();
+	}
+
+	/**
+	 * @return 字符按UTF-8编码的散列值(种子为0), 同<code>hash(s.getBytes("UTF-8"))</code>
+	 */
+	public static long hashUtf8(CharSequence s) {
+		XxHash64 h = new XxHash64();
+		h.updateUtf8(s);
+		return h.getValue();
+	}
+	// }}
+
+	@Override
+	public XxHash64 reset() {
+		v1 = seed + P1 + P2;
+		v2 = seed + P2;
+		v3 = seed;
+		v4 = seed - P1;
+		bufLen = 0;
+		total = 0;
+		return this;
+	}
+
+	@Override
+	void block(byte[] b, int off) {
+		v1 = round(v1, getLong(b, off));
+		v2 = round(v2, getLong(b, off + 8));
+		v3 = round(v3, getLong(b, off + 16));
+		v4 = round(v4, getLong(b, off + 24));
+	}
+
+	/**
+	 * @return 目前已输入内容的散列值
+	 */
+	public long getValue() {
+		long h;
+		if (total >= 32) {
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = merge(h, v1);
+			h = merge(h, v2);
+			h = merge(h, v3);
+			h = merge(h, v4);
+		} else {
+			h = seed + P5;
+		}
+		h += total;
+		int i = 0;
+		for (; i + 8 <= bufLen; i += 8) {
+			h ^= round(0, getLong(buf, i));
+			h = Long.rotateLeft(h, 27) * P1 + P4;
+		}
+		if (i + 4 <= bufLen) {
+			h ^= getInt(buf, i) * P1;
+			h = Long.rotateLeft(h, 23) * P2 + P3;
+			i += 4;
+		}
+		for (; i < bufLen; i++) {
+			h ^= (buf[i] & 0xFF) * P5;
+			h = Long.rotateLeft(h, 11) * P1;
+		}
+		h ^= h >>> 33;
+		h *= P2;
+		h ^= h >>> 29;
+		h *= P3;
+		h ^= h >>> 32;
+		return h;
+	}
+
+	@Override
+	public String toHex() {
+		return Strings.toHex(getValue());
+	}
+
+	private static long round(long acc, long input) {
+		acc += input * P2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * P1;
+	}
+
+	private static long merge(long acc, long v) {
+		acc ^= round(0, v);
+		return acc * P1 + P4;
+	}
+}
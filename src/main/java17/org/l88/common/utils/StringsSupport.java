@@ -0,0 +1,133 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+/**
+ * {@link Strings}热点方法的实现(JDK 17+版本).
+ * <p>
+ * JDK 13起String.replace(CharSequence, CharSequence)按Latin1/UTF16分别实现, 一次预估长度直接生成结果,
+ * 因此除与旧实现结果不同的空匹配串外都直接使用.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+final class StringsSupport {
+
+	private StringsSupport() {
+	}
+
+	static String replace(String input, String matchString, String newString) {
+		if (matchString.isEmpty() || newString == null) {
+			return replaceEach(input, matchString, newString);
+		}
+		return input.replace(matchString, newString);
+	}
+
+	private static String replaceEach(String input, String matchString, String newString) {
+		int i = input.indexOf(matchString);
+		if (i < 0) {
+			return input;
+		}
+		int oLength = matchString.length();
+		if (oLength == 0) {
+			// 空匹配串只在开头插入一次
+			return String.valueOf(newString).concat(input);
+		}
+		StringBuilder buf = new StringBuilder(input.length() + Math.max(16, newString.length() - oLength));
+		buf.append(input, 0, i).append(newString);
+		i += oLength;
+		int j = i;
+		while ((i = input.indexOf(matchString, i)) >= 0) {
+			buf.append(input, j, i).append(newString);
+			i += oLength;
+			j = i;
+		}
+		buf.append(input, j, input.length());
+		return buf.toString();
+	}
+
+	static String escapeXML(String xml) {
+		if (xml == null || xml.isEmpty()) {
+			return xml;
+		}
+		int len = xml.length();
+		int i = 0;
+		while (i < len && escapeXML(xml.charAt(i)) == null) {
+			i++;
+		}
+		if (i == len) {
+			return xml;
+		}
+		StringBuilder buf = new StringBuilder(len + 16);
+		int j = 0;
+		for (; i < len; i++) {
+			String esc = escapeXML(xml.charAt(i));
+			if (esc != null) {
+				buf.append(xml, j, i).append(esc);
+				j = i + 1;
+			}
+		}
+		buf.append(xml, j, len);
+		return buf.toString();
+	}
+
+	static String escapeHTML(String input) {
+		if (input == null || input.isEmpty()) {
+			return input;
+		}
+		int len = input.length();
+		int i = 0;
+		while (i < len && escapeHTML(input.charAt(i)) == null) {
+			i++;
+		}
+		if (i == len) {
+			return input;
+		}
+		StringBuilder buf = new StringBuilder(len + 16);
+		int j = 0;
+		for (; i < len; i++) {
+			String esc = escapeHTML(input.charAt(i));
+			if (esc != null) {
+				buf.append(input, j, i).append(esc);
+				j = i + 1;
+			}
+		}
+		buf.append(input, j, len);
+		return buf.toString();
+	}
+
+	/**
+	 * @return 替换串, <tt>null</tt> 无需转义
+	 */
+	private static String escapeXML(char ch) {
+		return switch (ch) {
+		case '<' -> "&lt;";
+		case '>' -> "&gt;";
+		case '"' -> "&quot;";
+		case '\'' -> "&apos;";
+		case '&' -> "&amp;";
+		default -> null;
+		};
+	}
+
+	private static String escapeHTML(char ch) {
+		return switch (ch) {
+		case '\r' -> "";
+		case '\n' -> "<br>";
+		default -> escapeXML(ch);
+		};
+	}
+}
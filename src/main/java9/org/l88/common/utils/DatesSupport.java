@@ -0,0 +1,170 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link Dates}热点方法的实现(JDK 9+版本).
+ * <p>
+ * 仅由数字字段(yyyy、MM、dd、HH、mm、ss、SSS)和文字组成的格式, 缓存线程安全的DateTimeFormatter, 不再每次创建SimpleDateFormat.
+ * 其它格式, 或缺省区域不是公历、不用阿拉伯数字时, 仍使用SimpleDateFormat, 保证结果一致.
+ * DateTimeFormatter使用前推格里高利历, SimpleDateFormat在1582-10-15之前使用儒略历, 年份超过9999时两者的写法也不同,
+ * 因此这两个范围之外的日期也使用SimpleDateFormat.
+ * 1900年前后java.util.TimeZone只用标准偏移, ZoneId却用地方平时(LMT), 两者偏移不同的时刻同样使用SimpleDateFormat.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+final class DatesSupport {
+
+	private static final int MAX_CACHED = 256;
+
+	// 不能转换的格式的占位
+	private static final DateTimeFormatter UNSUPPORTED = DateTimeFormatter.BASIC_ISO_DATE;
+
+	private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+	/**
+	 * 格里高利历的起点1582-10-15T00:00Z加一天(时区偏移不超过一天), 之前SimpleDateFormat按儒略历
+	 */
+	private static final long GREGORIAN_CUTOVER = -12219292800000L + 86400000L;
+	/**
+	 * 10000-01-01T00:00Z减一天(时区偏移不超过一天), 之后年份可能超过4位
+	 */
+	private static final long YEAR_10000 = 253402300800000L - 86400000L;
+
+	/**
+	 * 区域及其检查结果, 一起发布
+	 */
+	private static final class LocaleCheck {
+		final Locale locale;
+		final boolean supported;
+
+		LocaleCheck(Locale locale, boolean supported) {
+			this.locale = locale;
+			this.supported = supported;
+		}
+	}
+
+	private static volatile LocaleCheck localeCheck = new LocaleCheck(null, false);
+
+	private DatesSupport() {
+	}
+
+	static String format(java.util.Date _date, String _pattern) {
+		if (_date == null) {
+			return "";
+		}
+		DateTimeFormatter f = FORMATTERS.get(_pattern);
+		if (f == null) {
+			f = compile(_pattern);
+			if (FORMATTERS.size() < MAX_CACHED) {
+				FORMATTERS.putIfAbsent(_pattern, f);
+			}
+		}
+		long millis = _date.getTime();
+		if (f == UNSUPPORTED || millis < GREGORIAN_CUTOVER || millis >= YEAR_10000
+				|| !localeSupported(Locale.getDefault(Locale.Category.FORMAT))) {
+			return new SimpleDateFormat(_pattern).format(_date);
+		}
+		TimeZone tz = TimeZone.getDefault();
+		ZoneId zone = tz.toZoneId();
+		Instant instant = Instant.ofEpochMilli(millis);
+		if (zone.getRules().getOffset(instant).getTotalSeconds() * 1000L != tz.getOffset(millis)) {
+			return new SimpleDateFormat(_pattern).format(_date);
+		}
+		return f.format(instant.atZone(zone));
+	}
+
+	private static boolean localeSupported(Locale locale) {
+		LocaleCheck c = localeCheck;
+		if (c.locale != locale) {
+			c = new LocaleCheck(locale, "gregory".equals(Calendar.getInstance(locale).getCalendarType())
+					&& DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0');
+			localeCheck = c;
+		}
+		return c.supported;
+	}
+
+	/**
+	 * 将SimpleDateFormat格式转为含义相同的DateTimeFormatter
+	 *
+	 * @return {@link #UNSUPPORTED} 如果含有结果可能不同的字段
+	 */
+	private static DateTimeFormatter compile(String pattern) {
+		int len = pattern.length();
+		for (int i = 0; i < len;) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				int end = pattern.indexOf('\'', i + 1);
+				if (end < 0) {
+					return UNSUPPORTED;
+				}
+				i = end + 1;
+				continue;
+			}
+			if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+				// DateTimeFormatter的保留字符
+				return UNSUPPORTED;
+			}
+			int n = 1;
+			while (i + n < len && pattern.charAt(i + n) == c) {
+				n++;
+			}
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+				switch (c) {
+				case 'y':
+				case 'd':
+				case 'H':
+				case 'm':
+				case 's':
+					if (n > 2 && c != 'y') {
+						return UNSUPPORTED;
+					}
+					break;
+				case 'M':
+					if (n > 2) {
+						return UNSUPPORTED;
+					}
+					break;
+				case 'S':
+					if (n != 3) {
+						return UNSUPPORTED;
+					}
+					break;
+				default:
+					return UNSUPPORTED;
+				}
+			}
+			i += n;
+		}
+		try {
+			return DateTimeFormatter.ofPattern(pattern);
+		} catch (IllegalArgumentException e) {
+			return UNSUPPORTED;
+		}
+	}
+}
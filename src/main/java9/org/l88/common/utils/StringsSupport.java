@@ -0,0 +1,133 @@
+/**                                                                                                                                                                                  
+ *    Copyright 2016-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.l88.common.utils;
+
+/**
+ * {@link Strings}热点方法的实现(JDK 9+版本).
+ * <p>
+ * JDK 9起String内部为紧凑存储(Latin1为单字节), toCharArray()会展开复制整个字符串,
+ * 因此这里直接按区间追加到非同步的StringBuilder中, 并只在需要转义时才复制.
+ *
+ * @author alexpaul@126.com
+ *
+ */
+final class StringsSupport {
+
+	private StringsSupport() {
+	}
+
+	static String replace(String input, String matchString, String newString) {
+		int i = input.indexOf(matchString);
+		if (i < 0) {
+			return input;
+		}
+		int oLength = matchString.length();
+		if (oLength == 0) {
+			// 空匹配串只在开头插入一次
+			return String.valueOf(newString).concat(input);
+		}
+		StringBuilder buf = new StringBuilder(input.length() + Math.max(16, newString.length() - oLength));
+		buf.append(input, 0, i).append(newString);
+		i += oLength;
+		int j = i;
+		while ((i = input.indexOf(matchString, i)) >= 0) {
+			buf.append(input, j, i).append(newString);
+			i += oLength;
+			j = i;
+		}
+		buf.append(input, j, input.length());
+		return buf.toString();
+	}
+
+	static String escapeXML(String xml) {
+		if (xml == null || xml.length() == 0) {
+			return xml;
+		}
+		int len = xml.length();
+		int i = 0;
+		while (i < len && escapeXML(xml.charAt(i)) == null) {
+			i++;
+		}
+		if (i == len) {
+			return xml;
+		}
+		StringBuilder buf = new StringBuilder(len + 16);
+		int j = 0;
+		for (; i < len; i++) {
+			String esc = escapeXML(xml.charAt(i));
+			if (esc != null) {
+				buf.append(xml, j, i).append(esc);
+				j = i + 1;
+			}
+		}
+		buf.append(xml, j, len);
+		return buf.toString();
+	}
+
+	static String escapeHTML(String input) {
+		if (input == null || input.length() == 0) {
+			return input;
+		}
+		int len = input.length();
+		int i = 0;
+		while (i < len && escapeHTML(input.charAt(i)) == null) {
+			i++;
+		}
+		if (i == len) {
+			return input;
+		}
+		StringBuilder buf = new StringBuilder(len + 16);
+		int j = 0;
+		for (; i < len; i++) {
+			String esc = escapeHTML(input.charAt(i));
+			if (esc != null) {
+				buf.append(input, j, i).append(esc);
+				j = i + 1;
+			}
+		}
+		buf.append(input, j, len);
+		return buf.toString();
+	}
+
+	/**
+	 * @return 替换串, <tt>null</tt> 无需转义
+	 */
+	private static String escapeXML(char ch) {
+		switch (ch) {
+		case '<':
+			return "&lt;";
+		case '>':
+			return "&gt;";
+		case '"':
+			return "&quot;";
+		case '\'':
+			return "&apos;";
+		case '&':
+			return "&amp;";
+		default:
+			return null;
+		}
+	}
+
+	private static String escapeHTML(char ch) {
+		if (ch == '\r') {
+			return "";
+		} else if (ch == '\n') {
+			return "<br>";
+		}
+		return escapeXML(ch);
+	}
+}
@@ -5,8 +5,30 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({DatesTest.class,
-	StringsTest.class})
+@SuiteClasses({AllocationBudgetTest.class,
+	BinaryCodecTest.class,
+	BusinessCalendarTest.class,
+	ByteStringsTest.class,
+	CharFilterTest.class,
+	CsvWriterTest.class,
+	DateSnifferTest.class,
+	DatesTest.class,
+	EastAsianWidthTest.class,
+	HexDumpTest.class,
+	IdentifierCacheTest.class,
+	Iso8601Test.class,
+	JsonEscaperTest.class,
+	LineProcessorTest.class,
+	MetricsTest.class,
+	ParallelStringsTest.class,
+	SearcherTest.class,
+	SerialGeneratorTest.class,
+	SimilarityTest.class,
+	StreamingHashTest.class,
+	StringPipelineTest.class,
+	StringsTest.class,
+	TimeBucketsTest.class,
+	TranscoderTest.class})
 public class AllTests {
 
 }
@@ -0,0 +1,323 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 热点方法每次调用的内存分配预算.
+ * <p>
+ * 通过 com.sun.management.ThreadMXBean.getThreadAllocatedBytes 统计当前线程的分配字节数,
+ * 预热后取多次调用的平均值, 超过预算时列出所有方法的对比结果.
+ */
+public class AllocationBudgetTest {
+
+	private static final int WARMUP = 20000;
+	private static final int ROUNDS = 20000;
+
+	static volatile Object sink;
+
+	private com.sun.management.ThreadMXBean mx;
+
+	abstract static class Op {
+		final String name;
+		final long budget;
+
+		Op(String name, long budget) {
+			this.name = name;
+			this.budget = budget;
+		}
+
+		abstract Object run();
+	}
+
+	public static class Bean {
+		private final String name;
+		private final Bean child;
+		public final String[] items = { "a", "b" };
+
+		Bean(String name, Bean child) {
+			this.name = name;
+			this.child = child;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Bean getChild() {
+			return child;
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		mx = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(mx.isThreadAllocatedMemorySupported());
+		mx.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	private long allocatedPerCall(Op op) {
+		long tid = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP; i++) {
+			sink = op.run();
+		}
+		// 取多次测量的最小值, 排除偶发的内部分配(如TLAB更替)
+		long best = Long.MAX_VALUE;
+		for (int r = 0; r < 3; r++) {
+			long before = mx.getThreadAllocatedBytes(tid);
+			for (int i = 0; i < ROUNDS; i++) {
+				sink = op.run();
+			}
+			long after = mx.getThreadAllocatedBytes(tid);
+			best = Math.min(best, (after - before) / ROUNDS);
+		}
+		return best;
+	}
+
+	private void check(List<Op> ops) {
+		StringBuilder report = new StringBuilder();
+		boolean failed = false;
+		report.append(String.format("%n%-24s %10s %10s%n", "method", "budget", "bytes/call"));
+		for (Op op : ops) {
+			long actual = allocatedPerCall(op);
+			boolean over = actual > op.budget;
+			failed |= over;
+			report.append(String.format("%-24s %10d %10d%s%n", op.name, op.budget, actual, over ? "  OVER BUDGET" : ""));
+		}
+		assertFalse("allocation budget exceeded:" + report, failed);
+	}
+
+	@Test
+	public void testStrings() {
+		final Map<String, String> vars = new HashMap<String, String>();
+		final Bean order = new Bean("张三", new Bean("李四", null));
+		final IdentifierCache names = new IdentifierCache(16, 64);
+		final Searcher ab = new Searcher("ab");
+		vars.put("var1", "v1");
+		vars.put("var2", "v2");
+		vars.put("var3", "v3");
+		final CsvWriter csv = new CsvWriter(new Writer() {
+			public void write(char[] cbuf, int off, int len) {
+			}
+
+			public void flush() {
+			}
+
+			public void close() {
+			}
+		});
+		final byte[] hash = new byte[16];
+		for (int i = 0; i < hash.length; i++) {
+			hash[i] = (byte) (i * 17);
+		}
+
+		List<Op> ops = new ArrayList<Op>();
+		ops.add(new Op("split", 600) {
+			Object run() {
+				return Strings.split("aa,bbb,, ,cc,", ',');
+			}
+		});
+		ops.add(new Op("replace", 400) {
+			Object run() {
+				return Strings.replace("aabbccaabbcc", "ab", "dd");
+			}
+		});
+		ops.add(new Op("replace(no match)", 0) {
+			Object run() {
+				return Strings.replace("aabbccaabbcc", "xy", "dd");
+			}
+		});
+		ops.add(new Op("Searcher.replace", 250) {
+			Object run() {
+				return ab.replace("aabbccaabbcc", "dd");
+			}
+		});
+		ops.add(new Op("Searcher(no match)", 0) {
+			Object run() {
+				return ab.replace("aaxbbccaaxbbcc", "dd");
+			}
+		});
+		ops.add(new Op("Searcher.count", 0) {
+			Object run() {
+				return ab.count("aabbccaabbcc");
+			}
+		});
+		ops.add(new Op("escapeXML", 1200) {
+			Object run() {
+				return Strings.escapeXML("a<b>c&d;'e\"f");
+			}
+		});
+		ops.add(new Op("escapeHTML", 1500) {
+			Object run() {
+				return Strings.escapeHTML("a<b>c&d;'e\"f\ng\r\nh");
+			}
+		});
+		ops.add(new Op("replaceVar", 800) {
+			Object run() {
+				return Strings.replaceVar("${var3}--${var1}--${var2}", vars);
+			}
+		});
+		ops.add(new Op("replaceVar(path)", 1000) {
+			Object run() {
+				return Strings.replaceVar("${name}--${child.name}--${items[1]}", order);
+			}
+		});
+		ops.add(new Op("toHex", 400) {
+			Object run() {
+				return Strings.toHex(hash);
+			}
+		});
+		ops.add(new Op("toBase64", 400) {
+			Object run() {
+				return Strings.toBase64(hash);
+			}
+		});
+		ops.add(new Op("toBase62", 400) {
+			Object run() {
+				return Strings.toBase62(hash);
+			}
+		});
+		ops.add(new Op("XxHash64.hashUtf8", 450) {
+			Object run() {
+				return Strings.toHex(XxHash64.hashUtf8("http://example.com/中文"));
+			}
+		});
+		ops.add(new Op("Murmur3.hashUtf8", 550) {
+			Object run() {
+				return Murmur3.hashUtf8("http://example.com/中文").toHex();
+			}
+		});
+		final StringBuilder gb = new StringBuilder("a中文字符abc");
+		ops.add(new Op("hexToBytes", 1600) {
+			Object run() {
+				return Strings.hexToBytes("00ff011a1f00ff011a1f00ff011a1f00");
+			}
+		});
+		ops.add(new Op("gbStrLen", 1100) {
+			Object run() {
+				return Strings.gbStrLen("a中文");
+			}
+		});
+		ops.add(new Op("gbStrLen(StringBuilder)", 64) {
+			Object run() {
+				return Strings.gbStrLen(gb);
+			}
+		});
+		ops.add(new Op("lFillStr", 1600) {
+			Object run() {
+				return Strings.lFillStr("abc中def", '0', 10);
+			}
+		});
+		ops.add(new Op("displayWidth", 0) {
+			Object run() {
+				return Strings.displayWidth("abc中文，ａｂ");
+			}
+		});
+		ops.add(new Op("toHalfWidth(no change)", 0) {
+			Object run() {
+				return Strings.toHalfWidth("abc中文");
+			}
+		});
+		ops.add(new Op("lFillWidth", 300) {
+			Object run() {
+				return Strings.lFillWidth("abc中def", '0', 10);
+			}
+		});
+		ops.add(new Op("capitalize", 200) {
+			Object run() {
+				return Strings.capitalize("userName");
+			}
+		});
+		ops.add(new Op("capitalize(no change)", 0) {
+			Object run() {
+				return Strings.capitalize("UserName");
+			}
+		});
+		ops.add(new Op("toSnakeCase", 300) {
+			Object run() {
+				return Strings.toSnakeCase("userName");
+			}
+		});
+		ops.add(new Op("toSnakeCase(no change)", 0) {
+			Object run() {
+				return Strings.toSnakeCase("user_name");
+			}
+		});
+		ops.add(new Op("IdentifierCache", 0) {
+			Object run() {
+				return names.toSnakeCase("userName");
+			}
+		});
+		ops.add(new Op("trimPunct", 200) {
+			Object run() {
+				return Strings.trimPunct("a,b.c:d;e'f\"");
+			}
+		});
+		ops.add(new Op("trimPunct(no change)", 0) {
+			Object run() {
+				return Strings.trimPunct("abcdef中文");
+			}
+		});
+		ops.add(new Op("editDistance", 0) {
+			Object run() {
+				return Strings.editDistance("kitten张三丰", "sitting张三峰");
+			}
+		});
+		ops.add(new Op("CsvWriter.row", 0) {
+			Object run() {
+				try {
+					return csv.field("plain").field("say \"hi\", 张三").field(1234567L).endRow();
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		ops.add(new Op("jaroWinkler", 48) {
+			Object run() {
+				return Strings.jaroWinkler("MARTHA", "MARHTA");
+			}
+		});
+		check(ops);
+	}
+
+	@Test
+	public void testDates() {
+		Calendar cal = Calendar.getInstance();
+		cal.set(2016, 0, 30, 13, 21, 11);
+		final Date d = cal.getTime();
+
+		List<Op> ops = new ArrayList<Op>();
+		ops.add(new Op("format", 4000) {
+			Object run() {
+				return Dates.format(d, Dates.DATE_FORMAT_YMD);
+			}
+		});
+		ops.add(new Op("omitForDate", 1200) {
+			Object run() {
+				return Dates.omitForDate(d);
+			}
+		});
+		ops.add(new Op("toTimestamp", 100) {
+			Object run() {
+				return Dates.toTimestamp(d);
+			}
+		});
+		check(ops);
+	}
+}
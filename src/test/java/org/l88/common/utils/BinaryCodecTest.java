@@ -0,0 +1,146 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BinaryCodecTest {
+
+	private static final String[] RFC4648 = { "", "f", "fo", "foo", "foob", "fooba", "foobar" };
+
+	@Test
+	public void testRfc4648() throws Exception {
+		String[] base64 = { "", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy" };
+		String[] base32 = { "", "MY======", "MZXQ====", "MZXW6===", "MZXW6YQ=", "MZXW6YTB", "MZXW6YTBOI======" };
+		for (int i = 0; i < RFC4648.length; i++) {
+			byte[] b = RFC4648[i].getBytes("US-ASCII");
+			assertEquals(base64[i], Strings.toBase64(b));
+			assertArrayEquals(b, Strings.base64ToBytes(base64[i]));
+			assertEquals(base64[i].replace("=", ""), Strings.toBase64Url(b));
+			assertArrayEquals(b, Strings.base64ToBytes(base64[i].replace("=", "")));
+			assertEquals(base32[i], Strings.toBase32(b));
+			assertArrayEquals(b, Strings.base32ToBytes(base32[i]));
+		}
+		byte[] b = { (byte) 0xfb, (byte) 0xff, (byte) 0xbf };
+		assertEquals("+/+/", Strings.toBase64(b));
+		assertEquals("-_-_", Strings.toBase64Url(b));
+		assertArrayEquals(b, Strings.base64UrlToBytes("-_-_"));
+	}
+
+	@Test
+	public void testBase62() {
+		assertEquals("", Strings.toBase62(new byte[0]));
+		assertEquals("00", Strings.toBase62(new byte[1]));
+		assertEquals("47", Strings.toBase62(new byte[] { (byte) 0xff }));
+		assertEquals("00000000000", Strings.toBase62(new byte[8]));
+		byte[] max = new byte[8];
+		Arrays.fill(max, (byte) 0xff);
+		// 2^64-1 = 62进制 LygHa16AHYF
+		assertEquals("LygHa16AHYF", Strings.toBase62(max));
+		assertArrayEquals(max, Strings.base62ToBytes("LygHa16AHYF"));
+		assertEquals(11 + 3, Strings.toBase62(new byte[10]).length());
+		// 超出范围
+		assertInvalid(BinaryCodec.base62(), "LygHa16AHYG");
+		assertInvalid(BinaryCodec.base62(), "zzzzzzzzzzz");
+		assertInvalid(BinaryCodec.base62(), "48");
+		// 非法长度
+		assertInvalid(BinaryCodec.base62(), "0000");
+		assertInvalid(BinaryCodec.base62(), "0");
+	}
+
+	@Test
+	public void testInvalid() {
+		assertInvalid(BinaryCodec.base64(), "Zm9v!");
+		assertInvalid(BinaryCodec.base64(), "Zm9vY");
+		assertInvalid(BinaryCodec.base64(), "Zm8=A");
+		assertInvalid(BinaryCodec.base64(), "Zg=");
+		assertInvalid(BinaryCodec.base64(), "中文");
+		assertInvalid(BinaryCodec.base64Url(), "Zm9v+");
+		assertInvalid(BinaryCodec.base32(), "mzxw6===");
+	}
+
+	private static void assertInvalid(BinaryCodec codec, String s) {
+		try {
+			codec.decode(s);
+			fail(s);
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		BinaryCodec[] codecs = { BinaryCodec.base64(), BinaryCodec.base64Url(), BinaryCodec.base32(),
+				BinaryCodec.base62() };
+		Random r = new Random(41);
+		for (int round = 0; round < 300; round++) {
+			byte[] data = new byte[r.nextInt(100)];
+			r.nextBytes(data);
+			for (BinaryCodec codec : codecs) {
+				String s = codec.encode(data);
+				assertEquals(codec.encodedLength(data.length), s.length());
+				assertEquals(data.length, codec.decodedLength(s));
+				assertArrayEquals(data, codec.decode(s));
+
+				// Appendable、ByteBuffer输入输出
+				StringBuilder sb = new StringBuilder();
+				codec.encode(data, 0, data.length, sb);
+				assertEquals(s, sb.toString());
+				ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+				direct.put(data).flip();
+				ByteBuffer ascii = ByteBuffer.allocate(s.length());
+				assertEquals(s.length(), codec.encode(direct, ascii));
+				assertEquals(0, direct.position());
+				assertEquals(s, new String(ascii.array(), "US-ASCII"));
+				ascii.flip();
+				ByteBuffer out = ByteBuffer.allocate(data.length);
+				assertEquals(data.length, codec.decode(ascii, out));
+				assertArrayEquals(data, out.array());
+
+				// 流
+				ByteArrayOutputStream bos = new ByteArrayOutputStream();
+				OutputStream os = codec.encodingStream(bos);
+				for (int i = 0; i < data.length;) {
+					int n = Math.min(data.length - i, r.nextInt(20));
+					if (n == 1) {
+						os.write(data[i]);
+					} else {
+						os.write(data, i, n);
+					}
+					i += n;
+				}
+				os.close();
+				assertEquals(s, bos.toString("US-ASCII"));
+				InputStream is = codec.decodingStream(new ByteArrayInputStream(s.getBytes("US-ASCII")));
+				ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+				byte[] buf = new byte[7];
+				int n;
+				while ((n = is.read(buf)) >= 0) {
+					decoded.write(buf, 0, n);
+				}
+				assertArrayEquals(data, decoded.toByteArray());
+			}
+		}
+	}
+
+	@Test
+	public void testDecodingStreamInvalid() throws IOException {
+		InputStream is = BinaryCodec.base64().decodingStream(new ByteArrayInputStream("Zm9v!!!!".getBytes("US-ASCII")));
+		assertEquals('f', is.read());
+		assertEquals('o', is.read());
+		assertEquals('o', is.read());
+		try {
+			is.read();
+			fail();
+		} catch (IOException e) {
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class BusinessCalendarTest {
+
+	private static final String HOLIDAYS = "# 2016 国庆\n" + "20161003 国庆节\n" + "2016-10-04\n"
+			+ "  2016-10-05\t\n" + "\n" + "+2016-10-08 调休上班\n" + "+20161009\n" + "2030-01-01\n";
+
+	private static Date date(int y, int m, int d) {
+		return date(y, m, d, 0);
+	}
+
+	private static Date date(int y, int m, int d, int hour) {
+		Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.set(y, m - 1, d, hour, 0);
+		return cal.getTime();
+	}
+
+	@Test
+	public void testBusinessDays() throws IOException {
+		BusinessCalendar cal = new BusinessCalendar(2016, 2017).load(new StringReader(HOLIDAYS));
+		assertTrue(cal.isBusinessDay(date(2016, 9, 30, 15)));
+		assertFalse(cal.isBusinessDay(date(2016, 10, 1)));
+		assertFalse(cal.isBusinessDay(date(2016, 10, 4, 23)));
+		assertTrue(cal.isBusinessDay(date(2016, 10, 8)));
+		assertTrue(cal.isBusinessDay(date(2016, 10, 9)));
+		assertFalse(cal.isBusinessDay(date(2016, 10, 15)));
+
+		// 9-30(五) T+1 为 10-06(四)
+		assertEquals(date(2016, 10, 6), cal.addBusinessDays(date(2016, 9, 30, 15), 1));
+		assertEquals(date(2016, 10, 8), cal.addBusinessDays(date(2016, 9, 30), 3));
+		assertEquals(date(2016, 10, 10), cal.addBusinessDays(date(2016, 10, 1), 5));
+		assertEquals(date(2016, 9, 30), cal.addBusinessDays(date(2016, 10, 6), -1));
+		assertEquals(date(2016, 9, 30), cal.previousBusinessDay(date(2016, 10, 3)));
+		assertEquals(date(2016, 10, 6), cal.nextBusinessDay(date(2016, 10, 2)));
+		assertEquals(date(2016, 10, 2), cal.addBusinessDays(date(2016, 10, 2, 12), 0));
+		assertEquals(1, cal.businessDaysBetween(date(2016, 9, 30), date(2016, 10, 6)));
+		assertEquals(2, cal.businessDaysBetween(date(2016, 9, 30), date(2016, 10, 7, 9)));
+		assertEquals(-1, cal.businessDaysBetween(date(2016, 10, 6), date(2016, 9, 30)));
+		assertEquals(-1, cal.businessDaysBetween(date(2016, 10, 7), date(2016, 10, 1)));
+		assertEquals(0, cal.businessDaysBetween(date(2016, 10, 1), date(2016, 10, 5)));
+		assertEquals(2, cal.businessDaysBetween(date(2016, 10, 1), date(2016, 10, 7)));
+
+		assertEquals(date(2017, 1, 2), cal.nextBusinessDay(date(2016, 12, 30)));
+		try {
+			cal.nextBusinessDay(date(2017, 12, 29));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			cal.previousBusinessDay(date(2016, 1, 1));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			cal.isBusinessDay(date(2018, 1, 1));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testLoadErrors() {
+		String[] bad = { "2016-1-03", "20161301", "20160230", "2016100", "201610031", "2016/10/03", "+x" };
+		for (String s : bad) {
+			try {
+				new BusinessCalendar(2016, 2016).load(new StringReader("20161001\n" + s));
+				fail(s);
+			} catch (IOException e) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("line 2:"));
+			}
+		}
+	}
+
+	@Test
+	public void testAgainstCalendar() {
+		TimeZone zone = TimeZone.getTimeZone("America/Sao_Paulo");
+		Random r = new Random(45);
+		BusinessCalendar cal = new BusinessCalendar(2010, 2014, zone, Calendar.FRIDAY, Calendar.SATURDAY);
+		Calendar c = Calendar.getInstance(zone);
+		c.clear();
+		c.set(2010, 0, 1);
+		// 随机设置节假日和调休, 同时按日期记录是否工作日
+		Set<Integer> business = new HashSet<Integer>();
+		while (c.get(Calendar.YEAR) < 2015) {
+			int dow = c.get(Calendar.DAY_OF_WEEK);
+			boolean work = dow != Calendar.FRIDAY && dow != Calendar.SATURDAY;
+			if (r.nextInt(8) == 0) {
+				work = !work;
+				if (work) {
+					cal.setWorkday(c.getTime());
+				} else {
+					cal.setHoliday(c.getTime());
+				}
+			}
+			if (work) {
+				business.add(ymd(c));
+			}
+			c.add(Calendar.DAY_OF_MONTH, 1);
+		}
+		// 按日循环的参照实现
+		for (int round = 0; round < 300; round++) {
+			c.clear();
+			c.set(2011, 0, 1);
+			c.add(Calendar.DAY_OF_MONTH, r.nextInt(365 * 3));
+			Date start = c.getTime();
+			int n = r.nextInt(41) - 20;
+			int left = Math.abs(n);
+			while (left > 0) {
+				c.add(Calendar.DAY_OF_MONTH, n > 0 ? 1 : -1);
+				if (business.contains(ymd(c))) {
+					left--;
+				}
+			}
+			c.set(Calendar.HOUR_OF_DAY, 0);
+			Date expected = c.getTime();
+			assertEquals(start + " " + n, expected, cal.addBusinessDays(start, n));
+			if (n != 0) {
+				assertEquals(n, cal.businessDaysBetween(start, expected));
+			}
+		}
+	}
+
+	@Test
+	public void testToUtcMillis() {
+		TimeZone ny = TimeZone.getTimeZone("America/New_York");
+		long local = Chrono.toEpochDay(2016, 11, 6) * Chrono.MILLIS_PER_DAY + 5400000L;
+		// 01:30重复: 取后一个(EST), 与宽松模式的Calendar相同
+		assertEquals(1478413800000L, Chrono.toUtcMillis(local, ny));
+		// 2016-03-13 02:30跳过: 按跳过前的偏移向后推为03:30 EDT
+		local = Chrono.toEpochDay(2016, 3, 13) * Chrono.MILLIS_PER_DAY + 9000000L;
+		assertEquals(1457854200000L, Chrono.toUtcMillis(local, ny));
+
+		Random r = new Random(1045);
+		String[] ids = { "America/New_York", "Europe/London", "Australia/Sydney", "America/Sao_Paulo", "Asia/Shanghai" };
+		for (String id : ids) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			Calendar c = Calendar.getInstance(zone);
+			for (int i = 0; i < 2000; i++) {
+				long day = Chrono.toEpochDay(1990 + r.nextInt(40), 1 + r.nextInt(12), 1 + r.nextInt(28));
+				int ms = r.nextInt(24) * 3600000 + (r.nextBoolean() ? 0 : r.nextInt(3600000));
+				int ymd = Chrono.toYmd(day);
+				c.clear();
+				c.set(ymd / 10000, ymd / 100 % 100 - 1, ymd % 100, ms / 3600000, ms / 60000 % 60, ms / 1000 % 60);
+				c.set(Calendar.MILLISECOND, ms % 1000);
+				assertEquals(id + " " + ymd + " " + ms, c.getTimeInMillis(),
+						Chrono.toUtcMillis(day * Chrono.MILLIS_PER_DAY + ms, zone));
+			}
+		}
+	}
+
+	private static int ymd(Calendar c) {
+		return c.get(Calendar.YEAR) * 10000 + (c.get(Calendar.MONTH) + 1) * 100 + c.get(Calendar.DAY_OF_MONTH);
+	}
+}
@@ -0,0 +1,89 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ByteStringsTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static ByteBuffer utf8(String s) {
+		return ByteBuffer.wrap(s.getBytes(UTF8));
+	}
+
+	private static ByteBuffer direct(String s) {
+		byte[] b = s.getBytes(UTF8);
+		ByteBuffer ret = ByteBuffer.allocateDirect(b.length + 4);
+		ret.put((byte) 'x').put(b).flip();
+		ret.position(1);
+		return ret;
+	}
+
+	private static String str(ByteBuffer b) {
+		return UTF8.decode(b.duplicate()).toString();
+	}
+
+	@Test
+	public void testSplit() {
+		List<ByteBuffer> vs = ByteStrings.split(utf8("中,bbb,, ,文,"), (byte) ',');
+		String[] exp = { "中", "bbb", "", " ", "文", "" };
+		assertEquals(exp.length, vs.size());
+		for (int i = 0; i < exp.length; i++) {
+			assertEquals(exp[i], str(vs.get(i)));
+		}
+		vs = ByteStrings.split(direct(",a"), (byte) ',');
+		assertEquals(2, vs.size());
+		assertEquals("a", str(vs.get(1)));
+
+		byte[] b = "xa;b;cx".getBytes(UTF8);
+		vs = ByteStrings.split(b, 1, 5, (byte) ';');
+		assertEquals(3, vs.size());
+		assertEquals("c", str(vs.get(2)));
+		assertTrue(ByteStrings.split(null, (byte) ',').isEmpty());
+	}
+
+	@Test
+	public void testReplace() {
+		byte[] ab = "ab".getBytes(UTF8);
+		byte[] dd = "dd".getBytes(UTF8);
+		assertEquals("ddaddbcc", str(ByteStrings.replace(utf8("abaabbcc"), ab, dd)));
+		assertEquals("ddaddbcc", str(ByteStrings.replace(direct("abaabbcc"), ab, dd)));
+		assertEquals("中国人", str(ByteStrings.replace(utf8("中华人"), "华".getBytes(UTF8), "国".getBytes(UTF8))));
+		ByteBuffer src = utf8("aabbcc");
+		ByteBuffer v = ByteStrings.replace(src, "x".getBytes(UTF8), dd);
+		assertEquals("aabbcc", str(v));
+		assertTrue(v.isReadOnly());
+		assertEquals(0, src.position());
+
+		byte[] b = "[a,b]".getBytes(UTF8);
+		assertEquals("a, b", str(ByteStrings.replace(b, 1, 3, ",".getBytes(UTF8), ", ".getBytes(UTF8))));
+	}
+
+	@Test
+	public void testEscape() {
+		String s = "a<b>c&d;'e\"f\ng\r\nh中";
+		assertEquals(Strings.escapeXML(s), str(ByteStrings.escapeXML(utf8(s))));
+		assertEquals(Strings.escapeHTML(s), str(ByteStrings.escapeHTML(utf8(s))));
+		assertEquals(Strings.escapeXML(s), str(ByteStrings.escapeXML(direct(s))));
+		assertEquals("abc中", str(ByteStrings.escapeXML(utf8("abc中"))));
+
+		ByteBuffer dst = ByteBuffer.allocate(64);
+		int n = ByteStrings.escapeHTML(utf8(s), dst);
+		dst.flip();
+		assertEquals(n, dst.remaining());
+		assertEquals(Strings.escapeHTML(s), str(dst));
+	}
+
+	@Test
+	public void testToHex() {
+		byte[] hash = { 0x00, (byte) 0xff, 0x01, 0x1a, 0x1f };
+		assertEquals("00ff011a1f", new String(ByteStrings.toHex(hash, 0, hash.length), UTF8));
+		assertEquals("ff01", new String(ByteStrings.toHex(hash, 1, 2), UTF8));
+		assertEquals(Strings.toHex(hash), str(ByteStrings.toHex(ByteBuffer.wrap(hash))));
+	}
+}
@@ -0,0 +1,78 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CharFilterTest {
+
+	@Test
+	public void testPunctMatchesRegex() {
+		StringBuilder all = new StringBuilder();
+		for (int cp = 0; cp <= Character.MAX_CODE_POINT; cp++) {
+			all.appendCodePoint(cp);
+		}
+		String s = all.toString();
+		assertEquals(s.replaceAll("[\\pP\\p{Punct}]", ""), CharFilter.punct().removeFrom(s));
+		assertEquals(s.replaceAll("[\\pP\\p{Punct}]", ""), Strings.trimPunct(s));
+		for (int cp = 0; cp <= Character.MAX_CODE_POINT; cp++) {
+			assertEquals(Character.isWhitespace(cp), CharFilter.whitespace().matches(cp));
+			assertEquals(Character.isDigit(cp), CharFilter.digit().matches(cp));
+		}
+		assertTrue(CharFilter.punct().matches(0x1039F)); // UGARITIC WORD DIVIDER
+		assertFalse(CharFilter.punct().matches(0x1F600));
+	}
+
+	@Test
+	public void testRemoveRetain() {
+		String s = "abc";
+		assertSame(s, CharFilter.punct().removeFrom(s));
+		assertSame(s, Strings.trimPunct(s));
+		assertEquals("", Strings.trimPunct(null));
+		assertNull(CharFilter.punct().removeFrom(null));
+		assertEquals("abc中文", Strings.trimPunct("a,b.c：中“文”!"));
+
+		assertEquals("abc", CharFilter.whitespace().removeFrom(" a b\tc\r\n"));
+		assertEquals("0101234", CharFilter.asciiDigit().retainFrom("tel: 010-1234"));
+		assertEquals("12３", CharFilter.digit().retainFrom("a1b2c３"));
+		assertEquals("12", CharFilter.asciiDigit().retainFrom("a1b2c３"));
+		String digits = "123";
+		assertSame(digits, CharFilter.asciiDigit().retainFrom(digits));
+	}
+
+	@Test
+	public void testCombine() {
+		String smile = new String(Character.toChars(0x1F600));
+		CharFilter f = CharFilter.anyOf("ab" + smile);
+		assertTrue(f.matches('a'));
+		assertTrue(f.matches(0x1F600));
+		assertFalse(f.matches(0x1F601));
+		assertEquals("c", f.removeFrom("a" + smile + "cb"));
+		assertEquals("a" + smile + "b", f.retainFrom("a" + smile + "cb"));
+
+		CharFilter g = f.or(CharFilter.range(0x1F601, 0x1F64F)).or(CharFilter.asciiDigit());
+		assertTrue(g.matches(0x1F600));
+		assertTrue(g.matches(0x1F64F));
+		assertFalse(g.matches(0x1F650));
+		assertTrue(g.matches('5'));
+
+		CharFilter n = g.negate();
+		assertFalse(n.matches('a'));
+		assertTrue(n.matches('c'));
+		assertFalse(n.matches(0x1F620));
+		assertTrue(n.matches(0x1F650));
+		assertTrue(n.matches(0x10000));
+		assertTrue(n.matches(Character.MAX_CODE_POINT));
+		assertEquals("c中", g.removeFrom("ac1中" + smile));
+		assertEquals("c中", n.retainFrom("ac1中" + smile));
+
+		// 未配对的代理按单个字符处理
+		assertEquals("\ud800x", CharFilter.punct().removeFrom("\ud800,x"));
+		try {
+			CharFilter.range(5, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CsvWriterTest {
+
+	private static String utf8(ByteBuffer b) throws IOException {
+		return new String(b.array(), 0, b.position(), "UTF-8");
+	}
+
+	@Test
+	public void testQuoting() throws IOException {
+		StringWriter w = new StringWriter();
+		CsvWriter csv = new CsvWriter(w);
+		csv.field("plain").field("a,b").field("say \"hi\"").field("line\nbreak").field((CharSequence) null).field("")
+				.endRow();
+		csv.field(-42).field(Long.MIN_VALUE).field(0).field(new StringBuilder("x\"")).endRow();
+		csv.row("中文", 3, 1.5, null);
+		assertEquals("", w.toString());
+		csv.flush();
+		assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",,\r\n" + "-42,-9223372036854775808,0,\"x\"\"\"\r\n"
+				+ "中文,3,1.5,\r\n", w.toString());
+		assertEquals(3, csv.getRows());
+	}
+
+	@Test
+	public void testOptions() throws IOException {
+		StringWriter w = new StringWriter();
+		CsvWriter csv = new CsvWriter(w).setDelimiter('\t').setLineSeparator("\n");
+		csv.row(Arrays.asList("a,b", "c\td", "\"")).row();
+		csv.setQuoteAll(true).row("a", 1, null);
+		csv.close();
+		assertEquals("a,b\t\"c\td\"\t\"\"\"\"\n\n\"a\"\t\"1\"\t\"\"\n", w.toString());
+		try {
+			csv.setDelimiter('"');
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			csv.setLineSeparator("");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testLongField() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append("ab\"");
+		}
+		String value = sb.toString();
+		StringWriter w = new StringWriter();
+		CsvWriter csv = new CsvWriter(w);
+		csv.row(value, value);
+		csv.flush();
+		String quoted = '"' + value.replace("\"", "\"\"") + '"';
+		assertEquals(quoted + ',' + quoted + "\r\n", w.toString());
+	}
+
+	@Test
+	public void testByteBuffer() throws IOException {
+		ByteBuffer b = ByteBuffer.allocate(64);
+		CsvWriter csv = new CsvWriter(b);
+		csv.row("é中😀", "a\"b", 7);
+		assertEquals("é中😀,\"a\"\"b\",7\r\n", utf8(b));
+		b.clear();
+		csv.row("\ud83d", "x");
+		assertEquals("?,x\r\n", utf8(b));
+
+		b = ByteBuffer.allocate(16);
+		csv = new CsvWriter(b);
+		csv.row("abc", "def");
+		int mark = b.position();
+		try {
+			csv.field("ghi").field("jklmnop");
+			fail();
+		} catch (BufferOverflowException e) {
+			assertEquals(mark, b.position());
+		}
+		b.clear();
+		csv.row("ghi", "jklmnop");
+		assertEquals("ghi,jklmnop\r\n", utf8(b));
+	}
+}
@@ -0,0 +1,112 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class DateSnifferTest {
+
+	private static long parse(String pattern, String s) throws ParseException {
+		SimpleDateFormat f = new SimpleDateFormat(pattern);
+		f.setLenient(false);
+		return f.parse(s).getTime();
+	}
+
+	@Test
+	public void testStandard() throws ParseException {
+		DateSniffer ds = DateSniffer.standard();
+		String[][] cases = { { "2024-01-02", Dates.DATE_FORMAT_YMD_LONG }, { "20240102", Dates.DATE_FORMAT_YMD },
+				{ "2024/01/02 13:04:05", "yyyy/MM/dd HH:mm:ss" }, { "2024/1/2 3:4:5", "yyyy/M/d H:m:s" },
+				{ "2024-01-02 13:04:05", Dates.TIME_FORMAT_Y_M_D },
+				{ "2024-01-02T13:04:05.123", "yyyy-MM-dd'T'HH:mm:ss.SSS" }, { "202401", Dates.DATE_FORMAT_YM },
+				{ "2024", Dates.DATE_FORMAT_Y }, { "20240102130405", "yyyyMMddHHmmss" } };
+		for (String[] c : cases) {
+			int p = ds.sniff(c[0]);
+			assertTrue(c[0], p >= 0);
+			assertEquals(c[0], c[1], ds.getPattern(p));
+			assertEquals(c[0], parse(c[1], c[0]), ds.parse(c[0]).getTime());
+		}
+		assertEquals(1704164645000L, ds.parse("1704164645").getTime());
+		assertEquals(1704164645123L, ds.parse("1704164645123").getTime());
+		assertEquals(DateSniffer.EPOCH_SECONDS, ds.getPattern(ds.sniff("1704164645")));
+
+		String[] bad = { "", "2024-13-02", "2024-02-30", "2023-02-29", "2024-01-02 24:00:00", "2024-01-02 ",
+				"2024-1-02", "2024/01/2 13:04", "2024年01月02日", "24-01-02", "202401021", "2024-01-02T13:04" };
+		for (String s : bad) {
+			assertEquals(s, -1, ds.sniff(s));
+			assertNull(s, ds.parse(s));
+		}
+		assertEquals(parse("yyyy-MM-dd", "2024-02-29"), ds.parse("2024-02-29").getTime());
+	}
+
+	@Test
+	public void testPriority() throws ParseException {
+		TimeZone utc = TimeZone.getTimeZone("UTC");
+		DateSniffer ds = new DateSniffer(utc, "yyyyMMdd", "ddMMyyyy", "yyyy年M月d日", "HH:mm");
+		// 形状相同: 前一个的取值不合法时尝试后一个
+		assertEquals(0, ds.sniff("20240102"));
+		assertEquals(1, ds.sniff("02012024"));
+		assertEquals(-1, ds.sniff("99999999"));
+		assertEquals(2, ds.sniff("2024年1月2日"));
+		assertEquals(2, ds.sniff("2024年12月31日"));
+		assertEquals(-1, ds.sniff("2024年123月1日"));
+		assertEquals(3, ds.sniff("23:59"));
+		assertEquals((23 * 60 + 59) * 60000L, ds.parse("23:59").getTime());
+
+		String[] unsupported = { "yy-MM-dd", "yyyy-MMM-dd", "yyyy-MM-dd EEE", "yyyyMd", "yyyy'-MM", "" };
+		for (String p : unsupported) {
+			try {
+				new DateSniffer(p);
+				fail(p);
+			} catch (IllegalArgumentException e) {
+			}
+		}
+		assertEquals(0, new DateSniffer("yyyy''MM").sniff("2024'01"));
+	}
+
+	@Test
+	public void testColumn() throws ParseException {
+		DateSniffer.Column col = DateSniffer.standard().column();
+		assertTrue(col.parse("2024-01-02"));
+		assertEquals(Dates.DATE_FORMAT_YMD_LONG, col.getPattern());
+		assertTrue(col.parse("2024-01-03"));
+		assertTrue(col.parse("2024-01-04"));
+		assertEquals(parse("yyyy-MM-dd", "2024-01-04"), col.getTime());
+		assertEquals(2, col.getHits());
+		assertEquals(1, col.getMisses());
+		assertTrue(col.parse("20240105"));
+		assertEquals(Dates.DATE_FORMAT_YMD, col.getPattern());
+		assertFalse(col.parse("x"));
+		assertNull(col.getPattern());
+		assertNull(col.getDate());
+		assertEquals(-1, col.getPatternIndex());
+		assertTrue(col.parse("20240106"));
+		assertEquals(3, col.getHits());
+		assertEquals(new Date(parse("yyyyMMdd", "20240106")), col.getDate());
+	}
+
+	@Test
+	public void testRandom() throws ParseException {
+		String[] patterns = { Dates.TIME_FORMAT_Y_M_D, "yyyy/M/d H:m:s", "yyyyMMddHHmmss", Dates.DATE_FORMAT_YMD };
+		TimeZone zone = TimeZone.getTimeZone("America/Sao_Paulo");
+		DateSniffer ds = new DateSniffer(zone, patterns);
+		Random r = new Random(46);
+		for (int i = 0; i < 5000; i++) {
+			String pattern = patterns[r.nextInt(patterns.length)];
+			SimpleDateFormat f = new SimpleDateFormat(pattern);
+			f.setTimeZone(zone);
+			f.setLenient(false);
+			String s = f.format(new Date(-2000000000000L + (long) (r.nextDouble() * 4000000000000L)));
+			Date d = ds.parse(s);
+			assertNotNull(s, d);
+			assertEquals(s, f.parse(s), d);
+			assertEquals(s, pattern, ds.getPattern(ds.sniff(s)));
+		}
+	}
+}
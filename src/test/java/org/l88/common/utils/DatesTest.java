@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.TimeZone;
 
 import org.junit.After;
 import org.junit.Before;
@@ -20,6 +21,60 @@ public class DatesTest {
 	public void tearDown() throws Exception {
 	}
 
+	@Test
+	public void testFormat() {
+		Calendar cal = Calendar.getInstance();
+		cal.set(2016, 0, 3, 4, 5, 6);
+		cal.set(Calendar.MILLISECOND, 7);
+		java.util.Date d = cal.getTime();
+		assertEquals("20160103", Dates.format(d));
+		assertEquals("", Dates.format(null));
+		String[] patterns = { Dates.TIME_FORMAT_Y_M_D, Dates.DATE_FORMAT_YMD_LONG, Dates.DATE_FORMAT_YM,
+				Dates.DATE_FORMAT_Y, "yyyyMMdd HHmmssSSS", "yy/M/d H:m:s", "yyyy-MM-dd'T'HH:mm:ss.SSS",
+				"yyyy'年'MM'月'dd'日'", "EEE, d MMM yyyy HH:mm:ss Z", "hh:mm a", "yyyy.MM.dd G 'at' HH:mm:ss z",
+				"S", "[yyyy]", "''yyyy''" };
+		for (String p : patterns) {
+			assertEquals(p, new SimpleDateFormat(p).format(d), Dates.format(d, p));
+		}
+	}
+
+	@Test
+	public void testFormatOutsideGregorian() {
+		// 1582-10-15之前为儒略历, 年份超过9999时不加'+'
+		long[] times = { -15000000000000L, -12219292800001L, -12219292800000L, -62135769600000L,
+				253402300800000L, 253402214400000L };
+		String[] patterns = { "yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss.SSS", "yy/M/d" };
+		for (long t : times) {
+			java.util.Date d = new java.util.Date(t);
+			for (String p : patterns) {
+				assertEquals(t + " " + p, new SimpleDateFormat(p).format(d), Dates.format(d, p));
+			}
+		}
+	}
+
+	@Test
+	public void testFormatHistoricalZone() throws Exception {
+		// 1900年前ZoneId用地方平时, TimeZone用标准偏移; 儒略历切换点按本地时间
+		String[] zones = { "Asia/Shanghai", "America/New_York", "Europe/Amsterdam" };
+		String[] patterns = { "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm" };
+		TimeZone saved = TimeZone.getDefault();
+		try {
+			for (String z : zones) {
+				TimeZone.setDefault(TimeZone.getTimeZone(z));
+				long[] times = { new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("1850-06-01 12:00:00").getTime(),
+						-12219292800000L + 3600000L, -12219292800000L + 86400000L };
+				for (long t : times) {
+					java.util.Date d = new java.util.Date(t);
+					for (String p : patterns) {
+						assertEquals(z + " " + t + " " + p, new SimpleDateFormat(p).format(d), Dates.format(d, p));
+					}
+				}
+			}
+		} finally {
+			TimeZone.setDefault(saved);
+		}
+	}
+
 	@Test
 	public void testTimestamp() {
 		Dates.timestamp();
@@ -0,0 +1,60 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class EastAsianWidthTest {
+
+	@Test
+	public void testClass() {
+		assertEquals(EastAsianWidth.NARROW, EastAsianWidth.of('a'));
+		assertEquals(EastAsianWidth.WIDE, EastAsianWidth.of('中'));
+		assertEquals(EastAsianWidth.FULLWIDTH, EastAsianWidth.of('，'));
+		assertEquals(EastAsianWidth.WIDE, EastAsianWidth.of('。'));
+		assertEquals(EastAsianWidth.FULLWIDTH, EastAsianWidth.of('Ａ'));
+		assertEquals(EastAsianWidth.FULLWIDTH, EastAsianWidth.of(0x3000));
+		assertEquals(EastAsianWidth.HALFWIDTH, EastAsianWidth.of('ｱ'));
+		assertEquals(EastAsianWidth.AMBIGUOUS, EastAsianWidth.of('α'));
+		assertEquals(EastAsianWidth.AMBIGUOUS, EastAsianWidth.of('“'));
+		assertEquals(EastAsianWidth.NEUTRAL, EastAsianWidth.of('ç'));
+		assertEquals(EastAsianWidth.WIDE, EastAsianWidth.of(0x1F600));
+		assertEquals(EastAsianWidth.WIDE, EastAsianWidth.of(0x20000));
+		assertEquals(EastAsianWidth.NEUTRAL, EastAsianWidth.of(0x10000));
+		assertEquals(EastAsianWidth.AMBIGUOUS, EastAsianWidth.of(0xF0000));
+		assertEquals(EastAsianWidth.NEUTRAL, EastAsianWidth.of(-1));
+	}
+
+	@Test
+	public void testWidth() {
+		assertEquals(1, EastAsianWidth.width('a'));
+		assertEquals(2, EastAsianWidth.width('中'));
+		assertEquals(0, EastAsianWidth.width(0x0301)); // 组合重音符
+		assertEquals(0, EastAsianWidth.width(0x200B)); // 零宽空格
+		assertEquals(0, EastAsianWidth.width('\n'));
+		assertEquals(1, EastAsianWidth.width('α'));
+		assertEquals(2, EastAsianWidth.width('α', true));
+		assertEquals(2, EastAsianWidth.width(0x1F600));
+		assertEquals(0, EastAsianWidth.width(0xE0100)); // 变体选择符
+
+		String smile = new String(Character.toChars(0x1F600));
+		assertEquals(0, EastAsianWidth.width((CharSequence) null));
+		assertEquals(3, EastAsianWidth.width("abc"));
+		assertEquals(11, EastAsianWidth.width("ab中文，" + smile + "é"));
+		assertEquals(5, EastAsianWidth.width(new StringBuilder("“α”中")));
+		assertEquals(8, EastAsianWidth.width("“α”中", true));
+		// 未配对的代理
+		assertEquals(2, EastAsianWidth.width("\ud83dx"));
+
+		// 所有BMP汉字、假名、全角字符均为2列
+		for (int cp = 0x4E00; cp <= 0x9FFF; cp++) {
+			assertEquals(2, EastAsianWidth.width(cp));
+		}
+		for (int cp = 0xFF01; cp <= 0xFF5E; cp++) {
+			assertEquals(2, EastAsianWidth.width(cp));
+		}
+		for (int cp = 0x20; cp < 0x7F; cp++) {
+			assertEquals(1, EastAsianWidth.width(cp));
+		}
+	}
+}
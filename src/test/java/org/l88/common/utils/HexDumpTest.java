@@ -0,0 +1,105 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class HexDumpTest {
+
+	private static File write(byte[] data) throws IOException {
+		File f = File.createTempFile("hexdump", ".bin");
+		f.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(f);
+		try {
+			out.write(data);
+		} finally {
+			out.close();
+		}
+		return f;
+	}
+
+	private static String dump(HexDump hd, byte[] data) throws IOException {
+		StringWriter w = new StringWriter();
+		hd.dump(ByteBuffer.wrap(data), 0, w);
+		return w.toString();
+	}
+
+	@Test
+	public void testAscii() throws IOException {
+		byte[] data = "Hello, 中文\n".getBytes("UTF-8");
+		String expected = "00000000  48 65 6c 6c 6f 2c 20 e4  b8 ad e6 96 87 0a        |Hello, .......|\n"
+				+ "0000000e\n";
+		assertEquals(expected, dump(new HexDump(), data));
+
+		StringWriter w = new StringWriter();
+		new HexDump().dump(write(data), w);
+		assertEquals(expected, w.toString());
+
+		byte[] zeros = new byte[20];
+		assertEquals("00000000  00 00 00 00 00 00 00 00  00 00 00 00 00 00 00 00  |................|\n"
+				+ "00000010  00 00 00 00                                       |....|\n"
+				+ "00000014\n", dump(new HexDump(), zeros));
+		assertEquals("00000000\n", dump(new HexDump(), new byte[0]));
+	}
+
+	@Test
+	public void testGutter() throws IOException {
+		byte[] data = "Hello, 中文\n".getBytes("UTF-8");
+		assertEquals("00000000  48 65 6c 6c 6f 2c 20 e4  b8 ad e6 96 87 0a        |Hello, 中 文 .|\n"
+				+ "0000000e\n", dump(new HexDump().setGutter(HexDump.UTF8), data));
+
+		// GB18030: 2字节汉字占2列, 不补空格
+		data = "a中文".getBytes("GB18030");
+		assertEquals("00000000  61 d6 d0 ce c4                                    |a中文|\n" + "00000005\n",
+				dump(new HexDump().setGutter(HexDump.GB18030), data));
+
+		// 跨行的多字节字符按单字节显示
+		data = "abc中".getBytes("UTF-8");
+		assertEquals("00000000  61 62 63 e4  |abc.|\n" + "00000004  b8 ad        |..|\n" + "00000006\n",
+				dump(new HexDump().setGutter(HexDump.UTF8).setBytesPerLine(4), data));
+
+		// 非法序列
+		data = new byte[] { (byte) 0xe4, 0x41, (byte) 0xc0, (byte) 0x80 };
+		assertEquals("00000000  e4 41 c0 80                                       |.A..|\n" + "00000004\n",
+				dump(new HexDump().setGutter(HexDump.UTF8), data));
+	}
+
+	@Test
+	public void testRangeAndWindows() throws IOException {
+		byte[] data = new byte[1000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) ('a' + i % 26);
+		}
+		File f = write(data);
+
+		// 小窗口与整体映射结果相同
+		StringWriter whole = new StringWriter();
+		new HexDump().dump(f, whole);
+		StringWriter windows = new StringWriter();
+		new HexDump().setWindowSize(50).dump(f, windows);
+		assertEquals(whole.toString(), windows.toString());
+		assertEquals(dump(new HexDump(), data), whole.toString());
+		assertTrue(whole.toString().endsWith("000003e8\n"));
+
+		// 从偏移开始
+		StringWriter w = new StringWriter();
+		new HexDump().dump(f, 990, 100, w);
+		assertEquals("000003de  63 64 65 66 67 68 69 6a  6b 6c                    |cdefghijkl|\n" + "000003e8\n",
+				w.toString());
+		w = new StringWriter();
+		new HexDump().dump(f, 2000, 10, w);
+		assertEquals("000003e8\n", w.toString());
+
+		// 偏移超过8位
+		w = new StringWriter();
+		new HexDump().dump(ByteBuffer.wrap(new byte[] { 'x' }), 0x123456789L, w);
+		assertEquals("123456789  78                                                |x|\n" + "12345678a\n",
+				w.toString());
+	}
+}
@@ -0,0 +1,35 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class IdentifierCacheTest {
+
+	@Test
+	public void testConvert() {
+		IdentifierCache cache = new IdentifierCache(2, 10);
+		String snake = cache.toSnakeCase("userName");
+		assertEquals("user_name", snake);
+		assertSame(snake, cache.toSnakeCase("userName"));
+		assertEquals("userName", cache.toCamelCase("user_name"));
+		assertEquals("user-name", cache.toKebabCase("userName"));
+		assertEquals("USER_NAME", cache.toUpperSnakeCase("userName"));
+		assertNull(cache.toCamelCase(null));
+
+		// 超过长度不缓存
+		String longer = cache.toSnakeCase("customerAddress");
+		assertEquals("customer_address", longer);
+		assertNotSame(longer, cache.toSnakeCase("customerAddress"));
+
+		// 条目数达到上限时清空
+		cache.toSnakeCase("a1");
+		cache.toSnakeCase("b1");
+		assertNotSame(snake, cache.toSnakeCase("userName"));
+		assertEquals(snake, cache.toSnakeCase("userName"));
+
+		snake = cache.toSnakeCase("userName");
+		cache.clear();
+		assertNotSame(snake, cache.toSnakeCase("userName"));
+	}
+}
@@ -0,0 +1,117 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class Iso8601Test {
+
+	/**
+	 * JDK的格式化(前推格里高利历)
+	 */
+	private static SimpleDateFormat jdk(TimeZone zone, String pattern) {
+		SimpleDateFormat f = new SimpleDateFormat(pattern);
+		GregorianCalendar cal = new GregorianCalendar(zone);
+		cal.setGregorianChange(new Date(Long.MIN_VALUE));
+		f.setCalendar(cal);
+		f.setLenient(false);
+		return f;
+	}
+
+	@Test
+	public void testFormat() throws IOException {
+		assertEquals("1970-01-01T00:00:00.000Z", Iso8601.utc().format(0));
+		assertEquals("1969-12-31T23:59:59.999Z", Iso8601.utc().format(-1));
+		Iso8601 cn = new Iso8601(TimeZone.getTimeZone("Asia/Shanghai"));
+		assertEquals("2016-08-15T09:30:00.123+08:00", cn.format(1471224600123L));
+		assertEquals("2016-08-15T09:30:00.456+08:00", cn.format(1471224600456L));
+		assertEquals("2016-08-15T09:30:01.000+08:00", cn.format(1471224601000L));
+		assertEquals("2016-08-14T21:30:00.123-04:00",
+				new Iso8601(TimeZone.getTimeZone("America/New_York")).format(1471224600123L));
+		assertEquals("2016-08-15T07:00:00.123+05:30",
+				new Iso8601(TimeZone.getTimeZone("Asia/Kolkata")).format(1471224600123L));
+		// 1901年的上海地方时为+08:05:43
+		assertEquals("1900-01-01T08:05:43.000+08:05:43", cn.format(-2208988800000L));
+
+		char[] buf = new char[Iso8601.MAX_LENGTH + 2];
+		assertEquals(24, Iso8601.utc().format(1471224600123L, buf, 2));
+		assertEquals("2016-08-15T01:30:00.123Z", new String(buf, 2, 24));
+		StringBuilder sb = new StringBuilder("t=");
+		cn.format(0, sb);
+		assertEquals("t=1970-01-01T08:00:00.000+08:00", sb.toString());
+		StringWriter w = new StringWriter();
+		cn.format(0, w);
+		assertEquals("1970-01-01T08:00:00.000+08:00", w.toString());
+
+		try {
+			Iso8601.utc().format(253402300800000L);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testParse() {
+		Iso8601 utc = Iso8601.utc();
+		assertEquals(1471224600123L, utc.parse("2016-08-15T01:30:00.123Z"));
+		assertEquals(1471224600123L, utc.parse("2016-08-15T09:30:00.123+08:00"));
+		assertEquals(1471224600123L, utc.parse("2016-08-15t09:30:00.123456789+0800"));
+		assertEquals(1471224600100L, utc.parse("2016-08-15 09:30:00,1+08"));
+		assertEquals(1471224600000L, utc.parse("2016-08-14T21:30:00-04:00"));
+		assertEquals(-2208988800000L, utc.parse("1900-01-01T08:05:43.000+08:05:43"));
+		assertEquals(1471224600000L, utc.parse("2016-08-15T01:30"));
+		assertEquals(1471219200000L, utc.parse("2016-08-15"));
+		assertEquals(1471224600000L, utc.parse("x2016-08-15T01:30:00zx", 1, 21));
+		Iso8601 cn = new Iso8601(TimeZone.getTimeZone("Asia/Shanghai"));
+		assertEquals(1471224600123L, cn.parse("2016-08-15T09:30:00.123"));
+		assertEquals(1471224600123L, cn.parse("2016-08-15T01:30:00.123Z"));
+
+		String[] bad = { "", "2016", "2016-8-15", "2016-08-15T", "2016-08-15T9:30", "2016-08-15T09:30:0",
+				"2016-02-30", "2016-13-01", "2016-08-15T24:00:00", "2016-08-15T09:60", "2016-08-15T09:30:00.",
+				"2016-08-15T09:30:00.123+8", "2016-08-15T09:30:00+19:00", "2016-08-15T09:30:00Z ",
+				"2016-08-15T09:30:00.1234567890Z", "2016-08-15X09:30" };
+		for (String s : bad) {
+			try {
+				utc.parse(s);
+				fail(s);
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+
+	@Test
+	public void testAgainstJdk() throws Exception {
+		Random r = new Random(48);
+		String[] ids = TimeZone.getAvailableIDs();
+		for (int z = 0; z < ids.length; z += 3) {
+			TimeZone zone = TimeZone.getTimeZone(ids[z]);
+			Iso8601 iso = new Iso8601(zone);
+			SimpleDateFormat jdk = jdk(zone, "yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+			SimpleDateFormat local = jdk(zone, "yyyy-MM-dd'T'HH:mm:ss.SSS");
+			for (int k = 0; k < 100; k++) {
+				long t = -62135596800000L + (long) (r.nextDouble() * 315537897599999L);
+				if (k % 2 == 0) {
+					// 整点前后, 含时区切换时刻
+					t = (1000000000000L + (long) (r.nextDouble() * 1000000000000L)) / 3600000 * 3600000
+							+ r.nextInt(2001) - 1000;
+				}
+				String s = iso.format(t);
+				assertEquals(t, iso.parse(s));
+				assertEquals(t, Iso8601.utc().parse(s));
+				if (zone.getOffset(t) % 60000 == 0) {
+					assertEquals(ids[z], jdk.format(new Date(t)), s);
+				}
+				String ls = s.substring(0, 23);
+				assertEquals(ids[z] + " " + ls, local.parse(ls).getTime(), iso.parse(ls));
+			}
+		}
+	}
+}
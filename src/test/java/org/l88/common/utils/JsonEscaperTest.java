@@ -0,0 +1,103 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class JsonEscaperTest {
+
+	@Test
+	public void testEscape() throws IOException {
+		JsonEscaper e = JsonEscaper.standard();
+		String plain = "plain text 中文";
+		assertSame(plain, e.escape(plain));
+		assertEquals("a\\\"b\\\\c\\n\\r\\t\\b\\f", e.escape("a\"b\\c\n\r\t\b\f"));
+		assertEquals("\\u0000\\u001f", e.escape("\u0000\u001f"));
+		assertEquals("</script>\u2028", e.escape("</script>\u2028"));
+		StringBuilder sb = new StringBuilder();
+		e.quote("say \"hi\"", sb);
+		assertEquals("\"say \\\"hi\\\"\"", sb.toString());
+		StringWriter w = new StringWriter();
+		e.escape("x\ny", w);
+		e.escape("zz", w);
+		assertEquals("x\\nyzz", w.toString());
+		assertEquals("a\\\"", Strings.escapeJSON("a\""));
+		assertNull(Strings.escapeJSON(null));
+	}
+
+	@Test
+	public void testAsciiAndScript() {
+		assertEquals("\\u4e2d\\u6587", JsonEscaper.ascii().escape("中文"));
+		assertEquals("\\ud83d\\ude00", JsonEscaper.ascii().escape("\ud83d\ude00"));
+		assertEquals("</b>", JsonEscaper.ascii().escape("</b>"));
+		assertEquals("<\\/script>a/b\\u2028\\u2029", JsonEscaper.script().escape("</script>a/b\u2028\u2029"));
+		assertEquals("</b>\u2028", new JsonEscaper(false, false).escape("</b>\u2028"));
+		assertEquals("<\\/b>\u4e2d\\u2028", new JsonEscaper(false, true).escape("</b>\u4e2d\u2028"));
+	}
+
+	@Test
+	public void testSurrogates() {
+		JsonEscaper e = JsonEscaper.standard();
+		assertEquals("\ud83d\ude00", e.escape("\ud83d\ude00"));
+		assertEquals("a\\ud83d", e.escape("a\ud83d"));
+		assertEquals("\\ude00a", e.escape("\ude00a"));
+		assertEquals("\\ude00\\ud83d", e.escape("\ude00\ud83d"));
+	}
+
+	@Test
+	public void testUnescape() throws IOException {
+		JsonEscaper e = JsonEscaper.standard();
+		String plain = "no escapes";
+		assertSame(plain, e.unescape(plain));
+		assertEquals("a\"b\\c/\b\f\n\r\t", e.unescape("a\\\"b\\\\c\\/\\b\\f\\n\\r\\t"));
+		assertEquals("中\ud83d\ude00", e.unescape("\\u4E2D\\ud83d\\uDE00"));
+		assertEquals("a\nb", Strings.unescapeJSON("a\\nb"));
+		assertNull(Strings.unescapeJSON(null));
+		StringWriter w = new StringWriter();
+		e.unescape(new StringBuilder("x\\ty"), w);
+		assertEquals("x\ty", w.toString());
+		String[] bad = { "\\", "a\\x", "\\u12", "\\u12g4", "\\u\uff11234" };
+		for (String s : bad) {
+			try {
+				e.unescape(s);
+				fail(s);
+			} catch (IllegalArgumentException ex) {
+				// expected
+			}
+		}
+		try {
+			e.unescape("abc\\q");
+			fail();
+		} catch (IllegalArgumentException ex) {
+			assertTrue(ex.getMessage(), ex.getMessage().endsWith("at 3"));
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Random r = new Random(42);
+		JsonEscaper[] all = { JsonEscaper.standard(), JsonEscaper.ascii(), JsonEscaper.script() };
+		char[] pool = { 'a', 'z', '"', '\\', '/', '<', '\n', '\u0001', '\u007f', '\u00e9', '\u4e2d', '\u2028',
+				'\ud83d', '\ude00' };
+		for (int n = 0; n < 2000; n++) {
+			char[] cs = new char[r.nextInt(20)];
+			for (int i = 0; i < cs.length; i++) {
+				cs[i] = pool[r.nextInt(pool.length)];
+			}
+			String s = new String(cs);
+			for (JsonEscaper e : all) {
+				String esc = e.escape(s);
+				assertEquals(s, e.unescape(esc));
+				if (e != JsonEscaper.standard()) {
+					for (int i = 0; i < esc.length(); i++) {
+						assertTrue(esc, esc.charAt(i) < 128);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class LineProcessorTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * 交换前两列, 第三列为"skip"的行不输出; 随机耗时以打乱完成顺序
+	 */
+	private static final LineProcessor.Handler SWAP = new LineProcessor.Handler() {
+		public String process(List<String> fields) {
+			if (fields.size() > 2 && "skip".equals(fields.get(2))) {
+				return null;
+			}
+			if ((fields.get(0).hashCode() & 0x3ff) == 0) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return fields.get(1) + "|" + fields.get(0);
+		}
+	};
+
+	@Test
+	public void testFile() throws IOException {
+		File in = File.createTempFile("jutils", ".csv");
+		File out = File.createTempFile("jutils", ".out");
+		try {
+			Random r = new Random(1);
+			StringBuilder expected = new StringBuilder();
+			Writer w = new OutputStreamWriter(new FileOutputStream(in), UTF8);
+			int n = 20000;
+			int skipped = 0;
+			for (int i = 0; i < n; i++) {
+				boolean skip = r.nextInt(10) == 0;
+				w.write(i + ", 中文" + r.nextInt(1000) + (skip ? ",skip" : "") + "\n");
+				if (skip) {
+					skipped++;
+				}
+			}
+			w.close();
+
+			BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(in), UTF8));
+			String line;
+			while ((line = br.readLine()) != null) {
+				String ret = SWAP.process(Strings.split(line, ',', true));
+				if (ret != null) {
+					expected.append(ret).append('\n');
+				}
+			}
+			br.close();
+
+			LineProcessor p = new LineProcessor(SWAP).setTrim(true).setBatchSize(64).setWorkers(4);
+			LineProcessor.Stats st = p.run(in, out, UTF8);
+			assertSame(st, p.getStats());
+			assertEquals(n, st.getLinesRead());
+			assertEquals(n, st.getLinesProcessed());
+			assertEquals(n - skipped, st.getLinesWritten());
+			assertEquals((n + 63) / 64, st.getBatchesRead());
+			assertTrue(st.toString().startsWith("read " + n + " lines"));
+
+			StringBuilder actual = new StringBuilder();
+			InputStreamReader rd = new InputStreamReader(new FileInputStream(out), UTF8);
+			char[] buf = new char[8192];
+			int k;
+			while ((k = rd.read(buf)) > 0) {
+				actual.append(buf, 0, k);
+			}
+			rd.close();
+			assertEquals(expected.toString(), actual.toString());
+		} finally {
+			in.delete();
+			out.delete();
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws IOException {
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			input.append(i).append(';').append(i * 7).append("\r\n");
+			expected.append(i * 7).append('|').append(i).append("\r\n");
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			LineProcessor p = new LineProcessor(SWAP).setDelimiter(';').setBatchSize(1).setQueueCapacity(1)
+					.setWorkers(3).setLineSeparator("\r\n").setExecutor(pool);
+			StringWriter out = new StringWriter();
+			p.run(new StringReader(input.toString()), out);
+			assertEquals(expected.toString(), out.toString());
+			// 外部线程池不被关闭, 可再次运行
+			out = new StringWriter();
+			p.run(new StringReader(input.toString()), out);
+			assertEquals(expected.toString(), out.toString());
+			assertFalse(pool.isShutdown());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		StringWriter out = new StringWriter();
+		assertEquals(0, new LineProcessor(SWAP).run(new StringReader(""), out).getLinesRead());
+		assertEquals("", out.toString());
+	}
+
+	@Test
+	public void testFailure() {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			input.append(i).append('\n');
+		}
+		LineProcessor p = new LineProcessor(new LineProcessor.Handler() {
+			public String process(List<String> fields) {
+				if ("4321".equals(fields.get(0))) {
+					throw new IllegalStateException("bad line");
+				}
+				return fields.get(0);
+			}
+		}).setBatchSize(10).setWorkers(2);
+		try {
+			p.run(new StringReader(input.toString()), new StringWriter());
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+			assertEquals("bad line", e.getCause().getMessage());
+		}
+	}
+}
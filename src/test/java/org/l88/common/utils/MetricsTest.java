@@ -0,0 +1,68 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MetricsTest {
+
+	@Test
+	public void testBucket() {
+		assertEquals(0, Metrics.Probe.bucket(-1));
+		assertEquals(0, Metrics.Probe.bucket(1));
+		assertEquals(1, Metrics.Probe.bucket(2));
+		assertEquals(1, Metrics.Probe.bucket(3));
+		assertEquals(10, Metrics.Probe.bucket(1024));
+		assertEquals(Metrics.Probe.BUCKETS - 1, Metrics.Probe.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testProbe() {
+		Metrics.Probe p = new Metrics.Probe("test");
+		for (int i = 0; i < Metrics.Probe.SAMPLE_RATE * 2; i++) {
+			p.end(p.begin(), 10);
+		}
+		assertEquals(Metrics.Probe.SAMPLE_RATE * 2, p.calls());
+		assertEquals(Metrics.Probe.SAMPLE_RATE * 20, p.inputSize());
+		long sampled = 0;
+		for (long n : p.histogram()) {
+			sampled += n;
+		}
+		assertEquals(2, sampled);
+
+		p.reset();
+		assertEquals(0, p.calls());
+		assertEquals(0, p.inputSize());
+	}
+
+	@Test
+	public void testProbeThreads() throws Exception {
+		final Metrics.Probe p = new Metrics.Probe("test");
+		Thread[] ts = new Thread[4];
+		for (int i = 0; i < ts.length; i++) {
+			ts[i] = new Thread() {
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						p.end(p.begin(), 1);
+					}
+				}
+			};
+			ts[i].start();
+		}
+		for (Thread t : ts) {
+			t.join();
+		}
+		assertEquals(40000, p.calls());
+		assertEquals(40000, p.inputSize());
+	}
+
+	@Test
+	public void testMXBean() {
+		Metrics m = Metrics.getInstance();
+		assertEquals(Metrics.ENABLED, m.isEnabled());
+		assertTrue(m.getCallCounts().containsKey("Strings.replace"));
+		assertEquals(m.getMethods().length, m.getInputSizes().size());
+		assertEquals(Metrics.Probe.BUCKETS, m.getLatencyHistogram("Dates.format").length);
+		assertNull(m.getLatencyHistogram("none"));
+	}
+}
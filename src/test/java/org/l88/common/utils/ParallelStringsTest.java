@@ -0,0 +1,95 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelStringsTest {
+
+	private ExecutorService pool;
+
+	@Before
+	public void setUp() throws Exception {
+		pool = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.shutdownNow();
+	}
+
+	private static String random(Random r, String alphabet, int len) {
+		char[] cs = new char[len];
+		for (int i = 0; i < len; i++) {
+			cs[i] = alphabet.charAt(r.nextInt(alphabet.length()));
+		}
+		return new String(cs);
+	}
+
+	@Test
+	public void testReplaceChunks() {
+		Random r = new Random(1);
+		String[][] cases = { { "aaa", "b" }, { "ab", "" }, { "a", "xyz" }, { "aba", "中文" }, { "q", "z" } };
+		for (int round = 0; round < 50; round++) {
+			String input = random(r, "aab", 1 + r.nextInt(500));
+			for (String[] c : cases) {
+				for (int chunk = 1; chunk < 40; chunk += 7) {
+					assertEquals(Strings.replace(input, c[0], c[1]),
+							ParallelStrings.replace(input, c[0], c[1], pool, chunk));
+				}
+			}
+		}
+		assertEquals("xaabb", ParallelStrings.replace("aabb", "", "x", pool, 2));
+		String s = "aabb";
+		assertSame(s, ParallelStrings.replace(s, "c", "x", pool, 2));
+	}
+
+	@Test
+	public void testEscapeChunks() {
+		Random r = new Random(2);
+		for (int round = 0; round < 50; round++) {
+			String input = random(r, "ab<>&'\"\r\n中", r.nextInt(300));
+			for (int chunk = 1; chunk < 40; chunk += 7) {
+				assertEquals(Strings.escapeXML(input), ParallelStrings.escape(input, false, pool, chunk));
+				assertEquals(Strings.escapeHTML(input), ParallelStrings.escape(input, true, pool, chunk));
+			}
+		}
+	}
+
+	@Test
+	public void testLarge() {
+		Random r = new Random(3);
+		String input = random(r, "abc<&\n ", ParallelStrings.THRESHOLD + 12345);
+		assertEquals(Strings.replace(input, "ab", "xyz"), ParallelStrings.replace(input, "ab", "xyz"));
+		assertEquals(Strings.replace(input, "aa", "a"), ParallelStrings.replace(input, "aa", "a", pool));
+		assertEquals(Strings.escapeXML(input), ParallelStrings.escapeXML(input));
+		assertEquals(Strings.escapeHTML(input), ParallelStrings.escapeHTML(input, pool));
+		assertEquals("a&amp;b", ParallelStrings.escapeXML("a&b"));
+		assertNull(ParallelStrings.escapeHTML(null));
+	}
+
+	@Test(timeout = 30000)
+	public void testCalledFromPoolThread() throws Exception {
+		// 在线程池自身的工作线程中调用, 线程全部占满时不能死锁
+		final ExecutorService single = Executors.newFixedThreadPool(1);
+		try {
+			final String input = random(new Random(5), "abc<&\n ", 1 << 16);
+			String v = single.submit(new Callable<String>() {
+				public String call() {
+					return ParallelStrings.replace(input, "ab", "xyz", single, 1 << 12)
+							+ ParallelStrings.escape(input, true, single, 1 << 12);
+				}
+			}).get();
+			assertEquals(Strings.replace(input, "ab", "xyz") + Strings.escapeHTML(input), v);
+		} finally {
+			single.shutdownNow();
+		}
+	}
+}
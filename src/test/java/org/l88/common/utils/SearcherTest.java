@@ -0,0 +1,72 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SearcherTest {
+
+	@Test
+	public void testSearch() {
+		Searcher s = new Searcher("ab");
+		assertEquals("ab", s.needle());
+		assertEquals(2, s.indexOf("aaabab"));
+		assertEquals(4, s.indexOf("aaabab", 3));
+		assertEquals(-1, s.indexOf("aaabab", 5));
+		assertEquals(0, s.indexOf(new StringBuilder("ab"), -1));
+		assertEquals(-1, s.indexOf(""));
+		assertTrue(s.contains("xxabxx"));
+		assertFalse(s.contains("a b"));
+		assertEquals(3, s.count("ababxab"));
+		assertEquals(2, new Searcher("aa").count("aaaaa"));
+
+		// 低8位相同的字符共用跳转表的一格
+		Searcher cn = new Searcher("中丁文");
+		assertEquals(3, cn.indexOf("丁中文中丁文"));
+		assertEquals(1, new Searcher("Ł").count("aŁA"));
+
+		try {
+			new Searcher("");
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testReplace() {
+		Searcher s = new Searcher("ab");
+		assertEquals("addbcc", s.replace("aabbcc", "dd"));
+		assertEquals("ddaddbcc", s.replace("abaabbcc", "dd"));
+		assertEquals("xyzxyz", s.replace(new StringBuilder("abab"), "xyz"));
+		assertEquals("-", s.replace("ab", "-"));
+		String input = "aaxbbcc";
+		assertSame(input, s.replace(input, "dd"));
+		assertEquals("中国中国", new Searcher("华").replace("中华中华", "国"));
+	}
+
+	@Test
+	public void testRandom() {
+		Random r = new Random(39);
+		for (int round = 0; round < 2000; round++) {
+			String needle = random(r, 1 + r.nextInt(5));
+			String text = random(r, r.nextInt(60));
+			Searcher s = new Searcher(needle);
+			for (int from = 0; from <= text.length(); from += 7) {
+				assertEquals(text + " / " + needle, text.indexOf(needle, from), s.indexOf(text, from));
+			}
+			assertEquals(Strings.replace(text, needle, "#"), s.replace(text, "#"));
+		}
+	}
+
+	private static String random(Random r, int len) {
+		// 'a'与'š'、'ѡ'低8位相同
+		String alphabet = "abšѡ";
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+}
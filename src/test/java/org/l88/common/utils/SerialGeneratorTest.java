@@ -0,0 +1,139 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class SerialGeneratorTest {
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	@Test
+	public void testChrono() {
+		Calendar cal = Calendar.getInstance(UTC);
+		cal.clear();
+		cal.set(1600, Calendar.JANUARY, 1);
+		for (int i = 0; i < 200000; i++) {
+			int ymd = cal.get(Calendar.YEAR) * 10000 + (cal.get(Calendar.MONTH) + 1) * 100
+					+ cal.get(Calendar.DAY_OF_MONTH);
+			long day = Chrono.floorDiv(cal.getTimeInMillis(), Chrono.MILLIS_PER_DAY);
+			assertEquals(ymd, Chrono.toYmd(day));
+			assertEquals(day, Chrono.toEpochDay(ymd / 10000, ymd / 100 % 100, ymd % 100));
+			cal.add(Calendar.DAY_OF_MONTH, 1);
+		}
+		assertEquals(19700101000000L, Chrono.toYmdHms(0));
+		assertEquals(19691231235959L, Chrono.toYmdHms(-1));
+		assertEquals(20160229235959L, Chrono.toYmdHms(Chrono.toEpochDay(2016, 3, 1) * 86400 - 1));
+		assertEquals(29, Chrono.daysOfMonth(2000, 2));
+		assertEquals(28, Chrono.daysOfMonth(1900, 2));
+	}
+
+	@Test
+	public void testFormat() {
+		SerialGenerator g = new SerialGenerator(7, 2, 3, UTC);
+		assertEquals(19, g.length());
+		long sec = Chrono.toEpochDay(2016, 8, 15) * 86400 + 9 * 3600 + 30 * 60;
+		long p = g.advance(sec);
+		assertEquals(2016081509300007000L, g.toLong(p));
+		char[] buf = new char[21];
+		assertEquals(19, g.write(g.advance(sec), buf, 1));
+		assertEquals("2016081509300007001", new String(buf, 1, 19));
+
+		// 缺省配置: 无节点号, 5位序号
+		SerialGenerator d = new SerialGenerator();
+		assertEquals(19, d.length());
+		buf = new char[19];
+		assertEquals(19, d.write(d.advance(sec), buf, 0));
+		assertEquals("2016081509300000000", new String(buf));
+		assertEquals(19, d.write(d.advance(sec + 86399), buf, 0));
+		assertEquals("2016081609295900000", new String(buf));
+		assertEquals(19, d.next().length());
+
+		try {
+			new SerialGenerator(100, 2, 3);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new SerialGenerator(0, 0, 10);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new SerialGenerator(1, 1, 5).nextLong();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+		assertEquals(20, new SerialGenerator(1, 1, 5).next().length());
+	}
+
+	@Test
+	public void testMonotonic() {
+		SerialGenerator g = new SerialGenerator(0, 0, 2, UTC);
+		long sec = Chrono.toEpochDay(2016, 12, 31) * 86400 + 86399;
+		long last = g.toLong(g.advance(sec));
+		assertEquals(20161231235959L * 100, last);
+		// 时钟回拨: 沿用上次的秒数
+		for (int i = 1; i < 100; i++) {
+			long id = g.toLong(g.advance(sec - 5));
+			assertEquals(last + 1, id);
+			last = id;
+		}
+		// 序号用完: 借用下一秒
+		long id = g.toLong(g.advance(sec));
+		assertEquals(20170101000000L * 100, id);
+		id = g.toLong(g.advance(sec - 1));
+		assertEquals(20170101000000L * 100 + 1, id);
+		// 时钟追上
+		assertEquals(20170101000005L * 100, g.toLong(g.advance(sec + 6)));
+	}
+
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		// 5位序号, 每秒10万个; 用完时借用下一秒
+		final SerialGenerator g = new SerialGenerator();
+		final int threads = 4;
+		final int perThread = 50000;
+		final long[][] ids = new long[threads][perThread];
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final long[] mine = ids[t];
+			workers[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < perThread; i++) {
+						mine[i] = g.nextLong();
+					}
+				}
+			};
+			workers[t].start();
+		}
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		long[] all = new long[threads * perThread];
+		for (int t = 0; t < threads; t++) {
+			for (int i = 1; i < perThread; i++) {
+				assertTrue(ids[t][i] > ids[t][i - 1]);
+			}
+			System.arraycopy(ids[t], 0, all, t * perThread, perThread);
+		}
+		Arrays.sort(all);
+		for (int i = 1; i < all.length; i++) {
+			assertTrue(all[i] > all[i - 1]);
+		}
+		assertTrue(g.nextLong() > all[all.length - 1]);
+	}
+}
@@ -0,0 +1,115 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SimilarityTest {
+
+	private static int naive(CharSequence a, CharSequence b) {
+		int[] prev = new int[b.length() + 1];
+		int[] cur = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			prev[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			cur[0] = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int v = prev[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				v = Math.min(v, prev[j] + 1);
+				cur[j] = Math.min(v, cur[j - 1] + 1);
+			}
+			int[] t = prev;
+			prev = cur;
+			cur = t;
+		}
+		return prev[b.length()];
+	}
+
+	private static String random(Random r, int len, String alphabet) {
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testDistance() {
+		Similarity sim = new Similarity();
+		assertEquals(0, sim.distance("", ""));
+		assertEquals(3, sim.distance("", "abc"));
+		assertEquals(3, sim.distance("kitten", "sitting"));
+		assertEquals(2, sim.distance("flaw", "lawn"));
+		assertEquals(1, sim.distance("张三丰", "张三峰"));
+		assertEquals(3, Strings.editDistance("kitten", "sitting"));
+
+		Random r = new Random(38);
+		String[] alphabets = { "ab", "abcdefgh", "ab张三李四éÿ" };
+		for (int round = 0; round < 500; round++) {
+			String alphabet = alphabets[round % alphabets.length];
+			String a = random(r, r.nextInt(200), alphabet);
+			String b = random(r, r.nextInt(200), alphabet);
+			int expected = naive(a, b);
+			assertEquals(a + " / " + b, expected, sim.distance(a, b));
+			int k = r.nextInt(20);
+			assertEquals(a + " / " + b + " k=" + k, expected <= k, sim.withinDistance(a, b, k));
+		}
+	}
+
+	@Test
+	public void testBatch() {
+		Similarity sim = new Similarity();
+		String[] names = { "张三丰", "张三", "李四", "张无忌", "zhangsan" };
+		assertArrayEquals(new int[] { 0, 1, 3, 2, 8 }, sim.distances("张三丰", names));
+		assertArrayEquals(new int[] { 0, 1, 2, 2, 2 }, sim.distances("张三丰", names, 1));
+		assertEquals(0, sim.nearest("张三丰", names, 1));
+		assertEquals(1, sim.nearest("张四", names, 1));
+		assertEquals(-1, sim.nearest("王五六", names, 1));
+
+		Random r = new Random(7);
+		String q = random(r, 130, "abcd");
+		String[] candidates = new String[50];
+		for (int i = 0; i < candidates.length; i++) {
+			candidates[i] = random(r, 100 + r.nextInt(60), "abcd");
+		}
+		int[] d = sim.distances(q, candidates, 60);
+		for (int i = 0; i < candidates.length; i++) {
+			assertEquals(Math.min(naive(q, candidates[i]), 61), d[i]);
+		}
+	}
+
+	@Test
+	public void testJaroWinkler() {
+		Similarity sim = new Similarity();
+		assertEquals(0.9611, sim.jaroWinkler("MARTHA", "MARHTA"), 1e-4);
+		assertEquals(0.8133, sim.jaroWinkler("DIXON", "DICKSONX"), 1e-4);
+		assertEquals(0.8400, sim.jaroWinkler("DWAYNE", "DUANE"), 1e-4);
+		assertEquals(0.9444, sim.jaro("MARTHA", "MARHTA"), 1e-4);
+		assertEquals(1.0, sim.jaroWinkler("", ""), 0);
+		assertEquals(0.0, sim.jaroWinkler("abc", ""), 0);
+		assertEquals(0.0, sim.jaroWinkler("abc", "xyz"), 0);
+		assertEquals(1.0, Strings.jaroWinkler("张三丰", "张三丰"), 0);
+	}
+
+	@Test
+	public void testNgram() {
+		Similarity sim = new Similarity();
+		assertEquals(1.0, sim.ngram("night", "night", 2), 0);
+		// ni ig gh ht / na ac ch ht
+		assertEquals(0.25, sim.ngram("night", "nacht", 2), 1e-9);
+		assertEquals(0.0, sim.ngram("abc", "xyz", 2), 0);
+		assertEquals(1.0, sim.ngram("a", "a", 3), 0);
+		// 多重集合: aa aa / aa
+		assertEquals(2.0 / 3, sim.ngram("aaa", "aa", 2), 1e-9);
+		assertEquals(1.0, sim.ngram("abcdefgh", "abcdefgh", 6), 0);
+		assertEquals(0.5, sim.ngram("abcdefg", "abcdefX", 6), 1e-9);
+		try {
+			sim.ngram("a", "b", 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
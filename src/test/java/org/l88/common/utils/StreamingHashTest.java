@@ -0,0 +1,100 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StreamingHashTest {
+
+	private static final String FOX = "The quick brown fox jumps over the lazy dog";
+
+	@Test
+	public void testXxHash64() throws Exception {
+		assertEquals(0xEF46DB3751D8E999L, XxHash64.hash(new byte[0]));
+		assertEquals(0xD24EC4F1A98C6E5BL, XxHash64.hashUtf8("a"));
+		assertEquals(0x44BC2CF5AD770999L, XxHash64.hashUtf8("abc"));
+		assertEquals(0x0B242D361FDA71BCL, XxHash64.hash(FOX.getBytes("UTF-8")));
+		assertEquals("0b242d361fda71bc", Strings.toHex(XxHash64.hashUtf8(FOX)));
+		XxHash64 h = new XxHash64();
+		h.updateUtf8(FOX);
+		assertEquals("0b242d361fda71bc", h.toHex());
+		assertEquals("ef46db3751d8e999", h.reset().toHex());
+		assertFalse(new XxHash64(1).getValue() == XxHash64.hash(new byte[0]));
+	}
+
+	@Test
+	public void testMurmur3() throws Exception {
+		assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", Murmur3.hashUtf8(FOX).toHex());
+		assertEquals("00000000000000000000000000000000", Murmur3.hash(new byte[0]).toHex());
+		Murmur3 h = Murmur3.hash(FOX.getBytes("UTF-8"));
+		assertEquals(Murmur3.hashUtf8(FOX).toHex(), Strings.toHex(h.getBytes()));
+		assertEquals(Long.reverseBytes(0x6c1b07bc7bbc4be3L), h.getH1());
+		assertEquals(Long.reverseBytes(0x47939ac4a93c437aL), h.getH2());
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		Random r = new Random(40);
+		for (int round = 0; round < 200; round++) {
+			byte[] data = new byte[r.nextInt(200)];
+			r.nextBytes(data);
+			long x = XxHash64.hash(data);
+			String m = Murmur3.hash(data).toHex();
+
+			// 任意分段输入结果相同
+			XxHash64 xs = new XxHash64();
+			Murmur3 ms = new Murmur3();
+			for (int i = 0; i < data.length;) {
+				int n = Math.min(data.length - i, r.nextInt(40));
+				if (n == 1) {
+					xs.update(data[i]);
+					ms.update(data[i]);
+				} else {
+					xs.update(data, i, n);
+					ms.update(data, i, n);
+				}
+				i += n;
+			}
+			assertEquals(x, xs.getValue());
+			assertEquals(m, ms.toHex());
+
+			// 直接内存, position不变
+			ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 3);
+			direct.put(new byte[3]).put(data).flip().position(3);
+			assertEquals(x, XxHash64.hash(direct));
+			assertEquals(m, Murmur3.hash(direct).toHex());
+			assertEquals(3, direct.position());
+			assertEquals(x, XxHash64.hash(ByteBuffer.wrap(data).asReadOnlyBuffer()));
+
+			String s = randomString(r, r.nextInt(60));
+			assertEquals(XxHash64.hash(s.getBytes("UTF-8")), XxHash64.hashUtf8(s));
+			assertEquals(XxHash64.hash(utf16le(s)), XxHash64.hashChars(s));
+			assertEquals(Murmur3.hash(s.getBytes("UTF-8")).toHex(), Murmur3.hashUtf8(new StringBuilder(s)).toHex());
+			assertEquals(Murmur3.hash(utf16le(s)).toHex(), Murmur3.hashChars(s).toHex());
+		}
+	}
+
+	/**
+	 * getBytes("UTF-16LE")会替换不成对的代理字符, 这里按char原样编码
+	 */
+	private static byte[] utf16le(String s) {
+		byte[] ret = new byte[s.length() * 2];
+		for (int i = 0; i < s.length(); i++) {
+			ret[i * 2] = (byte) s.charAt(i);
+			ret[i * 2 + 1] = (byte) (s.charAt(i) >> 8);
+		}
+		return ret;
+	}
+
+	private static String randomString(Random r, int len) {
+		String alphabet = "aZ9é中文😀\ud83d";
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+}
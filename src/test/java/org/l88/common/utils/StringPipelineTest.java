@@ -0,0 +1,80 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StringPipelineTest {
+
+	@Test
+	public void testFused() {
+		StringPipeline p = StringPipeline.builder().trim().replace("ab", "a<b").escapeXML().lFill('0', 20).build();
+		String[] inputs = { "  abcab  ", "", "   ", "x&y", "中文ab中文ab" };
+		for (String s : inputs) {
+			String exp = Strings.lFillStr(Strings.escapeXML(Strings.replace(s.trim(), "ab", "a<b")), '0', 20);
+			assertEquals(exp, p.apply(s));
+			assertEquals(exp, p.apply(new StringBuilder(s)));
+		}
+		assertNull(p.apply(null));
+	}
+
+	@Test
+	public void testMultiPass() {
+		StringPipeline p = StringPipeline.builder().replace("a", "bb").replace("bb", "c").toUpperCase().trim()
+				.rFill('*', 8).build();
+		String s = " abab ";
+		String exp = Strings.rFillStr(Strings.replace(Strings.replace(s, "a", "bb"), "bb", "c").toUpperCase().trim(),
+				'*', 8);
+		assertEquals(exp, p.apply(s));
+		StringBuilder out = new StringBuilder("old");
+		assertSame(out, p.apply(s, out));
+		assertEquals(exp, out.toString());
+	}
+
+	@Test
+	public void testCaseEscapeOrder() {
+		StringPipeline p = StringPipeline.builder().escapeHTML().toUpperCase().build();
+		assertEquals("A&LT;B<BR>C", p.apply("a<b\r\nc"));
+		p = StringPipeline.builder().toLowerCase().escapeXML().build();
+		assertEquals("a&lt;b", p.apply("A<B"));
+		assertEquals("x", StringPipeline.builder().build().apply("x"));
+	}
+
+	@Test
+	public void testTruncateOmit() {
+		StringPipeline p = StringPipeline.builder().truncate(3).build();
+		assertEquals("abc", p.apply("abcdef"));
+		assertEquals("ab", p.apply("ab"));
+		p = StringPipeline.builder().omit(5).build();
+		String[] inputs = { "abcdef", "ab", "中文字", "abc中" };
+		for (String s : inputs) {
+			assertEquals(Strings.omit(s, 5), p.apply(s));
+		}
+		p = StringPipeline.builder().lFill('0', 1).escapeXML().build();
+		assertEquals("&lt;", p.apply("<b"));
+	}
+
+	@Test
+	public void testInPlace() {
+		StringPipeline single = StringPipeline.builder().trim().replace("ab", "a<b").escapeXML().build();
+		StringPipeline multi = StringPipeline.builder().replace("a", "bb").replace("bb", "c").toUpperCase().trim()
+				.build();
+		StringPipeline none = StringPipeline.builder().build();
+		StringPipeline[] all = { single, multi, none };
+		for (StringPipeline p : all) {
+			String s = " abab & x ";
+			StringBuilder sb = new StringBuilder(s);
+			assertSame(sb, p.apply(sb, sb));
+			assertEquals(p.apply(s), sb.toString());
+			assertFalse(sb.length() == 0);
+		}
+		StringBuilder out = new StringBuilder("old");
+		assertNull(single.apply(null, out));
+		assertEquals("old", out.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyMatch() {
+		StringPipeline.builder().replace("", "x");
+	}
+}
@@ -2,7 +2,10 @@ package org.l88.common.utils;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,13 +94,24 @@ public class StringsTest {
 	public void testReplace() {
 		String v = Strings.replace("aabbcc", "ab", "dd");
 		assertEquals("addbcc", v);
-
+		assertEquals("ddaddbcc", Strings.replace("abaabbcc", "ab", "dd"));
+		assertEquals("a-b-c", Strings.replace("a, b, c", ", ", "-"));
+		assertEquals("aabbcc", Strings.replace("aabbcc", "x", "dd"));
+		assertEquals("xaabbcc", Strings.replace("aabbcc", "", "x"));
+		assertEquals("中国", Strings.replace("中华", "华", "国"));
+		assertEquals("xyzxyzxyz", Strings.replace("ababab", "ab", "xyz"));
+		assertEquals("x", Strings.replace("", "", "x"));
+		assertEquals("xaabbcc", Strings.replace(new StringBuilder("aabbcc"), "", "x"));
+		assertEquals("xyzxyz", Strings.replace(new StringBuilder("abab"), "ab", "xyz"));
 	}
 
 	@Test
 	public void testEscapeXML() {
 		String v = Strings.escapeXML("a<b>c&d;'e\"f");
 		assertEquals("a&lt;b&gt;c&amp;d;&apos;e&quot;f", v);
+		assertEquals("abc中文", Strings.escapeXML("abc中文"));
+		assertEquals("&lt;&gt;", Strings.escapeXML("<>"));
+		assertNull(Strings.escapeXML(null));
 	}
 
 	@Test
@@ -124,6 +138,84 @@ public class StringsTest {
 		assertEquals("a<b>c&D ;'e\"f\ng\r\nh", v);
 	}
 
+	@Test
+	public void testWidth() {
+		String smile = new String(Character.toChars(0x1F600));
+		assertEquals(9, Strings.displayWidth("中文，a" + smile));
+		assertEquals(0, Strings.displayWidth(null));
+
+		assertEquals("ABC abc,123.", Strings.toHalfWidth("ＡＢＣ　ａｂｃ，１２３．"));
+		assertEquals("中文¥¢", Strings.toHalfWidth("中文￥￠"));
+		assertEquals("ＡＢＣ　ａｂｃ，１２３．", Strings.toFullWidth("ABC abc,123."));
+		assertEquals("中文￥￠", Strings.toFullWidth("中文¥¢"));
+		String s = "中文abc";
+		assertSame(s, Strings.toHalfWidth(s));
+		String f = "中文ａｂｃ";
+		assertSame(f, Strings.toFullWidth(f));
+		assertNull(Strings.toHalfWidth(null));
+		for (char ch = 0x21; ch < 0x7F; ch++) {
+			String half = String.valueOf(ch);
+			assertEquals(half, Strings.toHalfWidth(Strings.toFullWidth(half)));
+		}
+
+		assertEquals("中文ab..", Strings.lFillWidth("中文ab", '.', 8));
+		assertEquals("中文a", Strings.lFillWidth("中文ab", '.', 5));
+		assertEquals("中 ", Strings.lFillWidth("中文ab", ' ', 3));
+		assertEquals(" ", Strings.lFillWidth(smile + "a", ' ', 1));
+		assertSame(s, Strings.lFillWidth(s, ' ', 7));
+		assertEquals("..中文ab", Strings.rFillWidth("中文ab", '.', 8));
+		assertEquals("文ab", Strings.rFillWidth("中文ab", '.', 4));
+		assertEquals(" ab", Strings.rFillWidth("中文ab", ' ', 3));
+		assertSame(s, Strings.rFillWidth(s, ' ', 7));
+		for (int w = 0; w < 10; w++) {
+			assertEquals(w, Strings.displayWidth(Strings.lFillWidth("中文，a" + smile, '-', w)));
+			assertEquals(w, Strings.displayWidth(Strings.rFillWidth("中文，a" + smile, '-', w)));
+		}
+
+		assertEquals("中文ab", Strings.omitWidth("中文ab", 6));
+		assertEquals("中...", Strings.omitWidth("中文ab", 5));
+		assertEquals("...", Strings.omitWidth("中文ab", 3));
+		assertEquals("", Strings.omitWidth(null, 3));
+	}
+
+	@Test
+	public void testCaseConversion() {
+		String name = "userName";
+		assertEquals("UserName", Strings.capitalize(name));
+		assertSame(name, Strings.unCapitalize(name));
+		String pascal = "UserName";
+		assertSame(pascal, Strings.capitalize(pascal));
+		assertSame(name, Strings.toCamelCase(name));
+		String[][] cases = {
+				// 输入, camel, snake, kebab, upper-snake
+				{ "userName", "userName", "user_name", "user-name", "USER_NAME" },
+				{ "UserName", "userName", "user_name", "user-name", "USER_NAME" },
+				{ "user_name", "userName", "user_name", "user-name", "USER_NAME" },
+				{ "USER_NAME", "userName", "user_name", "user-name", "USER_NAME" },
+				{ "user-name", "userName", "user_name", "user-name", "USER_NAME" },
+				{ "HTTPServer", "httpServer", "http_server", "http-server", "HTTP_SERVER" },
+				{ "userID", "userId", "user_id", "user-id", "USER_ID" },
+				{ "address2Line", "address2Line", "address2_line", "address2-line", "ADDRESS2_LINE" },
+				{ "__a__b__", "aB", "a_b", "a-b", "A_B" },
+				{ "用户Name", "用户Name", "用户_name", "用户-name", "用户_NAME" },
+				{ "x", "x", "x", "x", "X" },
+				{ "", "", "", "", "" } };
+		for (String[] c : cases) {
+			assertEquals(c[0], c[1], Strings.toCamelCase(c[0]));
+			assertEquals(c[0], c[2], Strings.toSnakeCase(c[0]));
+			assertEquals(c[0], c[3], Strings.toKebabCase(c[0]));
+			assertEquals(c[0], c[4], Strings.toUpperSnakeCase(c[0]));
+		}
+		String snake = "user_name";
+		assertSame(snake, Strings.toSnakeCase(snake));
+		String kebab = "user-name";
+		assertSame(kebab, Strings.toKebabCase(kebab));
+		String upper = "USER_NAME";
+		assertSame(upper, Strings.toUpperSnakeCase(upper));
+		assertEquals("user", Strings.toSnakeCase("user__"));
+		assertNull(Strings.toSnakeCase(null));
+	}
+
 	@Test
 	public void testReplaceVar() {
 		Map<String, String> vs = new HashMap<String, String>();
@@ -134,11 +226,101 @@ public class StringsTest {
 		assertEquals("v3--v1--v2", v);
 	}
 
+	public static class Customer {
+		private final String name;
+		public final int level;
+
+		Customer(String name, int level) {
+			this.name = name;
+			this.level = level;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public boolean isVip() {
+			return level > 1;
+		}
+	}
+
+	public static class Order {
+		public Customer getCustomer() {
+			return new Customer("张三", 2);
+		}
+
+		public String[] getItems() {
+			return new String[] { "a", "b" };
+		}
+
+		public List<Customer> getContacts() {
+			List<Customer> ret = new ArrayList<Customer>();
+			ret.add(new Customer("李四", 1));
+			return ret;
+		}
+
+		public String getNothing() {
+			return null;
+		}
+
+		public String summary() {
+			return "summary";
+		}
+	}
+
+	@Test
+	public void testReplaceVarPath() {
+		Order order = new Order();
+		assertEquals("张三/2/true/b/李四/false",
+				Strings.replaceVar("${customer.name}/${customer.level}/${customer.vip}/${items[1]}/${contacts.0.name}/${contacts[0].vip}", order));
+		assertEquals("${items[2]}${nothing}${missing}${customer.name.x}${class}",
+				Strings.replaceVar("${items[2]}${nothing}${missing}${customer.name.x}${class}", order));
+
+		Map<String, Object> vs = new HashMap<String, Object>();
+		vs.put("order", order);
+		vs.put("order.customer.name", "flat");
+		vs.put("list", new int[] { 7, 8 });
+		Map<String, String> inner = new HashMap<String, String>();
+		inner.put("k", "v");
+		vs.put("m", inner);
+		// 整体键优先
+		assertEquals("flat-7-v-${order.x}", Strings.replaceVar("${order.customer.name}-${list[0]}-${m.k}-${order.x}", vs));
+		assertEquals("李四", Strings.replaceVar(new StringBuilder("${order.contacts[0].name}"), vs));
+		assertEquals("v", Strings.replaceVar("${k}", (Object) inner));
+		assertEquals("${a.b}", Strings.replaceVar("${a.b}", (Object) null));
+	}
+
+	@Test
+	public void testReplaceVarPathGettersOnly() throws Exception {
+		// 只取getter、public字段和Map键, 不调用其它方法
+		assertEquals("${summary}", Strings.replaceVar("${summary}", new Order()));
+		File f = File.createTempFile("jutils", ".tmp");
+		try {
+			Map<String, Object> vs = new HashMap<String, Object>();
+			vs.put("file", f);
+			assertEquals("${file.delete}", Strings.replaceVar("${file.delete}", vs));
+			assertTrue(f.exists());
+		} finally {
+			f.delete();
+		}
+		// JDK内部实现类的方法通过public接口调用
+		Map<String, String> m = new HashMap<String, String>();
+		m.put("k", "v");
+		Map<String, Object> vs = new HashMap<String, Object>();
+		vs.put("entry", m.entrySet().iterator().next());
+		vs.put("view", Collections.unmodifiableMap(m));
+		assertEquals("k=v/v", Strings.replaceVar("${entry.key}=${entry.value}/${view.k}", vs));
+	}
+
 	@Test
 	public void testToHex() {
 		byte[] hash = { 0x00, (byte) 0xff, 0x01, 0x1a, 0x1f };
 		String v = Strings.toHex(hash);
 		assertEquals("00ff011a1f", v);
+		assertEquals("", Strings.toHex(new byte[0]));
+		assertEquals("000000000000001f", Strings.toHex(0x1fL));
+		assertEquals("ffffffffffffffff", Strings.toHex(-1L));
+		assertEquals("0123456789abcdeffedcba9876543210", Strings.toHex(0x0123456789abcdefL, 0xfedcba9876543210L));
 	}
 
 	@Test
@@ -259,4 +441,41 @@ public class StringsTest {
 		assertFalse(Strings.equals("1", "2"));
 	}
 
+	@Test
+	public void testCharSequence() {
+		assertTrue(Strings.isEmpty(new StringBuilder()));
+		assertFalse(Strings.isEmpty(CharBuffer.wrap(" ")));
+
+		assertArrayEquals(new String[] { "aa", "bbb", "", "", "cc", "" },
+				Strings.split(new StringBuilder("aa,bbb,, ,cc,"), ',').toArray());
+		assertArrayEquals(new String[] { "aa", "bbb", "", " ", "cc", "" },
+				Strings.split(CharBuffer.wrap("aa,bbb,, ,cc,"), ',', false).toArray());
+
+		assertEquals("ddaddbcc", Strings.replace(new StringBuilder("abaabbcc"), "ab", "dd"));
+		assertEquals("aabbcc", Strings.replace(new StringBuilder("aabbcc"), "x", "dd"));
+		assertEquals("a-b", Strings.replace("a, b", new StringBuilder(", "), "-"));
+
+		assertEquals("a&lt;b&gt;c&amp;d;&apos;e&quot;f", Strings.escapeXML(new StringBuilder("a<b>c&d;'e\"f")));
+		assertEquals("a&lt;b&gt;c&amp;d;&apos;e&quot;f<br>g<br>h",
+				Strings.escapeHTML(new StringBuilder("a<b>c&d;'e\"f\ng\r\nh")));
+		assertNull(Strings.escapeXML((CharSequence) null));
+
+		Map<String, String> vs = new HashMap<String, String>();
+		vs.put("var1", "v1");
+		assertEquals("v1--${var2}$", Strings.replaceVar(new StringBuilder("${var1}--${var2}$"), vs));
+
+		assertEquals(5, Strings.gbStrLen(new StringBuilder("a中文")));
+		assertEquals(3, Strings.gbStrLen(new StringBuilder("abc")));
+		assertEquals(0, Strings.gbStrLen((CharSequence) null));
+
+		assertEquals("abc中def00", Strings.lFillStr(new StringBuilder("abc中def"), '0', 10));
+		assertEquals("a", Strings.lFillStr(new StringBuilder("abc中def"), '0', 1));
+		assertEquals("00abc中def", Strings.rFillStr(new StringBuilder("abc中def"), '0', 10));
+		assertEquals("000000中文", Strings.rFillStr(new StringBuilder("中文"), '0', 10, true));
+
+		assertTrue(Strings.equals(new StringBuilder("ab"), "ab"));
+		assertFalse(Strings.equals(new StringBuilder("ab"), "abc"));
+		assertFalse(Strings.equals(new StringBuilder("ab"), null));
+	}
+
 }
@@ -0,0 +1,136 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class TimeBucketsTest {
+
+	private static final long HOUR = 3600000L;
+	private static final long DAY = 24 * HOUR;
+
+	@Test
+	public void testBuckets() {
+		TimeZone shanghai = TimeZone.getTimeZone("Asia/Shanghai");
+		Calendar cal = Calendar.getInstance(shanghai);
+		cal.clear();
+		cal.set(2016, Calendar.JANUARY, 31, 23, 59, 59);
+		long t = cal.getTimeInMillis();
+
+		TimeBuckets days = new TimeBuckets(TimeBuckets.DAY, t - DAY, t + 2 * DAY, shanghai);
+		assertEquals(4, days.size());
+		assertEquals(1, days.add(t, 5));
+		assertEquals(2, days.add(t + 1000, 7));
+		assertEquals(2, days.add(t + 1000 + DAY - 1, 1));
+		assertEquals(-1, days.add(t + 2 * DAY));
+		assertEquals(1, days.getDropped());
+		assertEquals(1, days.getCount(1));
+		assertEquals(5, days.getSum(1));
+		assertEquals(2, days.getCount(2));
+		assertEquals(8, days.getSum(2));
+		assertEquals(t + 1000, days.getStart(2));
+		assertArrayEquals(new long[] { 0, 1, 2, 0 }, days.getCounts());
+
+		TimeBuckets months = new TimeBuckets(TimeBuckets.MONTH, t - 40 * DAY, t + 40 * DAY, shanghai);
+		assertEquals(4, months.size());
+		assertEquals(1, months.add(t));
+		assertEquals(2, months.add(t + 1000));
+		cal.set(2016, Calendar.FEBRUARY, 1, 0, 0, 0);
+		assertEquals(cal.getTimeInMillis(), months.getStart(2));
+		cal.set(2015, Calendar.DECEMBER, 1, 0, 0, 0);
+		assertEquals(cal.getTimeInMillis(), months.getStart(0));
+
+		TimeBuckets minutes = new TimeBuckets(TimeBuckets.MINUTE, t, t + HOUR, shanghai);
+		assertEquals(61, minutes.size());
+		assertEquals(0, minutes.add(t));
+		assertEquals(1, minutes.add(t + 1000));
+		assertEquals(t + 1000, minutes.getStart(1));
+
+		// 印度为+05:30
+		TimeZone kolkata = TimeZone.getTimeZone("Asia/Kolkata");
+		TimeBuckets hours = new TimeBuckets(TimeBuckets.HOUR, 0, DAY, kolkata);
+		assertEquals(25, hours.size());
+		assertEquals(-30 * 60000L, hours.getStart(0));
+		assertEquals(1, hours.indexOf(30 * 60000L));
+
+		try {
+			new TimeBuckets(4, 0, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new TimeBuckets(TimeBuckets.DAY, 1, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testMerge() throws InterruptedException {
+		final TimeBuckets total = new TimeBuckets(TimeBuckets.HOUR, 0, 10 * DAY, TimeZone.getTimeZone("UTC"));
+		final TimeBuckets[] parts = new TimeBuckets[4];
+		Thread[] threads = new Thread[parts.length];
+		for (int t = 0; t < parts.length; t++) {
+			final TimeBuckets part = parts[t] = total.newPartial();
+			final int seed = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					Random r = new Random(seed);
+					for (int i = 0; i < 100000; i++) {
+						part.add((long) (r.nextDouble() * 11 * DAY), 2);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		long counted = 0;
+		for (int t = 0; t < parts.length; t++) {
+			threads[t].join();
+			total.merge(parts[t]);
+		}
+		for (int i = 0; i < total.size(); i++) {
+			counted += total.getCount(i);
+			assertEquals(total.getCount(i) * 2, total.getSum(i));
+		}
+		assertEquals(400000, counted + total.getDropped());
+		assertTrue(total.getDropped() > 0);
+
+		try {
+			total.merge(new TimeBuckets(TimeBuckets.HOUR, 0, 10 * DAY, TimeZone.getTimeZone("Asia/Tokyo")));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testOmitForDate() {
+		TimeZone saved = TimeZone.getDefault();
+		Random r = new Random(47);
+		try {
+			for (String id : TimeZone.getAvailableIDs()) {
+				TimeZone zone = TimeZone.getTimeZone(id);
+				TimeZone.setDefault(zone);
+				long from = -1500000000000L;
+				long to = 2000000000000L;
+				TimeBuckets days = new TimeBuckets(TimeBuckets.DAY, from, to, zone);
+				for (int k = 0; k < 200; k++) {
+					long t = from + (long) (r.nextDouble() * (to - from));
+					// 整点附近更可能是切换时刻
+					if (k % 2 == 0) {
+						t = t / HOUR * HOUR + r.nextInt(3) - 1;
+					}
+					Date expected = Dates.omitForDate(new Date(t));
+					assertEquals(id + " " + t, expected.getTime(), days.getStart(days.indexOf(t)));
+				}
+			}
+		} finally {
+			TimeZone.setDefault(saved);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package org.l88.common.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TranscoderTest {
+
+	private static final Charset GB18030 = Charset.forName("GB18030");
+	private static final Charset GBK = Charset.forName("GBK");
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static byte[] transcode(Transcoder t, byte[] src) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		t.transcode(Channels.newChannel(new ByteArrayInputStream(src)), Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testTranscode() throws Exception {
+		String s = "订单号: A001, 金额€12, 表情😀, 丂AB, 中文ok\n";
+		Transcoder t = new Transcoder(GB18030, UTF8);
+		assertArrayEquals(s.getBytes("UTF-8"), transcode(t, s.getBytes("GB18030")));
+		assertTrue(t.transcode(Channels.newChannel(new ByteArrayInputStream(s.getBytes("GB18030"))),
+				Channels.newChannel(new ByteArrayOutputStream())).getAsciiBytes() > 10);
+		assertArrayEquals(s.getBytes("GB18030"), transcode(new Transcoder(UTF8, GB18030), s.getBytes("UTF-8")));
+		assertArrayEquals("丂AB".getBytes("UTF-8"), transcode(new Transcoder(GBK, UTF8), "丂AB".getBytes("GBK")));
+		assertArrayEquals(new byte[0], transcode(t, new byte[0]));
+
+		// 非ASCII兼容的字符集不走快速路径
+		Transcoder utf16 = new Transcoder(UTF8, Charset.forName("UTF-16BE"));
+		assertArrayEquals(s.getBytes("UTF-16BE"), transcode(utf16, s.getBytes("UTF-8")));
+		assertEquals(0, utf16.transcode(Channels.newChannel(new ByteArrayInputStream(s.getBytes("UTF-8"))),
+				Channels.newChannel(new ByteArrayOutputStream())).getAsciiBytes());
+	}
+
+	@Test
+	public void testRandom() throws Exception {
+		String alphabet = "abc 12,\n中文丂亐€é😀";
+		Random r = new Random(43);
+		for (int round = 0; round < 200; round++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = r.nextInt(300); i > 0; i--) {
+				int k = r.nextInt(alphabet.length());
+				if (Character.isHighSurrogate(alphabet.charAt(k))) {
+					sb.append(alphabet, k, k + 2);
+				} else if (!Character.isLowSurrogate(alphabet.charAt(k))) {
+					sb.append(alphabet.charAt(k));
+				}
+			}
+			String s = sb.toString();
+			int size = 16 + r.nextInt(20);
+			Transcoder t = new Transcoder(GB18030, UTF8).setBufferSize(size);
+			assertArrayEquals(s, s.getBytes("UTF-8"), transcode(t, s.getBytes("GB18030")));
+			t = new Transcoder(UTF8, GB18030).setBufferSize(size);
+			assertArrayEquals(s, s.getBytes("GB18030"), transcode(t, s.getBytes("UTF-8")));
+		}
+	}
+
+	@Test
+	public void testMalformed() throws Exception {
+		byte[] bad = { 'a', 'b', (byte) 0xd6, (byte) 0xd0, (byte) 0x81, ' ', 'c' };
+		Transcoder t = new Transcoder(GB18030, UTF8);
+		try {
+			transcode(t, bad);
+			fail();
+		} catch (Transcoder.MalformedException e) {
+			assertEquals(4, e.getOffset());
+			assertEquals(1, e.getLength());
+		}
+
+		t.setReplace(true);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Transcoder.Stats st = t.transcode(Channels.newChannel(new ByteArrayInputStream(bad)),
+				Channels.newChannel(out));
+		assertEquals("ab中� c", new String(out.toByteArray(), "UTF-8"));
+		assertEquals(1, st.getReplaced());
+		assertEquals(4, st.getFirstReplaced());
+		assertEquals(7, st.getBytesRead());
+
+		// 末尾不完整
+		try {
+			transcode(new Transcoder(UTF8, GB18030), new byte[] { 'a', (byte) 0xe4, (byte) 0xb8 });
+			fail();
+		} catch (Transcoder.MalformedException e) {
+			assertEquals(1, e.getOffset());
+			assertEquals(2, e.getLength());
+		}
+
+		// 无法转换
+		try {
+			transcode(new Transcoder(UTF8, GBK), "a😀".getBytes("UTF-8"));
+			fail();
+		} catch (Transcoder.MalformedException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("U+1F600"));
+		}
+		assertEquals("a?", new String(transcode(new Transcoder(UTF8, GBK).setReplace(true), "a😀".getBytes("UTF-8")),
+				"GBK"));
+
+		// 目标字符集不能编码U+FFFD时, 非法序列只计一次
+		ByteArrayOutputStream gbk = new ByteArrayOutputStream();
+		st = new Transcoder(UTF8, GBK).setReplace(true).transcode(
+				Channels.newChannel(new ByteArrayInputStream(new byte[] { 'a', (byte) 0xff, 'b' })),
+				Channels.newChannel(gbk));
+		assertEquals("a?b", new String(gbk.toByteArray(), "GBK"));
+		assertEquals(1, st.getReplaced());
+		assertEquals(1, st.getFirstReplaced());
+		assertEquals(3, st.getBytesWritten());
+	}
+
+	@Test
+	public void testFile() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sb.append(i).append(",张三,").append(i % 7 == 0 ? "北京" : "shanghai").append('\n');
+		}
+		File src = File.createTempFile("transcode", ".gb");
+		File dst = File.createTempFile("transcode", ".utf8");
+		src.deleteOnExit();
+		dst.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(src);
+		out.write(sb.toString().getBytes("GB18030"));
+		out.close();
+		Transcoder.Stats st = new Transcoder(GB18030, UTF8).transcode(src, dst);
+		byte[] expected = sb.toString().getBytes("UTF-8");
+		assertEquals(expected.length, st.getBytesWritten());
+		assertEquals(src.length(), st.getBytesRead());
+		byte[] actual = new byte[(int) dst.length()];
+		FileInputStream in = new FileInputStream(dst);
+		try {
+			assertEquals(actual.length, in.read(actual));
+		} finally {
+			in.close();
+		}
+		assertArrayEquals(expected, actual);
+	}
+}